@@ -0,0 +1,29 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.utils.SyntheticExampleGenerator;
+import com.example.demo.web.model.v1.request.ExampleRequest;
+import lombok.experimental.UtilityClass;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Shared test data for the benchmarks, produced by a {@link SyntheticExampleGenerator} with a fixed seed, so every
+ * run measures the same data set.
+ */
+@UtilityClass
+class BenchmarkData {
+
+    private static final SyntheticExampleGenerator GENERATOR =
+            new SyntheticExampleGenerator(42, 10_000, LocalDate.of(2024, 12, 31));
+
+    /**
+     * Generates example requests in parallel, in index order.
+     *
+     * @param count the number of requests to generate
+     * @return a list of example requests
+     */
+    static List<ExampleRequest> exampleRequests(int count) {
+        return GENERATOR.examples(count).parallel().toList();
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.infrastructure.persistence.NoOpExampleJournal;
+import com.example.demo.service.ExampleChangeFeed;
+import com.example.demo.service.ExampleFilter;
+import com.example.demo.service.ExampleGrouping;
+import com.example.demo.service.ExampleService;
+import com.example.demo.service.ExampleServiceImpl;
+import com.example.demo.service.store.ExampleStore;
+import com.example.demo.web.model.v1.request.ExampleRequest;
+import com.example.demo.web.model.v1.response.AggregateExampleResponse;
+import com.example.demo.web.model.v1.response.ExampleResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the {@link ExampleServiceImpl} operations against stores of various sizes.
+ * <p>
+ * The store is preloaded through {@link ExampleService#createExample(ExampleRequest)}, so IDs run from 1 to the
+ * number of records. Larger sizes than the defaults can be selected with {@code -p records=10000000}, together with
+ * a larger heap through {@code -jvmArgsAppend -Xmx16g}. Each size is measured with both store layouts; the columnar
+ * one aggregates straight from its columns, the object one through a parallel stream of the stored examples.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ExampleServiceBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int records;
+
+    @Param({"OBJECT", "COLUMNAR"})
+    private ExampleStore.Layout layout;
+
+    private ExampleStore store;
+    private ExampleService service;
+    private ExampleRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        store = new ExampleStore(layout);
+        service = new ExampleServiceImpl(store, new NoOpExampleJournal(), new ExampleChangeFeed(65_536));
+        List<ExampleRequest> requests = BenchmarkData.exampleRequests(records);
+        requests.forEach(service::createExample);
+        request = requests.get(0);
+    }
+
+    @Benchmark
+    public ExampleResponse create() {
+        return service.createExample(request);
+    }
+
+    @Benchmark
+    public ExampleResponse update() {
+        return service.updateExample(randomId(), request);
+    }
+
+    @Benchmark
+    public ExampleResponse deleteAndRestore() {
+        ExampleResponse example = store.get(randomId());
+        if (example != null) {
+            service.deleteExample(example.getId());
+            store.put(example);
+        }
+        return example;
+    }
+
+    @Benchmark
+    public List<ExampleResponse> listAll() {
+        return service.listExamples((ExampleFilter) null);
+    }
+
+    @Benchmark
+    public List<ExampleResponse> listByType() {
+        return service.listExamples(ExampleRequest.ExampleType.PRO);
+    }
+
+    @Benchmark
+    public List<ExampleResponse> listPage() {
+        return service.listExamples(null, randomId(), 100);
+    }
+
+    @Benchmark
+    public AggregateExampleResponse aggregateByType() {
+        return service.aggregateExamples(null, ExampleGrouping.TYPE, ExampleGrouping.DateBucket.DAY);
+    }
+
+    @Benchmark
+    public AggregateExampleResponse aggregateActiveByMonth() {
+        return service.aggregateExamples(new ExampleFilter(null, true, null, null, null),
+                ExampleGrouping.CREATION_DATE, ExampleGrouping.DateBucket.MONTH);
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, records + 1);
+    }
+}
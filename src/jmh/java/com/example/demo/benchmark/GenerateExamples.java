@@ -0,0 +1,46 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.utils.SyntheticExampleGenerator;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * Writes a data set of synthetic examples to a file, as a JSON array that can be posted to
+ * {@code /api/example/batch}.
+ * <p>
+ * Arguments, all optional, are the number of examples (default 1,000,000), the file (default
+ * {@code target/examples.json}), the seed (default 42) and the number of distinct tags (default 10,000). The same
+ * arguments always produce the same file.
+ * </p>
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.example.demo.benchmark.GenerateExamples -Dbenchmark.args="10000000 target/examples.json"
+ * </pre>
+ */
+public class GenerateExamples {
+
+    public static void main(String[] args) throws Exception {
+        long count = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        Path file = Path.of(args.length > 1 ? args[1] : "target/examples.json");
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+        int tags = args.length > 3 ? Integer.parseInt(args[3]) : 10_000;
+
+        SyntheticExampleGenerator generator = new SyntheticExampleGenerator(seed, tags, LocalDate.of(2024, 12, 31));
+        JsonMapper mapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        long start = System.nanoTime();
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 1 << 20)) {
+            generator.writeJson(count, mapper, out);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Wrote %d examples (%d MB) to %s in %.1f s (%.0f examples/s)%n",
+                count, Files.size(file) >> 20, file, seconds, count / seconds);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.infrastructure.security.TokenStore;
+import com.example.demo.utils.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the {@link JwtUtil} operations run on every login and every authenticated request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtUtil = new JwtUtil(new TokenStore(10_000_000), 100_000);
+        token = jwtUtil.generateToken("benchmark-user");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("benchmark-user");
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtUtil.isTokenValid(token);
+    }
+
+    @Benchmark
+    public Claims validateToken() {
+        return jwtUtil.validateToken(token);
+    }
+
+    @Benchmark
+    public Claims extractAllClaims() {
+        return jwtUtil.extractAllClaims(token);
+    }
+}
@@ -0,0 +1,384 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.utils.SyntheticExampleGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * HTTP load generator for the Example API, running a weighted mix of reads and writes.
+ * <p>
+ * Each simulated client runs on its own virtual thread and picks every request from the {@link Workload}. Request
+ * bodies and search terms come from a {@link SyntheticExampleGenerator}, so they follow the same distributions as
+ * generated data sets. Paginated reads and updates start from IDs listed from the server before the run, which are
+ * never deleted; deletes only remove examples the same client created. The driver fetches one token from
+ * {@code GET /api/auth/token} before the run, and all clients send it, so authentication is not part of the load.
+ * </p>
+ * <p>
+ * Without a target rate, clients send requests back to back (closed loop) and latency is the response time of each
+ * request. With a target rate, requests are scheduled at fixed intervals (open loop) and latency is measured from
+ * the scheduled time rather than the actual send time, so a stalled server is charged for the requests it kept
+ * waiting instead of hiding them (coordinated omission).
+ * </p>
+ * <p>
+ * Latencies of the measured phase are recorded per client and operation in HDR histograms, which are merged into
+ * percentiles at the end. Responses rejected by the rate limiter ({@code 429}) or by load shedding ({@code 503}) are
+ * counted apart from other errors and are not part of the latencies.
+ * </p>
+ */
+class LoadDriver {
+
+    private static final int KNOWN_IDS = 10_000;
+    private static final int LIST_PAGE_SIZE = 100;
+    private static final int SEARCH_HITS = 10;
+
+    private final URI baseUri;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper mapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final SyntheticExampleGenerator generator =
+            new SyntheticExampleGenerator(7, 10_000, LocalDate.of(2024, 12, 31));
+
+    LoadDriver(URI baseUri) {
+        this.baseUri = baseUri;
+    }
+
+    /**
+     * Runs a mix of paginated reads and creates back to back, and reports the latencies of the measured phase.
+     *
+     * @param concurrency the number of concurrent clients
+     * @param warmup      how long to send requests before measuring
+     * @param duration    how long to measure
+     * @param writeRatio  the share of requests that create an example, between 0 and 1
+     * @return the measured throughput and latency percentiles over all requests
+     */
+    Result run(int concurrency, Duration warmup, Duration duration, double writeRatio) throws Exception {
+        Workload workload = new Workload(Map.of(Operation.LIST, 1 - writeRatio, Operation.CREATE, writeRatio));
+        return run(workload, concurrency, 0, warmup, duration).total();
+    }
+
+    /**
+     * Runs the workload and reports the latencies of the measured phase, per operation.
+     *
+     * @param workload    the mix of operations
+     * @param concurrency the number of concurrent clients
+     * @param rate        the total number of requests per second to schedule, or {@code 0} to send back to back
+     * @param warmup      how long to send requests before measuring
+     * @param duration    how long to measure
+     * @return the measured throughput and latency percentiles
+     */
+    Report run(Workload workload, int concurrency, double rate, Duration warmup, Duration duration) throws Exception {
+        String token = send(HttpRequest.newBuilder(baseUri.resolve("/api/auth/token")).GET().build()).body();
+        long[] knownIds = knownIds(token);
+        long interval = rate > 0 ? (long) (1e9 * concurrency / rate) : 0;
+        long startAt = System.nanoTime();
+        long measureFrom = startAt + warmup.toNanos();
+        long measureUntil = measureFrom + duration.toNanos();
+
+        List<Future<Recorder>> clients = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                // Spread the first scheduled requests of the clients over one interval
+                long firstAt = startAt + interval * i / concurrency;
+                clients.add(executor.submit(() -> runClient(token, workload, knownIds, firstAt, interval,
+                        measureFrom, measureUntil)));
+            }
+        }
+
+        Recorder merged = new Recorder();
+        for (Future<Recorder> recorder : clients) {
+            merged.add(join(recorder));
+        }
+        return merged.report(duration);
+    }
+
+    private Recorder runClient(String token, Workload workload, long[] knownIds, long firstAt, long interval,
+                               long measureFrom, long measureUntil) {
+        Recorder recorder = new Recorder();
+        ArrayDeque<Long> createdIds = new ArrayDeque<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long scheduled = firstAt;
+        while (scheduled < measureUntil) {
+            long now = System.nanoTime();
+            if (interval > 0 && now < scheduled) {
+                LockSupport.parkNanos(scheduled - now);
+            }
+            long start = interval > 0 ? scheduled : System.nanoTime();
+            if (start >= measureUntil) {
+                break;
+            }
+            Operation operation = workload.next(random);
+            if (operation == Operation.DELETE && createdIds.isEmpty()) {
+                operation = Operation.CREATE;
+            }
+            int status;
+            try {
+                HttpResponse<String> response = send(request(operation, token, knownIds, createdIds, random));
+                status = response.statusCode();
+                if (operation == Operation.CREATE && status == 200) {
+                    createdIds.add(mapper.readTree(response.body()).get("id").asLong());
+                }
+            } catch (Exception e) {
+                status = -1;
+            }
+            long end = System.nanoTime();
+            if (start >= measureFrom && end <= measureUntil) {
+                recorder.record(operation, status, end - start);
+            }
+            scheduled = interval > 0 ? scheduled + interval : end;
+        }
+        return recorder;
+    }
+
+    private HttpRequest request(Operation operation, String token, long[] knownIds, ArrayDeque<Long> createdIds,
+                                ThreadLocalRandom random) throws IOException {
+        long knownId = knownIds.length == 0 ? 1 : knownIds[random.nextInt(knownIds.length)];
+        return switch (operation) {
+            case LIST -> authorized(token, "/api/example?limit=" + LIST_PAGE_SIZE + "&after=" + knownId).GET().build();
+            case SEARCH -> authorized(token, "/api/example/search?limit=" + SEARCH_HITS + "&q=" + searchTerm(random))
+                    .GET()
+                    .build();
+            case CREATE -> authorized(token, "/api/example")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(randomBody(random)))
+                    .build();
+            case UPDATE -> authorized(token, "/api/example/" + knownId)
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofByteArray(randomBody(random)))
+                    .build();
+            case DELETE -> authorized(token, "/api/example/" + createdIds.poll()).DELETE().build();
+        };
+    }
+
+    private byte[] randomBody(ThreadLocalRandom random) throws IOException {
+        return mapper.writeValueAsBytes(generator.example(random.nextLong(Long.MAX_VALUE)));
+    }
+
+    private String searchTerm(ThreadLocalRandom random) {
+        // The first word of a generated name, so terms are as frequent as in generated data sets
+        String name = generator.example(random.nextLong(Long.MAX_VALUE)).getName();
+        return name.substring(0, name.indexOf(' ')).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Lists the IDs of up to {@link #KNOWN_IDS} examples stored before the run, for reads and updates to start from.
+     */
+    private long[] knownIds(String token) throws IOException, InterruptedException {
+        long[] ids = new long[KNOWN_IDS];
+        int count = 0;
+        String cursor = "";
+        while (count < KNOWN_IDS) {
+            HttpResponse<String> response = send(authorized(token, "/api/example?limit=1000" + cursor).GET().build());
+            if (response.statusCode() != 200) {
+                throw new IOException("Unexpected status " + response.statusCode() + " listing the examples");
+            }
+            JsonNode page = mapper.readTree(response.body());
+            for (JsonNode example : page.get("examples")) {
+                if (count < KNOWN_IDS) {
+                    ids[count++] = example.get("id").asLong();
+                }
+            }
+            JsonNode next = page.get("nextCursor");
+            if (next == null || next.isNull()) {
+                break;
+            }
+            cursor = "&after=" + next.asLong();
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    private HttpRequest.Builder authorized(String token, String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).header("Authorization", "Bearer " + token);
+    }
+
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static Recorder join(Future<Recorder> future) {
+        try {
+            return future.get();
+        } catch (Exception e) {
+            throw new IllegalStateException("Load client failed", e);
+        }
+    }
+
+    /**
+     * The operations of a workload.
+     */
+    enum Operation {
+        /** {@code GET /api/example}, one page after a known ID. */
+        LIST,
+        /** {@code GET /api/example/search} for a generated word. */
+        SEARCH,
+        /** {@code POST /api/example} of a generated example. */
+        CREATE,
+        /** {@code PUT /api/example/{id}} of a known ID with a generated example. */
+        UPDATE,
+        /** {@code DELETE /api/example/{id}} of an example the client created, or a create if it has none. */
+        DELETE
+    }
+
+    /**
+     * A weighted mix of operations.
+     *
+     * @param weights the relative weight of each operation; missing operations are never run
+     */
+    record Workload(Map<Operation, Double> weights) {
+
+        Workload {
+            weights = new EnumMap<>(weights);
+        }
+
+        /**
+         * Parses a workload such as {@code list=60,search=20,create=15,delete=5}.
+         *
+         * @param mix the comma-separated operations with their weights
+         * @return the workload
+         */
+        static Workload parse(String mix) {
+            Map<Operation, Double> weights = new EnumMap<>(Operation.class);
+            for (String entry : mix.split(",")) {
+                String[] parts = entry.split("=", 2);
+                weights.put(Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)),
+                        Double.parseDouble(parts[1].trim()));
+            }
+            return new Workload(weights);
+        }
+
+        Operation next(ThreadLocalRandom random) {
+            double total = weights.values().stream().mapToDouble(Double::doubleValue).sum();
+            double value = random.nextDouble(total);
+            Operation last = null;
+            for (Map.Entry<Operation, Double> weight : weights.entrySet()) {
+                last = weight.getKey();
+                value -= weight.getValue();
+                if (value < 0) {
+                    break;
+                }
+            }
+            return last;
+        }
+    }
+
+    /**
+     * Latencies and outcome counts of one client, or of all clients once merged.
+     */
+    private static final class Recorder {
+
+        private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+        private final Map<Operation, long[]> rejections = new EnumMap<>(Operation.class);
+
+        void record(Operation operation, int status, long nanos) {
+            long[] rejected = rejections.computeIfAbsent(operation, o -> new long[3]);
+            if (status == 429) {
+                rejected[0]++;
+            } else if (status == 503) {
+                rejected[1]++;
+            } else if (status < 200 || status >= 400) {
+                rejected[2]++;
+            } else {
+                latencies.computeIfAbsent(operation, o -> new Histogram(3)).recordValue(nanos);
+            }
+        }
+
+        void add(Recorder other) {
+            other.latencies.forEach((operation, histogram) ->
+                    latencies.computeIfAbsent(operation, o -> new Histogram(3)).add(histogram));
+            other.rejections.forEach((operation, counts) -> {
+                long[] rejected = rejections.computeIfAbsent(operation, o -> new long[3]);
+                for (int i = 0; i < counts.length; i++) {
+                    rejected[i] += counts[i];
+                }
+            });
+        }
+
+        Report report(Duration duration) {
+            Map<Operation, Result> results = new EnumMap<>(Operation.class);
+            Histogram all = new Histogram(3);
+            long[] allRejected = new long[3];
+            for (Operation operation : Operation.values()) {
+                Histogram histogram = latencies.getOrDefault(operation, new Histogram(3));
+                long[] rejected = rejections.getOrDefault(operation, new long[3]);
+                if (histogram.getTotalCount() + rejected[0] + rejected[1] + rejected[2] > 0) {
+                    results.put(operation, Result.of(histogram, rejected, duration));
+                    all.add(histogram);
+                    for (int i = 0; i < rejected.length; i++) {
+                        allRejected[i] += rejected[i];
+                    }
+                }
+            }
+            return new Report(results, Result.of(all, allRejected, duration));
+        }
+    }
+
+    /**
+     * Outcome of a load run, per operation and over all of them.
+     *
+     * @param operations the results of each operation that was run
+     * @param total      the results over all operations
+     */
+    record Report(Map<Operation, Result> operations, Result total) {
+
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder();
+            operations.forEach((operation, result) ->
+                    report.append(String.format("%-8s %s%n", operation.name().toLowerCase(Locale.ROOT), result)));
+            return report.append(String.format("%-8s %s", "total", total)).toString();
+        }
+    }
+
+    /**
+     * Outcome of the requests of a load run; throughput counts successful requests, and latencies, in milliseconds,
+     * are those of successful requests.
+     */
+    record Result(long requests, long rateLimited, long shed, long errors, double throughput,
+                  double p50, double p90, double p99, double p999, double max) {
+
+        static Result of(Histogram histogram, long[] rejected, Duration duration) {
+            long count = histogram.getTotalCount();
+            return new Result(count, rejected[0], rejected[1], rejected[2], count / (duration.toNanos() / 1e9),
+                    millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                    count == 0 ? 0 : histogram.getMaxValue() / 1e6);
+        }
+
+        private static double millis(Histogram histogram, double percentile) {
+            return histogram.getTotalCount() == 0 ? 0 : histogram.getValueAtPercentile(percentile) / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("requests=%d rate-limited=%d shed=%d errors=%d throughput=%.0f req/s "
+                            + "p50=%.2f ms p90=%.2f ms p99=%.2f ms p99.9=%.2f ms max=%.2f ms",
+                    requests, rateLimited, shed, errors, throughput, p50, p90, p99, p999, max);
+        }
+    }
+}
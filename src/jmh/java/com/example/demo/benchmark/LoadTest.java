@@ -0,0 +1,39 @@
+package com.example.demo.benchmark;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Drives a running instance of the Example API with a mixed read/write workload and prints the throughput and
+ * latency percentiles of each operation.
+ * <p>
+ * Arguments, all optional, are the base URL (default {@code http://localhost:8080}), the number of concurrent
+ * clients (default 64), the measured seconds (default 30), the workload mix (default
+ * {@code list=60,search=15,create=15,update=7,delete=3}) and the total request rate (default 0, sending
+ * requests back to back; see {@link LoadDriver} for the open-loop mode). Ten seconds of warmup precede the
+ * measurement.
+ * </p>
+ * <p>
+ * All clients share one token, so the per-subject rate limit of the server applies to the whole load; rejected
+ * requests are reported separately. Start the server with {@code --security.rate-limit.enabled=false} to measure
+ * beyond it, and with {@code --example.synthetic.count=...} to run against a large data set.
+ * </p>
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.example.demo.benchmark.LoadTest -Dbenchmark.args="http://localhost:8080 64 30 list=80,create=20 0"
+ * </pre>
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        URI baseUri = URI.create(args.length > 0 ? args[0] : "http://localhost:8080");
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 30);
+        LoadDriver.Workload workload = LoadDriver.Workload.parse(
+                args.length > 3 ? args[3] : "list=60,search=15,create=15,update=7,delete=3");
+        double rate = args.length > 4 ? Double.parseDouble(args[4]) : 0;
+
+        LoadDriver.Report report = new LoadDriver(baseUri)
+                .run(workload, concurrency, rate, Duration.ofSeconds(10), duration);
+        System.out.println(report);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.infrastructure.persistence.ExamplePersistenceProperties;
+import com.example.demo.infrastructure.persistence.FileExampleJournal;
+import com.example.demo.service.ExampleChangeFeed;
+import com.example.demo.service.ExampleService;
+import com.example.demo.service.ExampleServiceImpl;
+import com.example.demo.service.store.ExampleStore;
+import com.example.demo.web.model.v1.request.ExampleRequest;
+import com.example.demo.web.model.v1.response.ExampleResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks concurrent example creation with the file-based journal.
+ * <p>
+ * With {@code syncWrites} every create waits for its journal entry to be flushed; group commit lets concurrent
+ * creates share one flush, so latency should stay close to a single {@code fsync} as the thread count grows.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class PersistentCreateBenchmark {
+
+    @Param({"true", "false"})
+    private boolean syncWrites;
+
+    private Path directory;
+    private FileExampleJournal journal;
+    private ExampleService service;
+    private ExampleRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        directory = Files.createTempDirectory("example-journal-benchmark");
+        ExamplePersistenceProperties properties = new ExamplePersistenceProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory);
+        properties.setSyncWrites(syncWrites);
+        journal = new FileExampleJournal(properties);
+        service = new ExampleServiceImpl(new ExampleStore(), journal, new ExampleChangeFeed(65_536));
+        // Runs the same initialization the application context would run
+        Method initialize = ExampleServiceImpl.class.getDeclaredMethod("initializeExamples");
+        initialize.setAccessible(true);
+        initialize.invoke(service);
+        request = BenchmarkData.exampleRequests(1).get(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public ExampleResponse create() {
+        return service.createExample(request);
+    }
+}
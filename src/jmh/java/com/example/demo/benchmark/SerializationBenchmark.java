@@ -0,0 +1,73 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.utils.ExampleDataGenerator;
+import com.example.demo.web.model.v1.response.ListExampleResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the Jackson serialization of {@link ListExampleResponse}, as done by the list endpoint, in each wire
+ * format the endpoint supports.
+ * <p>
+ * The object mappers are built with Spring's defaults, which match the mappers used by the web layer. The payload
+ * size of each format is printed when a trial starts.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"100", "10000"})
+    private int records;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    private ObjectMapper objectMapper;
+    private ListExampleResponse response;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        objectMapper = switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json().build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+            case "smile" -> Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+        response = new ListExampleResponse(ExampleDataGenerator.generateExampleRequests(records), null);
+        payload = objectMapper.writeValueAsBytes(response);
+        System.out.printf("%s payload of %d records: %d bytes%n", format, records, payload.length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public ListExampleResponse deserialize() throws IOException {
+        return objectMapper.readValue(payload, ListExampleResponse.class);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.JavaDocPracticesApplication;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long the application takes from launching its JVM to answering its first authenticated
+ * {@code GET /api/example}.
+ * <p>
+ * Every run starts the application as a new process on a free port, polls {@code GET /api/auth/token} and then
+ * {@code GET /api/example} every few milliseconds until both succeed, and stops the process. The time to first
+ * response covers JVM startup, class loading, the context refresh and the first request, which is what a scaled-out
+ * instance or a restarted pod makes its callers wait for.
+ * </p>
+ * <p>
+ * The first argument is the number of runs (default 5). The remaining arguments are the command that launches the
+ * application, to which {@code --server.port} is appended; without them, the application is launched from the
+ * benchmark classpath. Comparing the plain jar with the {@code fast-startup} build shows what AOT processing and the
+ * CDS archive save:
+ * </p>
+ * <pre>
+ * mvn package
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.example.demo.benchmark.StartupBenchmark -Dbenchmark.args="5 java -jar target/demo-0.0.1-SNAPSHOT.jar"
+ * mvn -Pfast-startup package
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.example.demo.benchmark.StartupBenchmark -Dbenchmark.args="5 java -XX:SharedArchiveFile=target/fast-startup/application.jsa -Dspring.aot.enabled=true -jar target/fast-startup/demo-0.0.1-SNAPSHOT.jar --spring.profiles.active=prod"
+ * </pre>
+ */
+public class StartupBenchmark {
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+    private static final long POLL_INTERVAL_MILLIS = 5;
+
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> command = args.length > 1
+                ? List.of(Arrays.copyOfRange(args, 1, args.length))
+                : List.of(java, "-cp", System.getProperty("java.class.path"), JavaDocPracticesApplication.class.getName());
+
+        long[] millis = new long[runs];
+        for (int run = 0; run < runs; run++) {
+            millis[run] = timeToFirstResponse(command);
+            System.out.printf("Run %d: first GET /api/example after %d ms%n", run + 1, millis[run]);
+        }
+        Arrays.sort(millis);
+        System.out.printf("Time to first response over %d runs: min %d ms, median %d ms, max %d ms%n",
+                runs, millis[0], millis[runs / 2], millis[runs - 1]);
+    }
+
+    /**
+     * Launches the application and waits for its first successful {@code GET /api/example}.
+     *
+     * @param command the command launching the application
+     * @return the milliseconds from launching the process to the first successful response
+     */
+    private static long timeToFirstResponse(List<String> command) throws IOException, InterruptedException {
+        int port = freePort();
+        URI baseUri = URI.create("http://localhost:" + port);
+        List<String> arguments = new ArrayList<>(command);
+        arguments.add("--server.port=" + port);
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(arguments)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            long deadline = start + TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with status " + process.exitValue());
+                }
+                if (firstResponse(baseUri)) {
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                }
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            }
+            throw new IllegalStateException("Application did not answer within " + TIMEOUT);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static boolean firstResponse(URI baseUri) throws InterruptedException {
+        try {
+            HttpResponse<String> token = CLIENT.send(HttpRequest.newBuilder(baseUri.resolve("/api/auth/token"))
+                    .GET().build(), HttpResponse.BodyHandlers.ofString());
+            if (token.statusCode() != 200) {
+                return false;
+            }
+            HttpResponse<String> examples = CLIENT.send(HttpRequest.newBuilder(baseUri.resolve("/api/example?limit=1"))
+                    .header("Authorization", "Bearer " + token.body())
+                    .GET().build(), HttpResponse.BodyHandlers.ofString());
+            return examples.statusCode() == 200;
+        } catch (IOException e) {
+            return false; // Not listening yet
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.JavaDocPracticesApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Compares the Example API running on Tomcat's platform-thread pool with the same API running on virtual threads.
+ * <p>
+ * The application is started in-process once per mode on a random port and driven by a {@link LoadDriver}, and
+ * throughput and latency percentiles are printed for both runs. Arguments, all optional, are the number of
+ * concurrent clients (default 400), the measured seconds (default 20) and the write ratio (default 0.2).
+ * </p>
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dbenchmark.main=com.example.demo.benchmark.ThreadModeLoadTest -Dbenchmark.args="400 20 0.2"
+ * </pre>
+ */
+public class ThreadModeLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 400;
+        Duration duration = Duration.ofSeconds(args.length > 1 ? Long.parseLong(args[1]) : 20);
+        double writeRatio = args.length > 2 ? Double.parseDouble(args[2]) : 0.2;
+
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(JavaDocPracticesApplication.class)
+                    .properties(
+                            "server.port=0",
+                            "spring.threads.virtual.enabled=" + virtualThreads,
+                            // All clients share one token; compare the thread modes, not the request limits
+                            "security.rate-limit.enabled=false",
+                            "security.load-shedding.enabled=false",
+                            "logging.level.root=WARN")
+                    .run()) {
+                int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+                LoadDriver.Result result = new LoadDriver(URI.create("http://localhost:" + port))
+                        .run(concurrency, Duration.ofSeconds(5), duration, writeRatio);
+                System.out.printf("%-16s %s%n", virtualThreads ? "virtual threads" : "platform threads", result);
+            }
+        }
+    }
+}
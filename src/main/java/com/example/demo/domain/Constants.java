@@ -1,12 +1,11 @@
 package com.example.demo.domain;
 
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.time.Duration;
 
 /**
  * A constants class to manage application-wide constants and state.
  */
 public class Constants {
     public static final String SECRET_KEY = "01234567890123456789012345678901";
-    public static final List<String> VALID_TOKENS = new CopyOnWriteArrayList<>();
+    public static final Duration TOKEN_VALIDITY = Duration.ofMinutes(30);
 }
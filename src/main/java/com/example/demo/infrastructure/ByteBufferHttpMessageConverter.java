@@ -0,0 +1,110 @@
+package com.example.demo.infrastructure;
+
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.ServletResponseWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.connector.CoyoteOutputStream;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+
+/**
+ * Writes {@link ByteBuffer} response bodies, such as prebuilt payloads kept in direct memory, without copying them to
+ * the heap first.
+ * <p>
+ * On Tomcat, the buffer is handed to the connector's output stream as is, which writes large buffers to the socket
+ * without staging them in its own output buffer; a direct buffer is then written to the socket without any heap copy
+ * at all. To get there, the response is committed through any wrappers of the servlet response first, so that
+ * wrappers writing headers on commit, such as Spring Security's, still do so. On other containers, where the Tomcat
+ * classes are not on the class path and are never loaded, the buffer is copied to the servlet output stream in
+ * chunks.
+ * </p>
+ * <p>
+ * The buffer's position is left unchanged, so the same buffer can be written by concurrent requests as long as each
+ * passes its own {@link ByteBuffer#duplicate() duplicate}.
+ * </p>
+ */
+@Component
+public class ByteBufferHttpMessageConverter extends AbstractHttpMessageConverter<ByteBuffer> {
+
+    private static final boolean TOMCAT_PRESENT = ClassUtils.isPresent(
+            "org.apache.catalina.connector.CoyoteOutputStream", ByteBufferHttpMessageConverter.class.getClassLoader());
+
+    /**
+     * Creates a converter writing buffers of any media type.
+     */
+    public ByteBufferHttpMessageConverter() {
+        super(MediaType.ALL);
+    }
+
+    @Override
+    protected boolean supports(@NonNull Class<?> clazz) {
+        return ByteBuffer.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    @NonNull
+    protected ByteBuffer readInternal(@NonNull Class<? extends ByteBuffer> clazz, @NonNull HttpInputMessage inputMessage) {
+        throw new UnsupportedOperationException("Reading byte buffers is not supported");
+    }
+
+    @Override
+    protected Long getContentLength(ByteBuffer buffer, MediaType contentType) {
+        return (long) buffer.remaining();
+    }
+
+    @Override
+    protected void writeInternal(@NonNull ByteBuffer buffer, @NonNull HttpOutputMessage outputMessage)
+            throws IOException {
+        ByteBuffer body = buffer.duplicate();
+        OutputStream out = outputMessage.getBody(); // Copies the headers to the servlet response
+        if (TOMCAT_PRESENT && outputMessage instanceof ServletServerHttpResponse servletOutput) {
+            HttpServletResponse response = servletOutput.getServletResponse();
+            ServletResponse connectorResponse = unwrap(response);
+            if (TomcatOutput.isConnectorStream(connectorResponse.getOutputStream())) {
+                if (connectorResponse != response) {
+                    response.flushBuffer(); // Commits through the wrappers before they are bypassed
+                }
+                TomcatOutput.write(connectorResponse.getOutputStream(), body);
+                return;
+            }
+        }
+        Channels.newChannel(out).write(body);
+    }
+
+    private static ServletResponse unwrap(ServletResponse response) {
+        while (response instanceof ServletResponseWrapper wrapper) {
+            response = wrapper.getResponse();
+        }
+        return response;
+    }
+
+    /**
+     * Holds the references to Tomcat classes, so that they are only resolved once Tomcat is known to be present.
+     */
+    private static final class TomcatOutput {
+
+        static boolean isConnectorStream(OutputStream out) {
+            return out instanceof CoyoteOutputStream;
+        }
+
+        static void write(OutputStream out, ByteBuffer body) throws IOException {
+            ((CoyoteOutputStream) out).write(body);
+        }
+    }
+}
@@ -8,6 +8,7 @@ import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.License;
 import io.swagger.v3.oas.models.security.SecurityRequirement;
 import io.swagger.v3.oas.models.security.SecurityScheme;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -17,8 +18,13 @@ import org.springframework.context.annotation.Configuration;
  * This class demonstrates best practices for configuring Swagger in a Java Spring application,
  * including the addition of API metadata, external documentation links, and contact information.
  * </p>
+ * <p>
+ * Like springdoc itself, it is left out when {@code springdoc.api-docs.enabled} is {@code false}, as in the
+ * {@code prod} profile, so production instances start without building the OpenAPI model.
+ * </p>
  */
 @Configuration
+@ConditionalOnProperty(name = "springdoc.api-docs.enabled", matchIfMissing = true)
 public class SwaggerConfig {
 
     /**
@@ -0,0 +1,48 @@
+package com.example.demo.infrastructure;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Configuration of the binary wire formats the API speaks besides JSON.
+ * <p>
+ * CBOR ({@code application/cbor}) and Smile ({@code application/x-jackson-smile}) are binary encodings of the JSON
+ * data model, so every request and response type maps to them without any schema or annotation of its own. They are
+ * selected per request by the {@code Accept} and {@code Content-Type} headers.
+ * </p>
+ * <p>
+ * Spring MVC registers converters for both formats on its own when they are on the class path, but with mappers
+ * that ignore the {@code spring.jackson.*} settings. The converters declared here replace them, with mappers built
+ * from the application's {@link Jackson2ObjectMapperBuilder}, so all formats serialize the same fields the same way.
+ * </p>
+ */
+@Configuration
+public class WireFormatConfig {
+
+    /**
+     * Creates the converter reading and writing CBOR.
+     *
+     * @param builder the builder of the application's object mappers
+     * @return the CBOR converter
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    /**
+     * Creates the converter reading and writing Smile.
+     *
+     * @param builder the builder of the application's object mappers
+     * @return the Smile converter
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
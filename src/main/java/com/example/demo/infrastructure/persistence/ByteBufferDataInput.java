@@ -0,0 +1,122 @@
+package com.example.demo.infrastructure.persistence;
+
+import java.io.DataInput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * {@link DataInput} reading directly from a {@link ByteBuffer}, so that records can be decoded from a memory-mapped
+ * file without copying it into a stream first.
+ */
+final class ByteBufferDataInput implements DataInput {
+
+    private final ByteBuffer buffer;
+
+    /**
+     * Creates an input reading from the current position of the given buffer.
+     *
+     * @param buffer the buffer to read from; its position is advanced by the reads
+     */
+    ByteBufferDataInput(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    @Override
+    public void readFully(byte[] bytes) throws IOException {
+        readFully(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void readFully(byte[] bytes, int offset, int length) throws IOException {
+        try {
+            buffer.get(bytes, offset, length);
+        } catch (BufferUnderflowException e) {
+            throw new EOFException();
+        }
+    }
+
+    @Override
+    public int skipBytes(int count) {
+        int skipped = Math.min(count, buffer.remaining());
+        buffer.position(buffer.position() + skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        try {
+            return buffer.get();
+        } catch (BufferUnderflowException e) {
+            throw new EOFException();
+        }
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        return readByte() & 0xFF;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        try {
+            return buffer.getShort();
+        } catch (BufferUnderflowException e) {
+            throw new EOFException();
+        }
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        return readShort() & 0xFFFF;
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        return (char) readShort();
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        try {
+            return buffer.getInt();
+        } catch (BufferUnderflowException e) {
+            throw new EOFException();
+        }
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        try {
+            return buffer.getLong();
+        } catch (BufferUnderflowException e) {
+            throw new EOFException();
+        }
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        return Float.intBitsToFloat(readInt());
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    @Override
+    public String readLine() {
+        throw new UnsupportedOperationException("Example records contain no text lines");
+    }
+
+    @Override
+    public String readUTF() {
+        throw new UnsupportedOperationException("Example records store strings as length-prefixed UTF-8");
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.demo.infrastructure.persistence;
+
+import com.example.demo.service.store.ExampleStore;
+import com.example.demo.web.model.v1.response.ExampleResponse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Durable record of the changes made to the examples.
+ * <p>
+ * Writers record every change while they hold the entry they modify, so that changes to the same example are
+ * journaled in the order they were applied. Recording never blocks; the returned future completes once the change
+ * is durable, and writers wait on it outside of the entry lock.
+ * </p>
+ * <p>
+ * Every store change that records entries runs through {@link #change}, so that a journal can wait for the changes
+ * it has recorded to become visible in the store before reading the store, as when taking a snapshot.
+ * </p>
+ */
+public interface ExampleJournal {
+
+    /**
+     * Loads the persisted examples into the store and starts journaling.
+     * <p>
+     * Must be called once, before any change is recorded.
+     * </p>
+     *
+     * @param store the store to load the examples into; it is also the source of later snapshots
+     * @return {@code true} if persisted state was found and loaded; {@code false} if the journal is empty
+     */
+    boolean recover(ExampleStore store);
+
+    /**
+     * Runs a change to the store that records its entries in this journal.
+     *
+     * @param change the change, which stores the new state of an example and records it
+     * @param <T>    the result type of the change
+     * @return the result of the change
+     */
+    default <T> T change(Supplier<T> change) {
+        return change.get();
+    }
+
+    /**
+     * Records that an example was created or replaced.
+     *
+     * @param example the new state of the example
+     * @return a future completing once the change is durable
+     */
+    CompletableFuture<Void> recordPut(ExampleResponse example);
+
+    /**
+     * Records that an example was deleted.
+     *
+     * @param id      the ID of the deleted example
+     * @param version the version assigned to the deletion
+     * @return a future completing once the change is durable
+     */
+    CompletableFuture<Void> recordDelete(Long id, long version);
+
+    /**
+     * Returns the highest version recorded so far, including the versions recovered from disk, so that versions
+     * keep increasing across restarts.
+     *
+     * @return the highest version, or {@code 0} if no versioned change was ever recorded
+     */
+    long lastVersion();
+}
@@ -0,0 +1,41 @@
+package com.example.demo.infrastructure.persistence;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class selecting the {@link ExampleJournal} implementation.
+ * <p>
+ * A file-based journal is used when {@code example.persistence.enabled} is {@code true}; otherwise examples only
+ * live in memory.
+ * </p>
+ */
+@Configuration
+@EnableConfigurationProperties(ExamplePersistenceProperties.class)
+public class ExamplePersistenceConfig {
+
+    /**
+     * Creates the file-based journal, closed together with the application context.
+     *
+     * @param properties the persistence configuration
+     * @return the file-based journal
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "example.persistence", name = "enabled", havingValue = "true")
+    public ExampleJournal fileExampleJournal(ExamplePersistenceProperties properties) {
+        return new FileExampleJournal(properties);
+    }
+
+    /**
+     * Creates the no-op journal used when persistence is disabled.
+     *
+     * @return the no-op journal
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "example.persistence", name = "enabled", havingValue = "false", matchIfMissing = true)
+    public ExampleJournal noOpExampleJournal() {
+        return new NoOpExampleJournal();
+    }
+}
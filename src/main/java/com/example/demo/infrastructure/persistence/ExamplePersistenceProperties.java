@@ -0,0 +1,40 @@
+package com.example.demo.infrastructure.persistence;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Configuration of the example persistence layer, bound from the {@code example.persistence} properties.
+ */
+@Data
+@ConfigurationProperties(prefix = "example.persistence")
+public class ExamplePersistenceProperties {
+
+    /**
+     * Whether examples are persisted to disk; when disabled they only live in memory.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Directory holding the journal segments and the snapshot.
+     */
+    private Path directory = Path.of("data");
+
+    /**
+     * Whether writes wait until their journal entry is flushed to disk before returning.
+     */
+    private boolean syncWrites = true;
+
+    /**
+     * Maximum number of journal entries written and flushed together in one group commit.
+     */
+    private int maxBatchSize = 1024;
+
+    /**
+     * Interval between snapshots, which compact the journal and keep restarts fast.
+     */
+    private Duration snapshotInterval = Duration.ofMinutes(5);
+}
@@ -0,0 +1,151 @@
+package com.example.demo.infrastructure.persistence;
+
+import com.example.demo.web.model.v1.request.ExampleRequest.ExampleType;
+import com.example.demo.web.model.v1.response.ExampleResponse;
+import lombok.experimental.UtilityClass;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+/**
+ * Compact binary encoding of {@link ExampleResponse} records, shared by the journal and the snapshots.
+ * <p>
+ * A record starts with its ID, its version ({@code 0} if it has none) and a bit mask of the fields that are present,
+ * followed by the present fields only: strings as length-prefixed UTF-8, the creation date as an epoch day and the
+ * example type as its ordinal. Records written before examples had versions lack the version and are still read.
+ * </p>
+ */
+@UtilityClass
+class ExampleRecordCodec {
+
+    private static final int NAME = 1;
+    private static final int DESCRIPTION = 1 << 1;
+    private static final int AGE = 1 << 2;
+    private static final int PRICE = 1 << 3;
+    private static final int IS_ACTIVE = 1 << 4;
+    private static final int CREATION_DATE = 1 << 5;
+    private static final int TAGS = 1 << 6;
+    private static final int EXAMPLE_TYPE = 1 << 7;
+
+    private static final ExampleType[] EXAMPLE_TYPES = ExampleType.values();
+
+    /**
+     * Writes an example record.
+     *
+     * @param out     the output to write to
+     * @param example the example to write; its ID must not be {@code null}
+     * @throws IOException if the output cannot be written
+     */
+    static void write(DataOutput out, ExampleResponse example) throws IOException {
+        int fields = (example.getName() != null ? NAME : 0)
+                | (example.getDescription() != null ? DESCRIPTION : 0)
+                | (example.getAge() != null ? AGE : 0)
+                | (example.getPrice() != null ? PRICE : 0)
+                | (example.getIsActive() != null ? IS_ACTIVE : 0)
+                | (example.getCreationDate() != null ? CREATION_DATE : 0)
+                | (example.getTags() != null ? TAGS : 0)
+                | (example.getExampleType() != null ? EXAMPLE_TYPE : 0);
+
+        out.writeLong(example.getId());
+        out.writeLong(example.getVersion() != null ? example.getVersion() : 0);
+        out.writeByte(fields);
+        if ((fields & NAME) != 0) {
+            writeString(out, example.getName());
+        }
+        if ((fields & DESCRIPTION) != 0) {
+            writeString(out, example.getDescription());
+        }
+        if ((fields & AGE) != 0) {
+            out.writeInt(example.getAge());
+        }
+        if ((fields & PRICE) != 0) {
+            out.writeDouble(example.getPrice());
+        }
+        if ((fields & IS_ACTIVE) != 0) {
+            out.writeBoolean(example.getIsActive());
+        }
+        if ((fields & CREATION_DATE) != 0) {
+            out.writeInt((int) example.getCreationDate().toEpochDay());
+        }
+        if ((fields & TAGS) != 0) {
+            String[] tags = example.getTags();
+            out.writeInt(tags.length);
+            for (String tag : tags) {
+                writeString(out, tag);
+            }
+        }
+        if ((fields & EXAMPLE_TYPE) != 0) {
+            out.writeByte(example.getExampleType().ordinal());
+        }
+    }
+
+    /**
+     * Reads an example record.
+     *
+     * @param in        the input to read from
+     * @param versioned whether the record was written with a version
+     * @return the example
+     * @throws IOException if the input cannot be read
+     */
+    static ExampleResponse read(DataInput in, boolean versioned) throws IOException {
+        ExampleResponse example = new ExampleResponse();
+        example.setId(in.readLong());
+        long version = versioned ? in.readLong() : 0;
+        if (version != 0) {
+            example.setVersion(version);
+        }
+        int fields = in.readUnsignedByte();
+        if ((fields & NAME) != 0) {
+            example.setName(readString(in));
+        }
+        if ((fields & DESCRIPTION) != 0) {
+            example.setDescription(readString(in));
+        }
+        if ((fields & AGE) != 0) {
+            example.setAge(in.readInt());
+        }
+        if ((fields & PRICE) != 0) {
+            example.setPrice(in.readDouble());
+        }
+        if ((fields & IS_ACTIVE) != 0) {
+            example.setIsActive(in.readBoolean());
+        }
+        if ((fields & CREATION_DATE) != 0) {
+            example.setCreationDate(LocalDate.ofEpochDay(in.readInt()));
+        }
+        if ((fields & TAGS) != 0) {
+            String[] tags = new String[in.readInt()];
+            for (int i = 0; i < tags.length; i++) {
+                tags[i] = readString(in);
+            }
+            example.setTags(tags);
+        }
+        if ((fields & EXAMPLE_TYPE) != 0) {
+            example.setExampleType(EXAMPLE_TYPES[in.readUnsignedByte()]);
+        }
+        return example;
+    }
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,655 @@
+package com.example.demo.infrastructure.persistence;
+
+import com.example.demo.service.store.ExampleStore;
+import com.example.demo.web.model.v1.response.ExampleResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * File-based {@link ExampleJournal} made of an append-only write-ahead log and periodic snapshots.
+ * <p>
+ * Changes are queued by the writing threads and written by a single background writer, which drains the queue in
+ * batches and flushes each batch to disk with one {@code fsync} (group commit). Under heavy write load many changes
+ * therefore share one flush, which keeps write latency low. Each log entry is framed by its length and a CRC32
+ * checksum, so a torn write at the end of the log is detected and ignored on recovery.
+ * </p>
+ * <p>
+ * The log is split into numbered segments. A snapshot rolls the log over to a new segment, writes every example of
+ * the store to a new snapshot file and then deletes the segments it covers. Since snapshots are taken while writes
+ * continue, recovery replays the segments written after the roll-over on top of the snapshot; replaying a change
+ * that the snapshot already contains is harmless because every entry holds the full state of its example.
+ * Changes record their entries before the store publishes them, so the roll-over waits for the changes in progress
+ * (see {@link #change}): every change logged before it is then visible to the snapshot.
+ * </p>
+ * <p>
+ * A failed write is reported to the writers of its batch, and the segment is truncated back to the end of the last
+ * flushed batch, or replaced by a new segment if that fails, so later entries are never appended after torn bytes.
+ * The store keeps the failed changes, so a snapshot is taken right away to bring the disk back in line with it.
+ * </p>
+ * <p>
+ * Snapshots are indexed binary files that are memory-mapped on recovery (see {@link MappedExampleSnapshot}) and
+ * attached to the store, which serves them right away and loads them into memory in the background. Recovery time
+ * therefore depends on the length of the log written since the last snapshot, not on the number of examples.
+ * </p>
+ * <p>
+ * Every entry and snapshot also carries the version of the change, so that versions keep increasing across
+ * restarts (see {@link #lastVersion()}).
+ * </p>
+ * <p>
+ * Reads never touch disk: the store stays the only source of reads, and the journal is only read on recovery.
+ * </p>
+ */
+@Slf4j
+public class FileExampleJournal implements ExampleJournal, AutoCloseable {
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final byte ROLL = 3;
+    private static final byte STOP = 4;
+
+    // Log entry types; the legacy ones were written before examples had versions
+    private static final byte LEGACY_PUT_RECORD = 1;
+    private static final byte LEGACY_DELETE_RECORD = 2;
+    private static final byte PUT_RECORD = 5;
+    private static final byte DELETE_RECORD = 6;
+
+    private static final int LEGACY_SNAPSHOT_MAGIC = 0x45585331; // "EXS1"
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int MAX_ENTRY_LENGTH = 64 << 20;
+
+    private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+
+    private final Path directory;
+    private final boolean syncWrites;
+    private final int maxBatchSize;
+    private final long snapshotIntervalMillis;
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private final AtomicLong changesSinceSnapshot = new AtomicLong();
+    private final AtomicLong lastVersion = new AtomicLong();
+    private final ReentrantLock lifecycleLock = new ReentrantLock();
+    // Held shared by every change in progress, and exclusively while queueing the roll-over of a snapshot
+    private final ReentrantReadWriteLock changeBarrier = new ReentrantReadWriteLock();
+
+    private volatile boolean closed;
+    private ExampleStore store;
+    private Thread writer;
+    private ScheduledExecutorService snapshotScheduler;
+
+    // Owned by the writer thread once it is started
+    private FileChannel segment;
+    private long segmentNumber;
+    private long segmentEnd;
+
+    /**
+     * Creates a journal in the configured directory; nothing is read or written before {@link #recover}.
+     *
+     * @param properties the persistence configuration
+     */
+    public FileExampleJournal(ExamplePersistenceProperties properties) {
+        this.directory = properties.getDirectory();
+        this.syncWrites = properties.isSyncWrites();
+        this.maxBatchSize = Math.max(1, properties.getMaxBatchSize());
+        this.snapshotIntervalMillis = properties.getSnapshotInterval().toMillis();
+    }
+
+    /**
+     * Loads the snapshot and replays the log segments written after it, then starts the writer and the snapshot
+     * schedule. New entries always go to a fresh segment, so a torn entry at the end of an old segment is never
+     * appended to.
+     *
+     * @param store the store to load the examples into
+     * @return {@code true} if a snapshot or log segment was found; {@code false} otherwise
+     */
+    @Override
+    public boolean recover(ExampleStore store) {
+        lifecycleLock.lock();
+        try {
+            if (this.store != null) {
+                throw new IllegalStateException("Journal already recovered");
+            }
+            this.store = store;
+            Files.createDirectories(directory);
+            long firstSegment = loadSnapshot(store);
+            List<Long> segments = segmentNumbers();
+            for (long number : segments) {
+                // A torn tail only ends its own segment: writing always continues in a fresh one
+                if (number >= firstSegment) {
+                    replaySegment(segmentPath(number), store);
+                }
+            }
+            boolean recovered = firstSegment > 0 || !segments.isEmpty();
+            segmentNumber = Math.max(firstSegment, segments.isEmpty() ? 0 : segments.get(segments.size() - 1) + 1);
+            segment = openSegment(segmentNumber);
+            segmentEnd = segment.size();
+            if (recovered) {
+                log.info("Recovered {} examples from {}", store.size(), directory);
+            }
+            if (!segments.isEmpty()) {
+                changesSinceSnapshot.set(1); // Let the next snapshot compact the replayed segments
+            }
+
+            writer = Thread.ofPlatform().name("example-journal-writer").daemon().start(this::writeLoop);
+            snapshotScheduler = Executors.newSingleThreadScheduledExecutor(
+                    runnable -> Thread.ofPlatform().name("example-journal-snapshot").daemon().unstarted(runnable));
+            snapshotScheduler.scheduleWithFixedDelay(this::scheduledSnapshot,
+                    snapshotIntervalMillis, snapshotIntervalMillis, TimeUnit.MILLISECONDS);
+            return recovered;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to recover examples from " + directory, e);
+        } finally {
+            lifecycleLock.unlock();
+        }
+    }
+
+    /**
+     * Runs a change while holding the change barrier shared, so that a snapshot can wait for it to complete.
+     */
+    @Override
+    public <T> T change(Supplier<T> change) {
+        Lock lock = changeBarrier.readLock();
+        lock.lock();
+        try {
+            return change.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> recordPut(ExampleResponse example) {
+        long version = example.getVersion() != null ? example.getVersion() : 0;
+        lastVersion.accumulateAndGet(version, Math::max);
+        return enqueue(new Entry(PUT, example, example.getId(), version));
+    }
+
+    @Override
+    public CompletableFuture<Void> recordDelete(Long id, long version) {
+        lastVersion.accumulateAndGet(version, Math::max);
+        return enqueue(new Entry(DELETE, null, id, version));
+    }
+
+    @Override
+    public long lastVersion() {
+        return lastVersion.get();
+    }
+
+    /**
+     * Writes a snapshot of the store and deletes the log segments it makes obsolete.
+     * <p>
+     * Skipped if nothing changed since the previous snapshot.
+     * </p>
+     *
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void snapshot() throws IOException {
+        if (closed || store == null) {
+            throw new IllegalStateException("Example journal is not open");
+        }
+        if (changesSinceSnapshot.getAndSet(0) == 0) {
+            return;
+        }
+        Entry roll = new Entry(ROLL, null, 0, 0);
+        long snapshotVersion;
+        Lock barrier = changeBarrier.writeLock();
+        barrier.lock();
+        try {
+            // No change is in progress, so every change logged before the roll-over is visible in the store, and
+            // has updated the last version, deletes included
+            snapshotVersion = lastVersion.get();
+            queue.add(roll);
+        } finally {
+            barrier.unlock();
+        }
+        long firstSegment = awaitRoll(roll);
+        Path temporary = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        long count;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            count = writeSnapshot(channel, firstSegment, snapshotVersion);
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(SNAPSHOT_FILE),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        for (long number : segmentNumbers()) {
+            if (number < firstSegment) {
+                Files.deleteIfExists(segmentPath(number));
+            }
+        }
+        log.info("Wrote snapshot of {} examples to {}", count, directory);
+    }
+
+    /**
+     * Takes a final snapshot, then stops the writer once every queued entry is flushed.
+     */
+    @Override
+    public void close() {
+        lifecycleLock.lock();
+        try {
+            if (closed || store == null) {
+                closed = true;
+                return;
+            }
+            snapshotScheduler.shutdown();
+            try {
+                snapshotScheduler.awaitTermination(1, TimeUnit.MINUTES);
+                snapshot();
+            } catch (IOException e) {
+                log.warn("Failed to write the final snapshot to {}", directory, e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            closed = true;
+            queue.add(new Entry(STOP, null, 0, 0));
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lifecycleLock.unlock();
+        }
+    }
+
+    private CompletableFuture<Void> enqueue(Entry entry) {
+        if (closed) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Example journal is closed"));
+        }
+        changesSinceSnapshot.incrementAndGet();
+        queue.add(entry);
+        return syncWrites ? entry.written : DONE;
+    }
+
+    private static long awaitRoll(Entry roll) throws IOException {
+        try {
+            roll.written.join();
+        } catch (RuntimeException e) {
+            throw new IOException("Failed to roll the journal over to a new segment", e);
+        }
+        return roll.segment;
+    }
+
+    private void scheduledSnapshot() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            changesSinceSnapshot.incrementAndGet(); // Retried at the next interval
+            log.error("Failed to write a snapshot to {}", directory, e);
+        }
+    }
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>(maxBatchSize);
+        BatchBuffer buffer = new BatchBuffer();
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            queue.drainTo(batch, maxBatchSize - 1);
+            try {
+                for (Entry entry : batch) {
+                    switch (entry.op) {
+                        case PUT, DELETE -> buffer.append(entry);
+                        case ROLL -> {
+                            buffer.writeTo(segment);
+                            segment.force(false);
+                            segment.close();
+                            segment = openSegment(++segmentNumber);
+                            segmentEnd = 0;
+                            entry.segment = segmentNumber;
+                        }
+                        case STOP -> running = false;
+                        default -> throw new IllegalStateException("Unknown journal entry " + entry.op);
+                    }
+                }
+                buffer.writeTo(segment);
+                segment.force(false);
+                segmentEnd = segment.size();
+                batch.forEach(entry -> entry.written.complete(null));
+            } catch (IOException | RuntimeException e) {
+                log.error("Failed to write {} journal entries to {}", batch.size(), directory, e);
+                buffer.reset();
+                discardFailedWrite();
+                batch.forEach(entry -> entry.written.completeExceptionally(e));
+                requestSnapshot();
+            }
+            batch.clear();
+        }
+
+        // Fail entries that raced with close instead of leaving their writers waiting
+        Entry late;
+        while ((late = queue.poll()) != null) {
+            late.written.completeExceptionally(new IllegalStateException("Example journal is closed"));
+        }
+        try {
+            segment.close();
+        } catch (IOException e) {
+            log.warn("Failed to close journal segment {}", segmentNumber, e);
+        }
+    }
+
+    private void requestSnapshot() {
+        try {
+            snapshotScheduler.execute(this::scheduledSnapshot);
+        } catch (RejectedExecutionException e) {
+            log.debug("Not taking a snapshot after a failed write, since the journal is closing");
+        }
+    }
+
+    /**
+     * Removes whatever a failed write left after the last flushed batch, so that later entries follow a valid one.
+     * If the segment cannot be truncated, writing continues in a new segment instead, and recovery ignores the torn
+     * tail of the old one.
+     */
+    private void discardFailedWrite() {
+        try {
+            segment.truncate(segmentEnd);
+            segment.force(false);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to truncate journal segment {}; continuing in a new segment", segmentNumber, e);
+            try {
+                segment.close();
+            } catch (IOException closeFailure) {
+                e.addSuppressed(closeFailure);
+            }
+            try {
+                segment = openSegment(++segmentNumber);
+                segmentEnd = 0;
+            } catch (IOException openFailure) {
+                // Retried by the next failed write; until then, every write fails and is reported
+                log.error("Failed to open journal segment {}", segmentNumber, openFailure);
+            }
+        }
+    }
+
+    /**
+     * Writes the records of every example, then the index sorted by ID, and finally fills in the header.
+     *
+     * @return the number of examples written
+     */
+    private long writeSnapshot(FileChannel channel, long firstSegment, long snapshotVersion) throws IOException {
+        SnapshotIndex index = new SnapshotIndex();
+        PayloadBuffer record = new PayloadBuffer();
+        DataOutputStream recordOut = new DataOutputStream(record);
+        OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+        out.write(new byte[MappedExampleSnapshot.HEADER_SIZE]);
+        long position = MappedExampleSnapshot.HEADER_SIZE;
+        try (Stream<ExampleResponse> examples = store.stream()) {
+            for (Iterator<ExampleResponse> iterator = examples.iterator(); iterator.hasNext(); ) {
+                ExampleResponse example = iterator.next();
+                record.reset();
+                ExampleRecordCodec.write(recordOut, example);
+                long chunkEnd = (position | (MappedExampleSnapshot.CHUNK_SIZE - 1)) + 1;
+                if (position + record.size() > chunkEnd) {
+                    position = pad(out, position, chunkEnd);
+                }
+                index.add(example.getId(), position);
+                record.writeTo(out);
+                position += record.size();
+            }
+        }
+        long alignment = MappedExampleSnapshot.INDEX_ENTRY_SIZE - 1;
+        long indexOffset = pad(out, position, (position + alignment) & ~alignment);
+        DataOutputStream indexOut = new DataOutputStream(out);
+        for (int i = 0; i < index.size; i++) {
+            indexOut.writeLong(index.ids[i]);
+            indexOut.writeLong(index.offsets[i]);
+        }
+        out.flush();
+
+        ByteBuffer header = ByteBuffer.allocate(MappedExampleSnapshot.HEADER_SIZE)
+                .putInt(MappedExampleSnapshot.MAGIC)
+                .putInt(0)
+                .putLong(firstSegment)
+                .putLong(index.size)
+                .putLong(indexOffset)
+                .putLong(snapshotVersion)
+                .flip();
+        long headerPosition = 0;
+        while (header.hasRemaining()) {
+            headerPosition += channel.write(header, headerPosition);
+        }
+        return index.size;
+    }
+
+    private static long pad(OutputStream out, long position, long target) throws IOException {
+        for (; position < target; position++) {
+            out.write(0);
+        }
+        return position;
+    }
+
+    /**
+     * Maps the snapshot and attaches it to the store, which loads it in the background. Snapshots written in the
+     * previous, sequential format are still loaded eagerly.
+     *
+     * @return the first log segment to replay on top of the snapshot, or {@code 0} if there is no snapshot
+     */
+    private long loadSnapshot(ExampleStore store) throws IOException {
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(snapshot)) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshot), 1 << 16))) {
+            if (in.readInt() == LEGACY_SNAPSHOT_MAGIC) {
+                long firstSegment = in.readLong();
+                while (in.readBoolean()) {
+                    store.put(ExampleRecordCodec.read(in, false));
+                }
+                return firstSegment;
+            }
+        }
+        MappedExampleSnapshot mapped = MappedExampleSnapshot.open(snapshot);
+        lastVersion.accumulateAndGet(mapped.lastVersion(), Math::max);
+        store.attach(mapped);
+        return mapped.firstSegment();
+    }
+
+    /**
+     * Replays one log segment into the store, up to its first torn or corrupt entry.
+     */
+    private void replaySegment(Path path, ExampleStore store) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+            CRC32 crc = new CRC32();
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                byte[] payload;
+                long checksum;
+                try {
+                    if (length <= 0 || length > MAX_ENTRY_LENGTH) {
+                        throw new EOFException("Invalid entry length " + length);
+                    }
+                    checksum = in.readInt() & 0xFFFFFFFFL;
+                    payload = new byte[length];
+                    in.readFully(payload);
+                } catch (EOFException e) {
+                    log.warn("Ignoring torn entry at the end of journal segment {}", path);
+                    return;
+                }
+                crc.reset();
+                crc.update(payload);
+                if (crc.getValue() != checksum) {
+                    log.warn("Ignoring corrupt entry in journal segment {} and the rest of the segment", path);
+                    return;
+                }
+                DataInputStream entry = new DataInputStream(new ByteArrayInputStream(payload));
+                byte type = entry.readByte();
+                switch (type) {
+                    case PUT_RECORD, LEGACY_PUT_RECORD -> {
+                        ExampleResponse example = ExampleRecordCodec.read(entry, type == PUT_RECORD);
+                        if (example.getVersion() != null) {
+                            lastVersion.accumulateAndGet(example.getVersion(), Math::max);
+                        }
+                        store.put(example);
+                    }
+                    case DELETE_RECORD, LEGACY_DELETE_RECORD -> {
+                        store.remove(entry.readLong());
+                        if (type == DELETE_RECORD) {
+                            lastVersion.accumulateAndGet(entry.readLong(), Math::max);
+                        }
+                    }
+                    default -> {
+                        log.warn("Ignoring unknown entry type {} in journal segment {} and the rest of the segment", type, path);
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private List<Long> segmentNumbers() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    private FileChannel openSegment(long number) throws IOException {
+        return FileChannel.open(segmentPath(number), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    /**
+     * A queued journal entry and the future completed once it is flushed.
+     */
+    private static final class Entry {
+
+        private final byte op;
+        private final ExampleResponse example;
+        private final long id;
+        private final long version;
+        private final CompletableFuture<Void> written = new CompletableFuture<>();
+        private long segment;
+
+        private Entry(byte op, ExampleResponse example, long id, long version) {
+            this.op = op;
+            this.example = example;
+            this.id = id;
+            this.version = version;
+        }
+    }
+
+    /**
+     * Reusable buffer collecting the framed entries of one batch before they are written with a single call.
+     */
+    private static final class BatchBuffer extends ByteArrayOutputStream {
+
+        private final PayloadBuffer payload = new PayloadBuffer();
+        private final DataOutputStream payloadOut = new DataOutputStream(payload);
+        private final DataOutputStream out = new DataOutputStream(this);
+        private final CRC32 crc = new CRC32();
+
+        private BatchBuffer() {
+            super(1 << 16);
+        }
+
+        void append(Entry entry) throws IOException {
+            payload.reset();
+            if (entry.op == PUT) {
+                payloadOut.writeByte(PUT_RECORD);
+                ExampleRecordCodec.write(payloadOut, entry.example);
+            } else {
+                payloadOut.writeByte(DELETE_RECORD);
+                payloadOut.writeLong(entry.id);
+                payloadOut.writeLong(entry.version);
+            }
+            crc.reset();
+            crc.update(payload.buffer(), 0, payload.size());
+            out.writeInt(payload.size());
+            out.writeInt((int) crc.getValue());
+            payload.writeTo(out);
+        }
+
+        void writeTo(FileChannel channel) throws IOException {
+            ByteBuffer bytes = ByteBuffer.wrap(buf, 0, count);
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            reset();
+        }
+    }
+
+    /**
+     * IDs and offsets of the records of a snapshot being written, in the order they are written.
+     */
+    private static final class SnapshotIndex {
+
+        private long[] ids = new long[1024];
+        private long[] offsets = new long[1024];
+        private int size;
+
+        void add(long id, long offset) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2);
+            }
+            ids[size] = id;
+            offsets[size++] = offset;
+        }
+    }
+
+    /**
+     * Buffer for a single entry payload, exposing its bytes without copying them.
+     */
+    private static final class PayloadBuffer extends ByteArrayOutputStream {
+
+        private PayloadBuffer() {
+            super(256);
+        }
+
+        byte[] buffer() {
+            return buf;
+        }
+    }
+}
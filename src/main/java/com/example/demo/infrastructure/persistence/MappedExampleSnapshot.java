@@ -0,0 +1,136 @@
+package com.example.demo.infrastructure.persistence;
+
+import com.example.demo.service.store.LazyExampleSource;
+import com.example.demo.web.model.v1.response.ExampleResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only view of a binary snapshot file, memory-mapped so that opening it costs the same regardless of its size.
+ * <p>
+ * The file starts with a fixed-size header, holding among others the last version recorded before the snapshot,
+ * followed by the example records and an index of {@code (ID, offset)}
+ * pairs sorted by ID. Looking up an example is a binary search over the index, and a record is only decoded when it
+ * is accessed, straight from the mapped pages. Since a single mapping is limited to 2 GB, the file is mapped in
+ * chunks; the writer pads the records so that none of them straddles two chunks.
+ * </p>
+ * <p>
+ * Snapshots written before examples had versions have a shorter header and unversioned records, and are still read.
+ * </p>
+ */
+final class MappedExampleSnapshot implements LazyExampleSource {
+
+    static final int MAGIC = 0x45585333; // "EXS3"
+    static final int HEADER_SIZE = 40;
+    static final int UNVERSIONED_MAGIC = 0x45585332; // "EXS2"
+    static final int UNVERSIONED_HEADER_SIZE = 32;
+    static final int CHUNK_SHIFT = 30;
+    static final long CHUNK_SIZE = 1L << CHUNK_SHIFT;
+    static final int INDEX_ENTRY_SIZE = 16;
+
+    private final Path path;
+    private final MappedByteBuffer[] chunks;
+    private final long firstSegment;
+    private final long count;
+    private final long indexOffset;
+    private final long lastVersion;
+    private final boolean versioned;
+
+    private MappedExampleSnapshot(Path path, MappedByteBuffer[] chunks) throws IOException {
+        this.path = path;
+        this.chunks = chunks;
+        ByteBuffer header = chunks[0].duplicate();
+        int magic = header.getInt();
+        if (magic != MAGIC && magic != UNVERSIONED_MAGIC) {
+            throw new IOException("Not an example snapshot: " + path);
+        }
+        this.versioned = magic == MAGIC;
+        if (versioned && header.limit() < HEADER_SIZE) {
+            throw new IOException("Truncated example snapshot: " + path);
+        }
+        header.getInt(); // Reserved
+        this.firstSegment = header.getLong();
+        this.count = header.getLong();
+        this.indexOffset = header.getLong();
+        this.lastVersion = versioned ? header.getLong() : 0;
+    }
+
+    /**
+     * Maps a snapshot file. The file is closed before returning; the mapping stays valid until it is garbage
+     * collected, even if the file is replaced in the meantime.
+     *
+     * @param path the snapshot file
+     * @return the mapped snapshot
+     * @throws IOException if the file cannot be mapped or is not a valid snapshot
+     */
+    static MappedExampleSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < UNVERSIONED_HEADER_SIZE) {
+                throw new IOException("Truncated example snapshot: " + path);
+            }
+            MappedByteBuffer[] chunks = new MappedByteBuffer[(int) ((size + CHUNK_SIZE - 1) >>> CHUNK_SHIFT)];
+            for (int i = 0; i < chunks.length; i++) {
+                long position = (long) i << CHUNK_SHIFT;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(CHUNK_SIZE, size - position));
+            }
+            MappedExampleSnapshot snapshot = new MappedExampleSnapshot(path, chunks);
+            if (snapshot.count < 0 || snapshot.indexOffset < UNVERSIONED_HEADER_SIZE
+                    || snapshot.indexOffset + snapshot.count * INDEX_ENTRY_SIZE != size) {
+                throw new IOException("Corrupt example snapshot: " + path);
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Returns the first log segment written after this snapshot.
+     *
+     * @return the number of the first segment to replay on top of the snapshot
+     */
+    long firstSegment() {
+        return firstSegment;
+    }
+
+    /**
+     * Returns the last version recorded before this snapshot was taken, deleted examples included.
+     *
+     * @return the last version, or {@code 0} if the snapshot predates versions
+     */
+    long lastVersion() {
+        return lastVersion;
+    }
+
+    @Override
+    public long size() {
+        return count;
+    }
+
+    @Override
+    public long idAt(long index) {
+        return longAt(indexOffset + index * INDEX_ENTRY_SIZE);
+    }
+
+    @Override
+    public ExampleResponse exampleAt(long index) {
+        long offset = longAt(indexOffset + index * INDEX_ENTRY_SIZE + Long.BYTES);
+        ByteBuffer record = chunks[(int) (offset >>> CHUNK_SHIFT)].duplicate()
+                .position((int) (offset & (CHUNK_SIZE - 1)));
+        try {
+            return ExampleRecordCodec.read(new ByteBufferDataInput(record), versioned);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Corrupt record at offset " + offset + " of " + path, e);
+        }
+    }
+
+    private long longAt(long offset) {
+        // Index entries are aligned to their size, so they never straddle two chunks
+        return chunks[(int) (offset >>> CHUNK_SHIFT)].getLong((int) (offset & (CHUNK_SIZE - 1)));
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.demo.infrastructure.persistence;
+
+import com.example.demo.service.store.ExampleStore;
+import com.example.demo.web.model.v1.response.ExampleResponse;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Journal used when persistence is disabled: nothing is recovered and changes are only kept in memory.
+ */
+public class NoOpExampleJournal implements ExampleJournal {
+
+    private static final CompletableFuture<Void> DONE = CompletableFuture.completedFuture(null);
+
+    @Override
+    public boolean recover(ExampleStore store) {
+        return false;
+    }
+
+    @Override
+    public CompletableFuture<Void> recordPut(ExampleResponse example) {
+        return DONE;
+    }
+
+    @Override
+    public CompletableFuture<Void> recordDelete(Long id, long version) {
+        return DONE;
+    }
+
+    @Override
+    public long lastVersion() {
+        return 0;
+    }
+}
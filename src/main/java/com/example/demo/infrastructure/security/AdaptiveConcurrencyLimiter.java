@@ -0,0 +1,144 @@
+package com.example.demo.infrastructure.security;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Limit on the number of requests in flight that adapts to their latency, so that requests beyond what the
+ * application can serve without queueing are rejected right away instead of slowing down every request.
+ * <p>
+ * The limit follows a latency gradient: latencies are averaged over short windows and compared to a long-term
+ * average, the no-load baseline. While the recent latency stays within 1.5 times the baseline, the limit grows by
+ * about the square root of itself per window; once requests queue up and the latency climbs past that, the limit
+ * shrinks in proportion, by at most half per window. The limit does not grow while fewer than half of it are in use,
+ * so it cannot drift upwards while the application is idle.
+ * </p>
+ * <p>
+ * Requests only pay for one atomic increment and decrement of the in-flight count and two striped
+ * {@link LongAdder} updates. The limit is recomputed by the first request that completes after a window ends, which
+ * claims the window with a compare-and-set; everybody else only reads it.
+ * </p>
+ */
+final class AdaptiveConcurrencyLimiter {
+
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int MIN_WINDOW_SAMPLES = 16;
+    private static final double TOLERANCE = 1.5;
+    private static final double BASELINE_WEIGHT = 0.01;
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final LongSupplier clock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAccumulator peakInFlight = new LongAccumulator(Math::max, 0);
+    private final LongAdder latencySum = new LongAdder();
+    private final LongAdder latencyCount = new LongAdder();
+    private final AtomicLong windowStart;
+
+    // Only written by the request that claimed the current window. Successive windows are claimed by different
+    // threads, and the claiming CAS happens before the previous claimer's writes, so both fields must be volatile.
+    private volatile double limit;
+    private volatile double baselineNanos;
+
+    /**
+     * Creates a limiter.
+     *
+     * @param initialLimit the limit before any latency was measured
+     * @param minLimit     the lowest the limit goes, however slow requests get
+     * @param maxLimit     the highest the limit goes, however fast requests are
+     * @param clock        the source of {@link System#nanoTime()}-like timestamps
+     */
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, LongSupplier clock) {
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException("Concurrency limits need 1 <= minimum <= maximum");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.clock = clock;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+        this.windowStart = new AtomicLong(clock.getAsLong());
+    }
+
+    /**
+     * Admits a request if fewer requests than the limit are in flight.
+     *
+     * @return {@code true} if the request is admitted and must be {@link #release released}; {@code false} if it
+     * has to be rejected
+     */
+    boolean tryAcquire() {
+        int current = inFlight.incrementAndGet();
+        if (current > (int) limit) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        peakInFlight.accumulate(current);
+        return true;
+    }
+
+    /**
+     * Releases an admitted request.
+     *
+     * @param latencyNanos the time the request took, or a negative value if it should not count towards the latency,
+     *                     such as for requests that continue asynchronously
+     */
+    void release(long latencyNanos) {
+        inFlight.decrementAndGet();
+        if (latencyNanos < 0) {
+            return;
+        }
+        latencySum.add(latencyNanos);
+        latencyCount.increment();
+
+        long now = clock.getAsLong();
+        long start = windowStart.get();
+        if (now - start >= WINDOW_NANOS && latencyCount.sum() >= MIN_WINDOW_SAMPLES
+                && windowStart.compareAndSet(start, now)) {
+            adapt((double) latencySum.sumThenReset() / Math.max(1, latencyCount.sumThenReset()),
+                    peakInFlight.getThenReset());
+        }
+    }
+
+    private void adapt(double latencyNanos, long peak) {
+        double baseline = baselineNanos;
+        if (baseline == 0) {
+            baseline = latencyNanos;
+        } else {
+            baseline += (latencyNanos - baseline) * BASELINE_WEIGHT;
+            if (baseline > 2 * latencyNanos) {
+                baseline *= 0.95; // Recover quickly from a baseline measured under overload
+            }
+        }
+        baselineNanos = baseline;
+        double current = limit;
+        if (peak < current / 2) {
+            return;
+        }
+        double gradient = Math.clamp(TOLERANCE * baseline / latencyNanos, 0.5, 1.0);
+        double target = current * gradient + Math.sqrt(current);
+        limit = Math.clamp(current + (target - current) * SMOOTHING, minLimit, maxLimit);
+    }
+
+    /**
+     * Returns the current limit.
+     *
+     * @return the maximum number of requests in flight
+     */
+    int limit() {
+        return (int) limit;
+    }
+
+    /**
+     * Returns the number of requests in flight.
+     *
+     * @return the number of admitted requests not released yet
+     */
+    int inFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.demo.infrastructure.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Sheds load once the application is saturated, so that the latency of the requests it accepts stays stable.
+ * <p>
+ * Authenticated requests are admitted through an {@link AdaptiveConcurrencyLimiter}, which lowers the number of
+ * requests in flight when their latency climbs. Requests over the limit are answered with
+ * {@code 503 Service Unavailable} and {@code Retry-After: 1} right away, before doing any work. Requests completed
+ * asynchronously hold their slot until they complete. Streamed responses (newline-delimited JSON and server-sent
+ * events) last as long as the client keeps reading, so they release their slot when the handler returns and do not
+ * count towards the latency. Unauthenticated requests, such as health checks, are never shed.
+ * </p>
+ */
+@Component
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Counter rejected;
+
+    /**
+     * Creates the filter and registers its metrics.
+     *
+     * @param enabled      whether load is shed
+     * @param initialLimit the number of requests in flight allowed before any latency was measured
+     * @param minLimit     the lowest number of requests in flight the limit goes down to
+     * @param maxLimit     the highest number of requests in flight the limit goes up to
+     * @param registry     the registry to register the metrics in
+     */
+    public LoadSheddingFilter(@Value("${security.load-shedding.enabled:true}") boolean enabled,
+                              @Value("${security.load-shedding.initial-limit:200}") int initialLimit,
+                              @Value("${security.load-shedding.min-limit:20}") int minLimit,
+                              @Value("${security.load-shedding.max-limit:2000}") int maxLimit,
+                              MeterRegistry registry) {
+        this.enabled = enabled;
+        this.limiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, System::nanoTime);
+        this.rejected = Counter.builder("security.requests.rejected")
+                .description("Requests rejected before reaching a controller")
+                .tag("reason", "overload")
+                .register(registry);
+        Gauge.builder("security.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::limit)
+                .description("Current adaptive limit of requests in flight")
+                .register(registry);
+        Gauge.builder("security.concurrency.in-flight", limiter, AdaptiveConcurrencyLimiter::inFlight)
+                .description("Number of admitted requests in flight")
+                .register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (!limiter.tryAcquire()) {
+            rejected.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.getWriter().write("Server is overloaded.");
+            return;
+        }
+        long start = System.nanoTime();
+        boolean released = false;
+        try {
+            chain.doFilter(request, response);
+            if (!request.isAsyncStarted()) {
+                released = true;
+                limiter.release(System.nanoTime() - start);
+            } else if (!isStream(request)) {
+                request.getAsyncContext().addListener(new ReleaseOnCompletion(start));
+                released = true;
+            }
+        } finally {
+            if (!released) {
+                limiter.release(-1);
+            }
+        }
+    }
+
+    /**
+     * Checks whether the handler of a request streams its response, judging by the media types it produces.
+     */
+    private static boolean isStream(HttpServletRequest request) {
+        if (request.getAttribute(HandlerMapping.PRODUCIBLE_MEDIA_TYPES_ATTRIBUTE) instanceof Set<?> producible) {
+            for (Object mediaType : producible) {
+                if (MediaType.APPLICATION_NDJSON.equals(mediaType) || MediaType.TEXT_EVENT_STREAM.equals(mediaType)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Releases the slot of an asynchronous request once it completes; the latency of failed or timed out requests is
+     * not counted.
+     */
+    private final class ReleaseOnCompletion implements AsyncListener {
+
+        private final long start;
+        private volatile boolean failed;
+
+        ReleaseOnCompletion(long start) {
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            limiter.release(failed ? -1 : System.nanoTime() - start);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            failed = true;
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            failed = true;
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Only registered once the request is asynchronous
+        }
+    }
+}
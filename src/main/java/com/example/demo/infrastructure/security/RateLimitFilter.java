@@ -0,0 +1,83 @@
+package com.example.demo.infrastructure.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the request rate of every authenticated client, so that one client cannot flood the application.
+ * <p>
+ * Runs after the {@link JwtAuthFilter} and keys a {@link TokenBucketRateLimiter} by the subject of the token.
+ * Requests beyond the rate are answered with {@code 429 Too Many Requests} and a {@code Retry-After} header giving
+ * the number of seconds until the next one is allowed. Unauthenticated requests are left to the rest of the chain.
+ * </p>
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final TokenBucketRateLimiter limiter;
+    private final Counter rejected;
+
+    /**
+     * Creates the filter and registers its metrics.
+     *
+     * @param enabled          whether requests are rate limited
+     * @param permitsPerSecond the sustained number of requests per second allowed per subject
+     * @param burst            the number of requests per subject allowed at once
+     * @param maximumSubjects  the maximum number of subjects whose buckets are kept at once
+     * @param registry         the registry to register the metrics in
+     */
+    public RateLimitFilter(@Value("${security.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${security.rate-limit.permits-per-second:1000}") double permitsPerSecond,
+                           @Value("${security.rate-limit.burst:2000}") int burst,
+                           @Value("${security.rate-limit.maximum-subjects:100000}") long maximumSubjects,
+                           MeterRegistry registry) {
+        this.enabled = enabled;
+        this.limiter = new TokenBucketRateLimiter(permitsPerSecond, burst, maximumSubjects, System::nanoTime);
+        this.rejected = Counter.builder("security.requests.rejected")
+                .description("Requests rejected before reaching a controller")
+                .tag("reason", "rate-limit")
+                .register(registry);
+        Gauge.builder("security.rate-limit.subjects", limiter, TokenBucketRateLimiter::size)
+                .description("Number of subjects whose rate limit is tracked")
+                .register(registry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getName() != null) {
+            long wait = limiter.tryAcquire(authentication.getName());
+            if (wait > 0) {
+                rejected.increment();
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader(HttpHeaders.RETRY_AFTER,
+                        Long.toString(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + 999_999_999))));
+                response.getWriter().write("Too many requests.");
+                return;
+            }
+        }
+        chain.doFilter(request, response);
+    }
+}
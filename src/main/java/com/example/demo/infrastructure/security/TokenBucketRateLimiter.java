@@ -0,0 +1,82 @@
+package com.example.demo.infrastructure.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token-bucket rate limiter with one bucket per key, such as the subject of a token.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding the time at which it will be full again (the generic cell rate
+ * algorithm, which is equivalent to a token bucket refilled continuously). Taking a token is one compare-and-set on
+ * the bucket of the caller, so callers with different keys never contend, and callers with the same key never block.
+ * </p>
+ * <p>
+ * Buckets are kept in a size-bounded Caffeine cache, whose lookups are lock-free and spread over the stripes of its
+ * map. A bucket that was not used for as long as it takes to fill up is as good as a new one, so buckets expire after
+ * that long without access, and the number of buckets stays proportional to the number of recently active keys.
+ * </p>
+ */
+final class TokenBucketRateLimiter {
+
+    private final long interval;
+    private final long tolerance;
+    private final LongSupplier clock;
+    private final Cache<String, AtomicLong> buckets;
+
+    /**
+     * Creates a rate limiter.
+     *
+     * @param permitsPerSecond the rate at which buckets are refilled
+     * @param burst            the capacity of a bucket, which is the number of requests allowed at once
+     * @param maximumKeys      the maximum number of buckets kept at once
+     * @param clock            the source of {@link System#nanoTime()}-like timestamps
+     */
+    TokenBucketRateLimiter(double permitsPerSecond, int burst, long maximumKeys, LongSupplier clock) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate limits need a positive rate and burst");
+        }
+        this.interval = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.tolerance = interval * burst;
+        this.clock = clock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(Duration.ofNanos(tolerance))
+                .build();
+    }
+
+    /**
+     * Takes a token from the bucket of the given key.
+     *
+     * @param key the key, such as the subject of the token of the request
+     * @return {@code 0} if a token was taken; otherwise the time in nanoseconds until one is available
+     */
+    long tryAcquire(String key) {
+        long now = clock.getAsLong();
+        AtomicLong full = buckets.get(key, k -> new AtomicLong(now));
+        while (true) {
+            long current = full.get();
+            long next = Math.max(current, now) + interval;
+            long ahead = next - now;
+            if (ahead > tolerance) {
+                return ahead - tolerance;
+            }
+            if (full.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the approximate number of buckets kept.
+     *
+     * @return the number of buckets
+     */
+    long size() {
+        return buckets.estimatedSize();
+    }
+}
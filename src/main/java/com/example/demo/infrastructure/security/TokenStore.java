@@ -0,0 +1,81 @@
+package com.example.demo.infrastructure.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.function.LongSupplier;
+
+import static com.example.demo.domain.Constants.TOKEN_VALIDITY;
+
+/**
+ * Registry of the tokens issued by this application.
+ * <p>
+ * Tokens are held in a concurrent, size-bounded Caffeine cache, which gives constant-time lookups and cheap
+ * concurrent inserts. Every entry expires together with its token, {@link com.example.demo.domain.Constants#TOKEN_VALIDITY}
+ * after it was issued, and expired entries are removed proactively, so memory stays proportional to the number of
+ * logins within one validity window. The maximum size only guards against login floods; it should be larger than the
+ * expected number of logins per validity window.
+ * </p>
+ */
+@Component
+public class TokenStore {
+
+    private final Cache<String, Boolean> tokens;
+
+    /**
+     * Creates a token store.
+     *
+     * @param maximumSize the maximum number of tokens kept at once
+     */
+    @Autowired
+    public TokenStore(@Value("${security.token-store.maximum-size:1000000}") long maximumSize) {
+        this(maximumSize, System::nanoTime);
+    }
+
+    /**
+     * Creates a token store measuring token lifetimes with the given clock.
+     *
+     * @param maximumSize the maximum number of tokens kept at once
+     * @param clock       the source of the current time in nanoseconds
+     */
+    TokenStore(long maximumSize, LongSupplier clock) {
+        this.tokens = Caffeine.newBuilder()
+                .ticker(clock::getAsLong)
+                .expireAfterWrite(TOKEN_VALIDITY)
+                .maximumSize(maximumSize)
+                .scheduler(Scheduler.systemScheduler())
+                .build();
+    }
+
+    /**
+     * Registers a newly issued token.
+     *
+     * @param token the issued token
+     */
+    public void add(String token) {
+        tokens.put(token, Boolean.TRUE);
+    }
+
+    /**
+     * Checks whether a token was issued by this application and has not expired yet.
+     *
+     * @param token the token to check
+     * @return {@code true} if the token is registered; {@code false} otherwise
+     */
+    public boolean contains(String token) {
+        return tokens.getIfPresent(token) != null;
+    }
+
+    /**
+     * Returns the approximate number of registered tokens.
+     *
+     * @return the number of registered tokens
+     */
+    public long size() {
+        return tokens.estimatedSize();
+    }
+}
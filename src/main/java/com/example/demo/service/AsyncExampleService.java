@@ -0,0 +1,40 @@
+package com.example.demo.service;
+
+import com.example.demo.web.model.v1.request.ExampleRequest;
+import com.example.demo.web.model.v1.response.AggregateExampleResponse;
+import com.example.demo.web.model.v1.response.ExampleResponse;
+import com.example.demo.web.model.v1.response.SearchExampleResponse;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.UnaryOperator;
+
+/**
+ * Asynchronous variant of the {@link ExampleService} operations that can take long, such as writes waiting for the
+ * journal to be flushed and scans over many examples.
+ * <p>
+ * Every operation returns right away with a future completing with the result of the matching
+ * {@link ExampleService} operation, or exceptionally with the exception it threw, so callers such as request threads
+ * are free to do other work in the meantime.
+ * </p>
+ */
+public interface AsyncExampleService {
+
+    CompletableFuture<ExampleResponse> createExample(ExampleRequest exampleRequest);
+
+    CompletableFuture<Void> deleteExample(Long id, Long expectedVersion);
+
+    CompletableFuture<ExampleResponse> updateExample(Long id, ExampleRequest exampleRequest, Long expectedVersion);
+
+    CompletableFuture<ExampleResponse> patchExample(Long id, UnaryOperator<ExampleRequest> patch,
+                                                    Long expectedVersion);
+
+    CompletableFuture<List<ExampleResponse>> listExamples(ExampleFilter filter);
+
+    CompletableFuture<List<ExampleResponse>> listExamples(ExampleFilter filter, Long afterId, int limit);
+
+    CompletableFuture<SearchExampleResponse> searchExamples(String query, int limit);
+
+    CompletableFuture<AggregateExampleResponse> aggregateExamples(ExampleFilter filter, ExampleGrouping grouping,
+                                                                  ExampleGrouping.DateBucket bucket);
+}
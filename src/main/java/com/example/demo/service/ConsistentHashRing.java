@@ -0,0 +1,83 @@
+package com.example.demo.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Consistent-hash ring assigning example IDs to shards.
+ * <p>
+ * Every shard is placed on the ring at a number of pseudo-random points (virtual nodes), and an ID belongs to the
+ * shard owning the first point at or after the hash of the ID. With enough virtual nodes the IDs spread evenly, and
+ * adding or removing a shard only moves the IDs of the ring segments it gains or loses, about {@code 1/N} of them,
+ * instead of reshuffling nearly all of them as {@code id % N} would.
+ * </p>
+ * <p>
+ * Points are derived from the shard names, so every node building a ring from the same names agrees on the owner of
+ * every ID. The ring is immutable and safe to share between threads.
+ * </p>
+ *
+ * @param <S> the type of the shards
+ */
+final class ConsistentHashRing<S> {
+
+    private final NavigableMap<Long, S> points = new TreeMap<>();
+
+    /**
+     * Builds a ring over the given shards.
+     *
+     * @param shards       the shards, keyed by a name unique to each shard
+     * @param virtualNodes the number of points of each shard on the ring
+     * @throws IllegalArgumentException if there are no shards or no virtual nodes
+     */
+    ConsistentHashRing(Map<String, S> shards, int virtualNodes) {
+        if (shards.isEmpty() || virtualNodes < 1) {
+            throw new IllegalArgumentException("A ring needs at least one shard and one virtual node");
+        }
+        shards.forEach((name, shard) -> {
+            long seed = name.hashCode();
+            for (int i = 0; i < virtualNodes; i++) {
+                // On the unlikely collision of two points, the first shard keeps it
+                points.putIfAbsent(mix(seed * 0x9E3779B97F4A7C15L + i), shard);
+            }
+        });
+    }
+
+    /**
+     * Builds a ring over the given shards, named by their position in the list.
+     *
+     * @param shards       the shards
+     * @param virtualNodes the number of points of each shard on the ring
+     * @param <S>          the type of the shards
+     * @return the ring
+     */
+    static <S> ConsistentHashRing<S> of(List<S> shards, int virtualNodes) {
+        Map<String, S> named = new TreeMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            named.put("shard-" + i, shards.get(i));
+        }
+        return new ConsistentHashRing<>(named, virtualNodes);
+    }
+
+    /**
+     * Returns the shard owning the given ID.
+     *
+     * @param id the ID
+     * @return the owning shard
+     */
+    S shardFor(long id) {
+        Map.Entry<Long, S> owner = points.ceilingEntry(mix(id));
+        return owner != null ? owner.getValue() : points.firstEntry().getValue();
+    }
+
+    /**
+     * Spreads the bits of a value over the whole range, so that consecutive IDs land on unrelated points (the
+     * finalizer of SplitMix64).
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
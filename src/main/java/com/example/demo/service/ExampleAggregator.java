@@ -0,0 +1,144 @@
+package com.example.demo.service;
+
+import com.example.demo.web.model.v1.response.AggregateExampleResponse;
+import com.example.demo.web.model.v1.response.ExampleGroupResponse;
+import com.example.demo.web.model.v1.response.ExampleResponse;
+import com.example.demo.web.model.v1.response.MetricSummaryResponse;
+
+import java.util.Comparator;
+import java.util.DoubleSummaryStatistics;
+import java.util.HashMap;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collector;
+
+/**
+ * Mutable accumulator of per-group statistics, used as the container of a parallel reduction.
+ * <p>
+ * Each fork-join task of a parallel stream fills its own aggregator without synchronization, and the partial
+ * aggregators are merged pairwise as the tasks join, so the aggregation scales with the number of cores.
+ * </p>
+ */
+final class ExampleAggregator {
+
+    private final ExampleGrouping grouping;
+    private final ExampleGrouping.DateBucket bucket;
+    private final Map<String, GroupStatistics> groups = new HashMap<>();
+
+    private ExampleAggregator(ExampleGrouping grouping, ExampleGrouping.DateBucket bucket) {
+        this.grouping = grouping;
+        this.bucket = bucket;
+    }
+
+    /**
+     * Returns a collector aggregating examples into per-group statistics.
+     *
+     * @param grouping the criterion by which examples are grouped
+     * @param bucket   the size of the creation date buckets
+     * @return the collector
+     */
+    static Collector<ExampleResponse, ExampleAggregator, AggregateExampleResponse> collector(
+            ExampleGrouping grouping, ExampleGrouping.DateBucket bucket) {
+        return Collector.of(
+                () -> new ExampleAggregator(grouping, bucket),
+                ExampleAggregator::accept,
+                ExampleAggregator::combine,
+                ExampleAggregator::toResponse,
+                Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * Merges aggregations of disjoint sets of examples, such as those of the shards of a
+     * {@link ShardedExampleService}, into the aggregation of all of them.
+     * <p>
+     * Counts, sums, minimums and maximums are merged per group, and averages recomputed from the merged sums and
+     * counts, so the result is the same as if all examples had been aggregated at once, up to floating-point rounding.
+     * </p>
+     *
+     * @param partials the aggregations to merge
+     * @return the merged aggregation, with groups sorted by key
+     */
+    static AggregateExampleResponse merge(List<AggregateExampleResponse> partials) {
+        Map<String, ExampleGroupResponse> groups = new TreeMap<>(Comparator.nullsLast(Comparator.naturalOrder()));
+        for (AggregateExampleResponse partial : partials) {
+            for (ExampleGroupResponse group : partial.getGroups()) {
+                groups.merge(group.getKey(), group, (merged, other) -> new ExampleGroupResponse(merged.getKey(),
+                        merged.getCount() + other.getCount(),
+                        merge(merged.getPrice(), other.getPrice()),
+                        merge(merged.getAge(), other.getAge())));
+            }
+        }
+        return new AggregateExampleResponse(List.copyOf(groups.values()));
+    }
+
+    private static MetricSummaryResponse merge(MetricSummaryResponse summary, MetricSummaryResponse other) {
+        if (other.getCount() == 0) {
+            return summary;
+        }
+        if (summary.getCount() == 0) {
+            return other;
+        }
+        long count = summary.getCount() + other.getCount();
+        double sum = summary.getSum() + other.getSum();
+        return new MetricSummaryResponse(count, sum, Math.min(summary.getMin(), other.getMin()),
+                Math.max(summary.getMax(), other.getMax()), sum / count);
+    }
+
+    private void accept(ExampleResponse example) {
+        grouping.keys(example, bucket)
+                .forEach(key -> groups.computeIfAbsent(key, k -> new GroupStatistics()).accept(example));
+    }
+
+    private ExampleAggregator combine(ExampleAggregator other) {
+        other.groups.forEach((key, statistics) -> groups.merge(key, statistics, GroupStatistics::combine));
+        return this;
+    }
+
+    private AggregateExampleResponse toResponse() {
+        return new AggregateExampleResponse(groups.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey(Comparator.nullsLast(Comparator.naturalOrder())))
+                .map(entry -> entry.getValue().toResponse(entry.getKey()))
+                .toList());
+    }
+
+    /**
+     * Count and field statistics of one group.
+     */
+    private static final class GroupStatistics {
+
+        private long count;
+        private final DoubleSummaryStatistics price = new DoubleSummaryStatistics();
+        private final IntSummaryStatistics age = new IntSummaryStatistics();
+
+        void accept(ExampleResponse example) {
+            count++;
+            if (example.getPrice() != null) {
+                price.accept(example.getPrice());
+            }
+            if (example.getAge() != null) {
+                age.accept(example.getAge());
+            }
+        }
+
+        GroupStatistics combine(GroupStatistics other) {
+            count += other.count;
+            price.combine(other.price);
+            age.combine(other.age);
+            return this;
+        }
+
+        ExampleGroupResponse toResponse(String key) {
+            return new ExampleGroupResponse(key, count,
+                    summary(price.getCount(), price.getSum(), price.getMin(), price.getMax(), price.getAverage()),
+                    summary(age.getCount(), age.getSum(), age.getMin(), age.getMax(), age.getAverage()));
+        }
+
+        private static MetricSummaryResponse summary(long count, double sum, double min, double max, double average) {
+            return count == 0
+                    ? new MetricSummaryResponse(0, 0, null, null, null)
+                    : new MetricSummaryResponse(count, sum, min, max, average);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.demo.service;
+
+import com.example.demo.web.model.v1.response.ExampleChangeResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded, in-memory feed of the most recent changes made to the examples, ordered by version.
+ * <p>
+ * The feed also hands out the versions, from a single counter, so that every writer sharing a feed (such as the
+ * shards of a {@link ShardedExampleService}) orders its changes on the same scale.
+ * </p>
+ * <p>
+ * Changes are kept in a ring buffer indexed by version, so publishing a change is a single array write and older
+ * changes are overwritten once the buffer is full. Versions are assigned while the changed example is locked, but
+ * changes to different examples are published concurrently and may arrive out of order. Readers therefore only see
+ * changes up to the <em>published</em> version: the highest version for which every change up to it is in the
+ * buffer. Any publisher moves it forward past the changes that are ready, so no reader ever sees a gap.
+ * </p>
+ * <p>
+ * A version that is assigned but never published holds every reader back, and once the buffer is full, every
+ * publisher too. Publishers therefore wait a bounded time for room in the buffer. If the earlier version is still
+ * missing by then, the feed gives up on it: it restarts after the versions that no longer fit, so readers behind them
+ * resynchronize, and stores the change. Publishing never fails, since the change it publishes is already made. A
+ * stalled change that arrives after it was given up on is dropped.
+ * </p>
+ * <p>
+ * Readers that fall further behind than the buffer holds, or that ask for changes made before the feed started,
+ * cannot be served incrementally and have to resynchronize from a full listing.
+ * </p>
+ */
+@Slf4j
+@Component
+public class ExampleChangeFeed {
+
+    private static final Duration STALL_TIMEOUT = Duration.ofSeconds(10);
+    private static final long MAX_PARK_NANOS = 1_000_000;
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<ExampleChangeResponse> ring;
+    private final AtomicLong assigned = new AtomicLong();
+    private final AtomicLong published = new AtomicLong();
+    private final long stallTimeoutNanos;
+    private volatile long start;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition advanced = lock.newCondition();
+    private final AtomicInteger waiters = new AtomicInteger();
+
+    /**
+     * Creates a feed keeping the given number of most recent changes.
+     *
+     * @param capacity the number of changes kept; rounded up to a power of two
+     */
+    @Autowired
+    public ExampleChangeFeed(@Value("${example.change-feed.capacity:65536}") int capacity) {
+        this(capacity, STALL_TIMEOUT);
+    }
+
+    /**
+     * Creates a feed keeping the given number of most recent changes.
+     *
+     * @param capacity     the number of changes kept; rounded up to a power of two
+     * @param stallTimeout how long a publisher waits for an earlier version to be published when the buffer is full
+     */
+    ExampleChangeFeed(int capacity, Duration stallTimeout) {
+        this.capacity = Math.max(2, Integer.highestOneBit(capacity - 1) << 1);
+        this.mask = this.capacity - 1;
+        this.ring = new AtomicReferenceArray<>(this.capacity);
+        this.stallTimeoutNanos = stallTimeout.toNanos();
+    }
+
+    /**
+     * Starts the feed after the given version, which becomes the oldest version readers can resume from. Must be
+     * called before any version is assigned.
+     *
+     * @param version the last version assigned before the feed started
+     */
+    public void startAt(long version) {
+        start = version;
+        assigned.set(version);
+        published.set(version);
+    }
+
+    /**
+     * Assigns the next version to a change, which must then be {@link #publish published}.
+     *
+     * @return the assigned version
+     */
+    public long nextVersion() {
+        return assigned.incrementAndGet();
+    }
+
+    /**
+     * Publishes a change. Every assigned version must be published exactly once, or readers stop at the missing one
+     * until the feed gives up on it.
+     *
+     * @param change the change to publish
+     */
+    public void publish(ExampleChangeResponse change) {
+        long version = change.getVersion();
+        if (version - published.get() > capacity) {
+            awaitRoom(version);
+        }
+        int index = index(version);
+        while (true) {
+            ExampleChangeResponse slot = ring.get(index);
+            if (slot != null && slot.getVersion() > version) {
+                return; // Given up on while stalled; its slot belongs to a newer change
+            }
+            if (ring.compareAndSet(index, slot, change)) {
+                break;
+            }
+        }
+
+        long current = published.get();
+        while (true) {
+            ExampleChangeResponse next = ring.get(index(current + 1));
+            if (next == null || next.getVersion() != current + 1) {
+                break;
+            }
+            published.compareAndSet(current, current + 1); // On failure, another publisher moved it forward
+            current = published.get();
+        }
+        if (waiters.get() > 0) {
+            lock.lock();
+            try {
+                advanced.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns the highest version readers can see; every change up to it has been published.
+     *
+     * @return the published version
+     */
+    public long publishedVersion() {
+        return published.get();
+    }
+
+    /**
+     * Returns the published changes following the given version, oldest first.
+     *
+     * @param afterVersion the last version the reader has seen
+     * @param limit        the maximum number of changes to return
+     * @return the changes, possibly empty; or {@code null} if changes following the version are no longer (or were
+     * never) in the feed, in which case the reader has to resynchronize
+     */
+    public List<ExampleChangeResponse> changesAfter(long afterVersion, int limit) {
+        long current = published.get();
+        if (afterVersion < start || current - afterVersion > capacity) {
+            return null;
+        }
+        long last = Math.min(current, afterVersion + limit);
+        List<ExampleChangeResponse> changes = new ArrayList<>((int) Math.max(0, last - afterVersion));
+        for (long version = afterVersion + 1; version <= last; version++) {
+            ExampleChangeResponse change = ring.get(index(version));
+            if (change == null || change.getVersion() != version) {
+                return null; // Overwritten by a newer change, or given up on, while reading
+            }
+            changes.add(change);
+        }
+        return changes;
+    }
+
+    /**
+     * Waits until a change following the given version is published.
+     *
+     * @param afterVersion the last version the reader has seen
+     * @param timeout      the maximum time to wait
+     * @return {@code true} if a change following the version is published; {@code false} on timeout
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitChangesAfter(long afterVersion, Duration timeout) throws InterruptedException {
+        if (published.get() > afterVersion) {
+            return true;
+        }
+        long remaining = timeout.toNanos();
+        lock.lock();
+        waiters.incrementAndGet();
+        try {
+            // Publishers check for waiters after moving the published version, so one of the two sees the other
+            while (published.get() <= afterVersion) {
+                if (remaining <= 0) {
+                    return false;
+                }
+                remaining = advanced.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            waiters.decrementAndGet();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until the slot of a version no longer holds an unpublished change, parking with a growing backoff, and
+     * gives up on the versions that keep it occupied once the stall timeout passes. Only happens if the publisher of
+     * an earlier version stalls for a full buffer of changes.
+     */
+    private void awaitRoom(long version) {
+        long deadline = System.nanoTime() + stallTimeoutNanos;
+        long parkNanos = 1_000;
+        while (version - published.get() > capacity) {
+            if (System.nanoTime() - deadline > 0) {
+                skipTo(version - capacity);
+                return;
+            }
+            LockSupport.parkNanos(parkNanos);
+            parkNanos = Math.min(parkNanos * 2, MAX_PARK_NANOS);
+        }
+    }
+
+    /**
+     * Restarts the feed after the given version, giving up on the unpublished versions up to it. The start moves
+     * before the published version, so readers that see the new published version also see the new start.
+     */
+    private synchronized void skipTo(long version) {
+        long current = published.get();
+        if (current >= version) {
+            return;
+        }
+        log.warn("Change feed stalled: versions {} to {} were not published within {}; readers before them have to "
+                + "resynchronize", current + 1, version, Duration.ofNanos(stallTimeoutNanos));
+        start = version;
+        while (current < version && !published.compareAndSet(current, version)) {
+            current = published.get();
+        }
+    }
+
+    private int index(long version) {
+        return (int) (version & mask);
+    }
+}
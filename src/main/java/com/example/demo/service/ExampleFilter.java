@@ -0,0 +1,85 @@
+package com.example.demo.service;
+
+import com.example.demo.web.model.v1.request.ExampleRequest;
+import com.example.demo.web.model.v1.response.ExampleResponse;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Filter criteria for listing example resources.
+ * <p>
+ * Every criterion is optional; a {@code null} (or empty) criterion matches all examples. When several criteria are
+ * set, an example must match all of them. Tag criteria match examples that carry every requested tag, and the
+ * creation date range is inclusive on both ends.
+ * </p>
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ExampleFilter {
+
+    private ExampleRequest.ExampleType type;
+
+    private Boolean active;
+
+    private List<String> tags;
+
+    private LocalDate createdFrom;
+
+    private LocalDate createdTo;
+
+    /**
+     * Creates a filter that only restricts the example type.
+     *
+     * @param type the type of examples to match (can be null to match all examples)
+     * @return the filter
+     */
+    public static ExampleFilter ofType(ExampleRequest.ExampleType type) {
+        return new ExampleFilter(type, null, null, null, null);
+    }
+
+    /**
+     * Checks whether the filter has no criteria and therefore matches every example.
+     *
+     * @return {@code true} if no criterion is set; {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        return type == null && active == null && (tags == null || tags.isEmpty())
+                && createdFrom == null && createdTo == null;
+    }
+
+    /**
+     * Checks whether the given example matches all criteria of this filter.
+     *
+     * @param example the example to check
+     * @return {@code true} if the example matches; {@code false} otherwise
+     */
+    public boolean matches(ExampleResponse example) {
+        if (type != null && example.getExampleType() != type) {
+            return false;
+        }
+        if (active != null && !active.equals(example.getIsActive())) {
+            return false;
+        }
+        if (tags != null && !tags.isEmpty()) {
+            List<String> exampleTags = example.getTags() == null ? List.of() : Arrays.asList(example.getTags());
+            if (!exampleTags.containsAll(tags)) {
+                return false;
+            }
+        }
+        if (createdFrom != null || createdTo != null) {
+            LocalDate creationDate = example.getCreationDate();
+            if (creationDate == null
+                    || (createdFrom != null && creationDate.isBefore(createdFrom))
+                    || (createdTo != null && creationDate.isAfter(createdTo))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
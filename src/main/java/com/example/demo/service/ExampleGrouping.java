@@ -0,0 +1,82 @@
+package com.example.demo.service;
+
+import com.example.demo.web.model.v1.response.ExampleResponse;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * Criterion by which examples are grouped when aggregating them.
+ */
+public enum ExampleGrouping {
+
+    /**
+     * All examples in a single group.
+     */
+    NONE,
+
+    /**
+     * One group per example type.
+     */
+    TYPE,
+
+    /**
+     * One group per value of the active flag.
+     */
+    ACTIVE,
+
+    /**
+     * One group per tag; an example carrying several tags counts in each of their groups.
+     */
+    TAG,
+
+    /**
+     * One group per creation date bucket, see {@link DateBucket}.
+     */
+    CREATION_DATE;
+
+    /**
+     * Returns the keys of the groups an example belongs to.
+     *
+     * @param example the example
+     * @param bucket  the size of the creation date buckets
+     * @return the group keys; a {@code null} key stands for examples without a value
+     */
+    Stream<String> keys(ExampleResponse example, DateBucket bucket) {
+        return switch (this) {
+            case NONE -> Stream.of((String) null);
+            case TYPE -> Stream.of(example.getExampleType() == null ? null : example.getExampleType().name());
+            case ACTIVE -> Stream.of(example.getIsActive() == null ? null : example.getIsActive().toString());
+            case TAG -> example.getTags() == null || example.getTags().length == 0
+                    ? Stream.of((String) null)
+                    : Arrays.stream(example.getTags()).distinct();
+            case CREATION_DATE -> Stream.of(example.getCreationDate() == null
+                    ? null : bucket.truncate(example.getCreationDate()).toString());
+        };
+    }
+
+    /**
+     * Size of the creation date buckets, identified by their first day.
+     */
+    public enum DateBucket {
+        DAY, WEEK, MONTH, YEAR;
+
+        /**
+         * Returns the first day of the bucket containing the given date; weeks start on Monday.
+         *
+         * @param date the date
+         * @return the first day of its bucket
+         */
+        public LocalDate truncate(LocalDate date) {
+            return switch (this) {
+                case DAY -> date;
+                case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                case MONTH -> date.withDayOfMonth(1);
+                case YEAR -> date.withDayOfYear(1);
+            };
+        }
+    }
+}
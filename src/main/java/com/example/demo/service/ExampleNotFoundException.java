@@ -0,0 +1,16 @@
+package com.example.demo.service;
+
+/**
+ * Thrown when a change is made to an example that does not exist.
+ */
+public class ExampleNotFoundException extends RuntimeException {
+
+    /**
+     * Creates an exception for a change to an absent example.
+     *
+     * @param id the ID of the example
+     */
+    public ExampleNotFoundException(Long id) {
+        super("Example with ID " + id + " not found.");
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.demo.service;
+
+import com.example.demo.infrastructure.persistence.ExamplePersistenceProperties;
+import com.example.demo.service.store.CachingExampleRepository;
+import com.example.demo.service.store.ExampleRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.ToLongFunction;
+
+/**
+ * Puts a {@link CachingExampleRepository} in front of the repository of every example service, when
+ * {@code example.repository.cache.enabled} is set, and publishes the statistics of the caches as metrics.
+ * <p>
+ * With several repositories, such as one per shard, every metric is the sum over all of them. The caches are
+ * closed, writing their pending changes, together with the application context.
+ * </p>
+ * <p>
+ * Writing behind is refused together with persistence: journal snapshots are read from the backing repository and
+ * replace the log segments they cover, so changes still pending in the cache when a snapshot is taken would be lost.
+ * </p>
+ */
+@Component
+class ExampleRepositoryCache implements MeterBinder, AutoCloseable {
+
+    private final boolean enabled;
+    private final long maximumSize;
+    private final CachingExampleRepository.WriteMode writeMode;
+    private final Duration flushInterval;
+    private final List<CachingExampleRepository> repositories = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates the cache configuration.
+     *
+     * @param enabled       whether repositories are cached
+     * @param maximumSize   the maximum number of examples cached per repository
+     * @param writeMode     how writes reach the cached repositories
+     * @param flushInterval the delay between two writes of the pending changes, when writing behind
+     * @param persistence   the persistence configuration
+     * @throws IllegalStateException if writing behind is configured together with persistence
+     */
+    ExampleRepositoryCache(@Value("${example.repository.cache.enabled:false}") boolean enabled,
+                           @Value("${example.repository.cache.maximum-size:100000}") long maximumSize,
+                           @Value("${example.repository.cache.write-mode:write-through}")
+                           CachingExampleRepository.WriteMode writeMode,
+                           @Value("${example.repository.cache.flush-interval:100ms}") Duration flushInterval,
+                           ExamplePersistenceProperties persistence) {
+        this.enabled = enabled;
+        this.maximumSize = maximumSize;
+        this.writeMode = writeMode;
+        this.flushInterval = flushInterval;
+        if (enabled && writeMode == CachingExampleRepository.WriteMode.WRITE_BEHIND && persistence.isEnabled()) {
+            throw new IllegalStateException("example.repository.cache.write-mode=write-behind cannot be combined "
+                    + "with example.persistence.enabled=true");
+        }
+    }
+
+    /**
+     * Returns the repository an example service should use.
+     *
+     * @param repository the repository holding the examples
+     * @return a cache in front of the repository if caching is enabled; otherwise the repository itself
+     */
+    ExampleRepository decorate(ExampleRepository repository) {
+        if (!enabled) {
+            return repository;
+        }
+        CachingExampleRepository cached =
+                new CachingExampleRepository(repository, maximumSize, writeMode, flushInterval);
+        repositories.add(cached);
+        return cached;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (!enabled) {
+            return;
+        }
+        FunctionCounter.builder("example.repository.cache", repositories, r -> sum(r, c -> c.stats().hitCount()))
+                .description("Lookups of examples by ID in the repository cache")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("example.repository.cache", repositories, r -> sum(r, c -> c.stats().missCount()))
+                .description("Lookups of examples by ID in the repository cache")
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("example.repository.cache.evictions", repositories,
+                        r -> sum(r, c -> c.stats().evictionCount()))
+                .description("Examples evicted from the repository cache")
+                .register(registry);
+        Gauge.builder("example.repository.cache.size", repositories, r -> sum(r, CachingExampleRepository::size))
+                .description("Number of examples in the repository cache")
+                .register(registry);
+        Gauge.builder("example.repository.cache.pending", repositories,
+                        r -> sum(r, CachingExampleRepository::pendingWrites))
+                .description("Changed examples not written to the backing repository yet")
+                .register(registry);
+        FunctionCounter.builder("example.repository.cache.flushed", repositories,
+                        r -> sum(r, CachingExampleRepository::flushedWrites))
+                .description("Pending changes written to the backing repository")
+                .register(registry);
+    }
+
+    /**
+     * Closes the caches, writing their pending changes.
+     */
+    @Override
+    public void close() {
+        repositories.forEach(CachingExampleRepository::close);
+    }
+
+    private static long sum(List<CachingExampleRepository> repositories,
+                            ToLongFunction<CachingExampleRepository> metric) {
+        long sum = 0;
+        for (CachingExampleRepository repository : repositories) {
+            sum += metric.applyAsLong(repository);
+        }
+        return sum;
+    }
+}
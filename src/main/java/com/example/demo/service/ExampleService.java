@@ -1,20 +1,61 @@
 package com.example.demo.service;
 
 import com.example.demo.web.model.v1.request.ExampleRequest;
+import com.example.demo.web.model.v1.response.AggregateExampleResponse;
+import com.example.demo.web.model.v1.response.BatchItemResponse;
 import com.example.demo.web.model.v1.response.ExampleResponse;
+import com.example.demo.web.model.v1.response.SearchExampleResponse;
 
 import java.util.List;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
 /**
  * Service interface for handling example-related business logic.
  */
 public interface ExampleService {
 
+    /**
+     * The expected version of changes that accept the example at any version, but only if it exists.
+     */
+    long ANY_VERSION = -1;
+
     ExampleResponse createExample(ExampleRequest exampleRequest);
 
-    void deleteExample(Long id);
+    default void deleteExample(Long id) {
+        deleteExample(id, null);
+    }
+
+    void deleteExample(Long id, Long expectedVersion);
+
+    default ExampleResponse updateExample(Long id, ExampleRequest exampleRequest) {
+        return updateExample(id, exampleRequest, null);
+    }
+
+    ExampleResponse updateExample(Long id, ExampleRequest exampleRequest, Long expectedVersion);
+
+    ExampleResponse patchExample(Long id, UnaryOperator<ExampleRequest> patch, Long expectedVersion);
+
+    List<BatchItemResponse> createExamples(List<ExampleRequest> exampleRequests);
+
+    List<BatchItemResponse> updateExamples(List<ExampleRequest> exampleRequests);
+
+    List<BatchItemResponse> deleteExamples(List<Long> ids);
+
+    default List<ExampleResponse> listExamples(ExampleRequest.ExampleType type) {
+        return listExamples(ExampleFilter.ofType(type));
+    }
+
+    List<ExampleResponse> listExamples(ExampleFilter filter);
+
+    List<ExampleResponse> listExamples(ExampleFilter filter, Long afterId, int limit);
+
+    Stream<ExampleResponse> streamExamples(ExampleFilter filter, Long afterId);
+
+    long listVersion(ExampleRequest.ExampleType type);
 
-    ExampleResponse updateExample(Long id, ExampleRequest exampleRequest);
+    SearchExampleResponse searchExamples(String query, int limit);
 
-    List<ExampleResponse> listExamples(ExampleRequest.ExampleType type);
+    AggregateExampleResponse aggregateExamples(ExampleFilter filter, ExampleGrouping grouping,
+                                               ExampleGrouping.DateBucket bucket);
 }
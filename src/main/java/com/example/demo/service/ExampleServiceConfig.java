@@ -0,0 +1,163 @@
+package com.example.demo.service;
+
+import com.example.demo.infrastructure.persistence.ExampleJournal;
+import com.example.demo.infrastructure.persistence.ExamplePersistenceProperties;
+import com.example.demo.service.store.ExampleStore;
+import com.example.demo.service.store.ExampleStoreMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Configuration class selecting how the examples are stored.
+ * <p>
+ * By default, a single {@link ExampleServiceImpl} holds all examples in one {@link ExampleStore}. With
+ * {@code example.shards.count} greater than one, the examples are partitioned over that many in-process shards by a
+ * {@link ShardedExampleService}. Either way, the service is decorated by the {@link TimedExampleService}, and each
+ * store is put behind a repository cache if {@code example.repository.cache.enabled} is set (see
+ * {@link ExampleRepositoryCache}).
+ * </p>
+ * <p>
+ * IDs are generated by node {@code example.node.id} of {@code example.node.count}, so several instances of the
+ * application never hand out the same ID.
+ * </p>
+ * <p>
+ * The {@link AsyncExampleService} runs the operations of the service on a virtual thread each, or on a fixed pool of
+ * {@code example.async.threads} platform threads if that is greater than zero.
+ * </p>
+ */
+@Configuration
+public class ExampleServiceConfig {
+
+    private static final String SHARDED = "${example.shards.count:1} > 1";
+    private static final String STANDALONE = "${example.shards.count:1} <= 1";
+
+    /**
+     * Creates the generator of the IDs of new examples.
+     *
+     * @param node  the number of this node
+     * @param nodes the number of nodes generating IDs
+     * @return the ID generator
+     */
+    @Bean
+    public IdGenerator idGenerator(@Value("${example.node.id:0}") int node,
+                                   @Value("${example.node.count:1}") int nodes) {
+        return new IdGenerator(node, nodes);
+    }
+
+    /**
+     * Creates the asynchronous service, running the operations of the example service on an executor of its own,
+     * which is shut down together with the application context.
+     *
+     * @param exampleService the example service, as decorated by the {@link TimedExampleService}
+     * @param threads        the number of platform threads, or {@code 0} for a virtual thread per operation
+     * @return the asynchronous service
+     */
+    @Bean
+    public AsyncExampleService asyncExampleService(ExampleService exampleService,
+                                                   @Value("${example.async.threads:0}") int threads) {
+        ExecutorService executor = threads > 0
+                ? Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("example-async-", 0).factory())
+                : Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("example-async-", 0).factory());
+        return new ExecutorAsyncExampleService(exampleService, executor);
+    }
+
+    /**
+     * Creates the store holding all examples.
+     *
+     * @param layout the memory layout of the stored examples
+     * @return the store
+     */
+    @Bean
+    @ConditionalOnExpression(STANDALONE)
+    public ExampleStore exampleStore(@Value("${example.store.layout:object}") ExampleStore.Layout layout) {
+        return new ExampleStore(layout);
+    }
+
+    /**
+     * Creates the service over the single store.
+     *
+     * @param store           the store holding the examples
+     * @param repositoryCache the cache put in front of the store, if enabled
+     * @param journal         the journal recording every change
+     * @param changeFeed      the feed assigning versions to changes and publishing them
+     * @param idGenerator     the generator of the IDs of new examples
+     * @return the service
+     */
+    @Bean
+    @ConditionalOnExpression(STANDALONE)
+    ExampleServiceImpl exampleServiceImpl(ExampleStore store, ExampleRepositoryCache repositoryCache,
+                                          ExampleJournal journal, ExampleChangeFeed changeFeed,
+                                          IdGenerator idGenerator) {
+        return new ExampleServiceImpl(repositoryCache.decorate(store), journal, changeFeed, idGenerator);
+    }
+
+    /**
+     * Creates the metrics of the single store.
+     *
+     * @param store the store holding the examples
+     * @return the store metrics
+     */
+    @Bean
+    @ConditionalOnExpression(STANDALONE)
+    public ExampleStoreMetrics exampleStoreMetrics(ExampleStore store) {
+        return new ExampleStoreMetrics(List.of(store));
+    }
+
+    /**
+     * Creates the in-process shards and recovers their persisted examples; their journals are closed together with
+     * the application context.
+     *
+     * @param count       the number of shards
+     * @param layout      the memory layout of the shard stores
+     * @param persistence the persistence configuration
+     * @param changeFeed      the feed shared by the shards
+     * @param idGenerator     the ID generator shared by the shards
+     * @param repositoryCache the cache put in front of each shard store, if enabled
+     * @return the shards
+     */
+    @Bean
+    @ConditionalOnExpression(SHARDED)
+    LocalExampleShards localExampleShards(@Value("${example.shards.count}") int count,
+                                          @Value("${example.store.layout:object}") ExampleStore.Layout layout,
+                                          ExamplePersistenceProperties persistence, ExampleChangeFeed changeFeed,
+                                          IdGenerator idGenerator, ExampleRepositoryCache repositoryCache) {
+        return new LocalExampleShards(count, layout, persistence, changeFeed, idGenerator, repositoryCache);
+    }
+
+    /**
+     * Creates the service partitioning the examples over the shards, populating them with mock examples if none
+     * were recovered.
+     *
+     * @param shards       the in-process shards
+     * @param virtualNodes the number of points of each shard on the hash ring
+     * @param idGenerator  the generator of the IDs of new examples
+     * @return the sharded service
+     */
+    @Bean
+    @ConditionalOnExpression(SHARDED)
+    ShardedExampleService shardedExampleService(LocalExampleShards shards,
+                                                @Value("${example.shards.virtual-nodes:128}") int virtualNodes,
+                                                IdGenerator idGenerator) {
+        ShardedExampleService service = new ShardedExampleService(shards.shards(), virtualNodes, idGenerator);
+        service.initialize(!shards.recovered());
+        return service;
+    }
+
+    /**
+     * Creates the metrics of the shard stores, summed over all shards.
+     *
+     * @param shards the in-process shards
+     * @return the store metrics
+     */
+    @Bean
+    @ConditionalOnExpression(SHARDED)
+    ExampleStoreMetrics shardedExampleStoreMetrics(LocalExampleShards shards) {
+        return new ExampleStoreMetrics(shards.stores());
+    }
+}
@@ -1,40 +1,128 @@
 package com.example.demo.service;
 
+import com.example.demo.infrastructure.persistence.ExampleJournal;
+import com.example.demo.service.store.ExampleRepository;
+import com.example.demo.service.store.ExampleStore;
+import com.example.demo.service.store.SearchHit;
 import com.example.demo.utils.ExampleDataGenerator;
 import com.example.demo.web.model.v1.request.ExampleRequest;
+import com.example.demo.web.model.v1.response.AggregateExampleResponse;
+import com.example.demo.web.model.v1.response.BatchItemResponse;
+import com.example.demo.web.model.v1.response.ExampleChangeResponse;
+import com.example.demo.web.model.v1.response.ExampleChangeResponse.ChangeType;
 import com.example.demo.web.model.v1.response.ExampleResponse;
+import com.example.demo.web.model.v1.response.ExampleSearchHitResponse;
+import com.example.demo.web.model.v1.response.SearchExampleResponse;
 import jakarta.annotation.PostConstruct;
-import org.springframework.stereotype.Service;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementation of the {@link ExampleService}.
  * <p>
  * This class provides a mock implementation for managing example resources, including creating, updating,
- * deleting, and retrieving examples. Data is stored in memory for demonstration purposes.
+ * deleting, and retrieving examples. Data is kept in an {@link ExampleRepository}: by default the concurrent,
+ * in-memory {@link ExampleStore}, which provides constant-time lookups by ID and is safe to use from concurrent
+ * request threads, or a {@link com.example.demo.service.store.CachingExampleRepository} in front of another one.
+ * </p>
+ * <p>
+ * Every change is also recorded in the {@link ExampleJournal}. When persistence is enabled, examples are recovered
+ * from the journal on startup and writes return once their change is durable.
+ * </p>
+ * <p>
+ * Every change is assigned the next version by the {@link ExampleChangeFeed} and published to it, so clients can
+ * follow changes incrementally instead of listing all examples again.
+ * </p>
+ * <p>
+ * Stored examples are never changed in place: every change stores a new object, so readers never see a partially
+ * applied change and are never blocked by writers. Single-example changes can be made conditional on the version the
+ * caller last saw, which is checked while the example is locked, so concurrent changes are detected instead of lost.
+ * </p>
+ * <p>
+ * IDs come from an {@link IdGenerator}, so that several nodes never hand out the same ID. The service is also an
+ * {@link ExampleShard}, which is how a {@link ShardedExampleService} uses it for each of its in-process shards.
  * </p>
  */
-@Service
-public class ExampleServiceImpl implements ExampleService {
+@RequiredArgsConstructor
+public class ExampleServiceImpl implements ExampleShard {
+
+    // Number of changes that could affect a list: index 0 counts all of them, index 1 + ordinal those of one type
+    private final AtomicLongArray listVersions = new AtomicLongArray(ExampleRequest.ExampleType.values().length + 1);
+    private final ExampleRepository exampleRepository;
+    private final ExampleJournal exampleJournal;
+    private final ExampleChangeFeed changeFeed;
+    private final IdGenerator idGenerator;
 
-    private final AtomicLong idGenerator = new AtomicLong(1);
-    private final List<ExampleResponse> examples = new ArrayList<>();
+    /**
+     * Creates a service that is the only node generating IDs.
+     *
+     * @param exampleRepository the repository holding the examples
+     * @param exampleJournal    the journal recording every change
+     * @param changeFeed        the feed assigning versions to changes and publishing them
+     */
+    public ExampleServiceImpl(ExampleRepository exampleRepository, ExampleJournal exampleJournal,
+                              ExampleChangeFeed changeFeed) {
+        this(exampleRepository, exampleJournal, changeFeed, new IdGenerator(0, 1));
+    }
 
     /**
-     * Initializes the service with mock data.
+     * Initializes the service with persisted or mock data.
      * <p>
-     * This method generates a predefined number of mock example resources to populate the in-memory storage.
+     * This method recovers the persisted examples from the journal. If there are none, it generates a predefined
+     * number of mock example resources to populate the storage.
      * </p>
      */
     @PostConstruct
     private void initializeExamples() {
-        // Generate 5 mock ExampleResponse objects and add them to the examples list
-        examples.addAll(ExampleDataGenerator.generateExampleRequests(10));
-        idGenerator.set(examples.size() + 1); // Ensure the ID generator starts after the preloaded IDs
+        boolean recovered = recover();
+        changeFeed.startAt(exampleJournal.lastVersion());
+        if (!recovered) {
+            seedExamples(this);
+        }
+    }
+
+    /**
+     * Loads the persisted examples from the journal, and moves the ID generator past them.
+     * <p>
+     * No version is assigned here, so the change feed can be started afterwards, once every service sharing it has
+     * recovered.
+     * </p>
+     *
+     * @return {@code true} if persisted examples were found; {@code false} if the journal is empty
+     */
+    boolean recover() {
+        boolean recovered = exampleRepository.recover(exampleJournal);
+        idGenerator.startAfter(exampleRepository.lastId());
+        return recovered;
+    }
+
+    /**
+     * Returns the highest version recorded by the journal of this service.
+     *
+     * @return the highest version, or {@code 0} if none was recorded
+     */
+    long lastVersion() {
+        return exampleJournal.lastVersion();
+    }
+
+    /**
+     * Populates an empty service with a predefined number of mock example resources.
+     *
+     * @param service the service to create the examples with
+     */
+    static void seedExamples(ExampleService service) {
+        // Generate 10 mock examples and create them under IDs of this node
+        ExampleDataGenerator.generateExampleRequests(10)
+                .forEach(example -> service.createExample(detailsOf(example)));
     }
 
     /**
@@ -45,63 +133,477 @@ public class ExampleServiceImpl implements ExampleService {
      */
     @Override
     public ExampleResponse createExample(ExampleRequest exampleRequest) {
-        ExampleResponse response = new ExampleResponse(
-                idGenerator.getAndIncrement(),
-                exampleRequest.getName(),
-                exampleRequest.getDescription(),
-                exampleRequest.getAge(),
-                exampleRequest.getPrice(),
-                exampleRequest.getIsActive(),
-                exampleRequest.getCreationDate(),
-                exampleRequest.getTags(),
-                exampleRequest.getExampleType()
-        );
-        examples.add(response);
+        ExampleResponse response = newExample(idGenerator.next(), exampleRequest);
+        return write(response.getId(), current -> response);
+    }
+
+    /**
+     * Creates an example resource under the ID of its request, reserved by the caller.
+     *
+     * @param exampleRequest the details of the example, including its ID
+     * @return the created example resource
+     * @throws IllegalArgumentException if the ID is missing or an example with it already exists
+     */
+    @Override
+    public ExampleResponse insertExample(ExampleRequest exampleRequest) {
+        Long id = exampleRequest.getId();
+        if (id == null) {
+            throw new IllegalArgumentException("Example ID is required.");
+        }
+        ExampleResponse response = newExample(id, exampleRequest);
+        if (write(id, current -> current == null ? response : current) != response) {
+            throw new IllegalArgumentException("Example with ID " + id + " already exists.");
+        }
         return response;
     }
 
     /**
      * Deletes an example resource by ID.
      *
-     * @param id the ID of the example to delete
+     * @param id              the ID of the example to delete
+     * @param expectedVersion the version the example must be at to be deleted, {@link #ANY_VERSION} to
+     *                        delete it at any version if it exists, or {@code null} to delete it regardless
+     * @throws ExampleVersionConflictException if the example is absent or at another version than expected
      */
     @Override
-    public void deleteExample(Long id) {
-        examples.removeIf(example -> example.getId().equals(id));
+    public void deleteExample(Long id, Long expectedVersion) {
+        write(id, current -> {
+            checkVersion(id, current, expectedVersion);
+            return null;
+        });
     }
 
     /**
-     * Updates an existing example resource.
+     * Replaces the details of an existing example resource.
      *
-     * @param id             the ID of the example to update
-     * @param exampleRequest the request object containing updated details of the example
+     * @param id              the ID of the example to update
+     * @param exampleRequest  the request object containing the new details of the example
+     * @param expectedVersion the version the example must be at to be updated, {@link #ANY_VERSION} to
+     *                        update it at any version if it exists, or {@code null} to update it regardless
      * @return the updated example resource
+     * @throws ExampleVersionConflictException if the example is absent or at another version than expected
+     * @throws ExampleNotFoundException        if the example is absent and no version was expected
+     */
+    @Override
+    public ExampleResponse updateExample(Long id, ExampleRequest exampleRequest, Long expectedVersion) {
+        ExampleResponse updated = write(id, example -> {
+            checkVersion(id, example, expectedVersion);
+            return example == null ? null : updatedExample(example, exampleRequest);
+        });
+        return requireFound(id, updated);
+    }
+
+    /**
+     * Changes some of the details of an existing example resource.
+     * <p>
+     * The patch is given the current details of the example and returns its new details. It is applied while the
+     * example is locked, so it sees the latest version and no other change can be made in between; it should
+     * therefore be quick and not fail. The example is replaced by a new object rather than changed in place, so
+     * readers holding the previous version keep a consistent copy of it.
+     * </p>
+     *
+     * @param id              the ID of the example to change
+     * @param patch           a function from the current details of the example to its new details; may change and
+     *                        return its argument, which is a copy
+     * @param expectedVersion the version the example must be at to be changed, {@link #ANY_VERSION} to
+     *                        change it at any version if it exists, or {@code null} to change it regardless
+     * @return the changed example resource
+     * @throws ExampleVersionConflictException if the example is absent or at another version than expected
+     * @throws ExampleNotFoundException        if the example is absent and no version was expected
+     */
+    @Override
+    public ExampleResponse patchExample(Long id, UnaryOperator<ExampleRequest> patch, Long expectedVersion) {
+        ExampleResponse updated = write(id, example -> {
+            checkVersion(id, example, expectedVersion);
+            return example == null ? null : updatedExample(example, patch.apply(detailsOf(example)));
+        });
+        return requireFound(id, updated);
+    }
+
+    /**
+     * Creates example resources in one pass.
+     * <p>
+     * IDs for the whole batch are reserved at once, every example is written to the repository and journaled without
+     * waiting, and the batch then waits once for all of its changes to become durable.
+     * </p>
+     *
+     * @param exampleRequests the details of the examples to create
+     * @return one result per request, in the same order
+     */
+    @Override
+    public List<BatchItemResponse> createExamples(List<ExampleRequest> exampleRequests) {
+        List<BatchItemResponse> results = new ArrayList<>(exampleRequests.size());
+        List<CompletableFuture<Void>> journaled = new ArrayList<>(exampleRequests.size());
+        long[] ids = idGenerator.next((int) exampleRequests.stream().filter(Objects::nonNull).count());
+        int nextId = 0;
+        for (ExampleRequest exampleRequest : exampleRequests) {
+            if (exampleRequest == null) {
+                results.add(BatchItemResponse.failure(null, HttpStatus.BAD_REQUEST.value(), "Example is required."));
+                continue;
+            }
+            ExampleResponse response = newExample(ids[nextId++], exampleRequest);
+            apply(response.getId(), current -> response, journaled);
+            results.add(BatchItemResponse.success(response.getId(), HttpStatus.OK.value(), response));
+        }
+        awaitDurable(journaled);
+        return results;
+    }
+
+    /**
+     * Creates example resources under the IDs of their requests, reserved by the caller, in one pass.
+     *
+     * @param exampleRequests the details of the examples, including their IDs
+     * @return one result per request, in the same order
+     */
+    @Override
+    public List<BatchItemResponse> insertExamples(List<ExampleRequest> exampleRequests) {
+        List<BatchItemResponse> results = new ArrayList<>(exampleRequests.size());
+        List<CompletableFuture<Void>> journaled = new ArrayList<>(exampleRequests.size());
+        for (ExampleRequest exampleRequest : exampleRequests) {
+            Long id = exampleRequest == null ? null : exampleRequest.getId();
+            if (id == null) {
+                results.add(BatchItemResponse.failure(null, HttpStatus.BAD_REQUEST.value(), "Example ID is required."));
+                continue;
+            }
+            ExampleResponse response = newExample(id, exampleRequest);
+            results.add(apply(id, current -> current == null ? response : current, journaled) == response
+                    ? BatchItemResponse.success(id, HttpStatus.OK.value(), response)
+                    : BatchItemResponse.failure(id, HttpStatus.CONFLICT.value(), "Example already exists."));
+        }
+        awaitDurable(journaled);
+        return results;
+    }
+
+    /**
+     * Updates example resources in one pass, each identified by the ID of its request.
+     *
+     * @param exampleRequests the updated details of the examples, including their IDs
+     * @return one result per request, in the same order
      */
     @Override
-    public ExampleResponse updateExample(Long id, ExampleRequest exampleRequest) {
-        for (ExampleResponse example : examples) {
-            if (example.getId().equals(id)) {
-                example.setName(exampleRequest.getName());
-                example.setDescription(exampleRequest.getDescription());
-                return example;
+    public List<BatchItemResponse> updateExamples(List<ExampleRequest> exampleRequests) {
+        List<BatchItemResponse> results = new ArrayList<>(exampleRequests.size());
+        List<CompletableFuture<Void>> journaled = new ArrayList<>(exampleRequests.size());
+        for (ExampleRequest exampleRequest : exampleRequests) {
+            Long id = exampleRequest == null ? null : exampleRequest.getId();
+            if (id == null) {
+                results.add(BatchItemResponse.failure(null, HttpStatus.BAD_REQUEST.value(), "Example ID is required."));
+                continue;
             }
+            ExampleResponse updated = apply(id,
+                    example -> example == null ? null : updatedExample(example, exampleRequest), journaled);
+            results.add(updated != null
+                    ? BatchItemResponse.success(id, HttpStatus.OK.value(), updated)
+                    : BatchItemResponse.failure(id, HttpStatus.NOT_FOUND.value(), "Example not found."));
         }
-        throw new IllegalArgumentException("Example with ID " + id + " not found.");
+        awaitDurable(journaled);
+        return results;
     }
 
     /**
-     * Retrieves a list of example resources, optionally filtered by type.
+     * Deletes example resources in one pass.
      *
-     * @param type the type of examples to filter by (can be null to retrieve all examples)
+     * @param ids the IDs of the examples to delete
+     * @return one result per ID, in the same order
+     */
+    @Override
+    public List<BatchItemResponse> deleteExamples(List<Long> ids) {
+        List<BatchItemResponse> results = new ArrayList<>(ids.size());
+        List<CompletableFuture<Void>> journaled = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            if (id == null) {
+                results.add(BatchItemResponse.failure(null, HttpStatus.BAD_REQUEST.value(), "Example ID is required."));
+                continue;
+            }
+            boolean[] existed = new boolean[1];
+            apply(id, example -> {
+                existed[0] = example != null;
+                return null;
+            }, journaled);
+            results.add(existed[0]
+                    ? BatchItemResponse.success(id, HttpStatus.NO_CONTENT.value(), null)
+                    : BatchItemResponse.failure(id, HttpStatus.NOT_FOUND.value(), "Example not found."));
+        }
+        awaitDurable(journaled);
+        return results;
+    }
+
+    /**
+     * Retrieves a list of example resources matching the given filter.
+     * <p>
+     * Filtered requests are answered from the repository's secondary indexes rather than a full scan.
+     * </p>
+     *
+     * @param filter the filter criteria (can be null to retrieve all examples)
      * @return a list of matching example resources
      */
     @Override
-    public List<ExampleResponse> listExamples(ExampleRequest.ExampleType type) {
-        if (type == null) {
-            return new ArrayList<>(examples);
+    public List<ExampleResponse> listExamples(ExampleFilter filter) {
+        return exampleRepository.query(filter).collect(Collectors.toList());
+    }
+
+    /**
+     * Retrieves one page of example resources matching the given filter.
+     * <p>
+     * Pages are addressed by cursor: the examples returned are those with an ID greater than {@code afterId}, in
+     * ascending ID order, so only the requested page is ever materialized.
+     * </p>
+     *
+     * @param filter  the filter criteria (can be null to retrieve all examples)
+     * @param afterId the ID after which the page starts (can be null to start from the first example)
+     * @param limit   the maximum number of examples to return
+     * @return a list of at most {@code limit} matching example resources
+     */
+    @Override
+    public List<ExampleResponse> listExamples(ExampleFilter filter, Long afterId, int limit) {
+        try (Stream<ExampleResponse> examples = exampleRepository.query(filter, afterId)) {
+            return examples.limit(limit).collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Streams example resources matching the given filter without collecting them.
+     * <p>
+     * The stream is lazy and reads the repository as it is consumed, so callers can write arbitrarily large results
+     * while only holding one example at a time.
+     * </p>
+     *
+     * @param filter  the filter criteria (can be null to stream all examples)
+     * @param afterId the ID after which the stream starts (can be null to start from the first example)
+     * @return a stream of matching example resources in ascending ID order
+     */
+    @Override
+    public Stream<ExampleResponse> streamExamples(ExampleFilter filter, Long afterId) {
+        return exampleRepository.query(filter, afterId);
+    }
+
+    /**
+     * Returns a version of the examples that a list filtered by the given type can contain.
+     * <p>
+     * The version changes after every change to such an example, once the change is visible. Reading it before
+     * listing therefore gives a version that is only ever older than the listed examples, never newer, so it can
+     * safely tag cached list responses. Changes to examples of other types leave it unchanged.
+     * </p>
+     *
+     * @param type the type filter of the list (can be null for lists of all types)
+     * @return the current version of the examples of the type
+     */
+    @Override
+    public long listVersion(ExampleRequest.ExampleType type) {
+        return listVersions.get(type == null ? 0 : type.ordinal() + 1);
+    }
+
+    /**
+     * Returns the highest ID of the stored examples.
+     *
+     * @return the highest ID, or {@code 0} if no example is stored
+     */
+    @Override
+    public long lastId() {
+        return exampleRepository.lastId();
+    }
+
+    /**
+     * Searches example resources by the words of their name, description and tags.
+     * <p>
+     * The query is answered from the store's inverted index; each query word also matches the words it is a prefix
+     * of, and every query word must match. Hits are ranked by relevance.
+     * </p>
+     *
+     * @param query the words to search for
+     * @param limit the maximum number of hits to return
+     * @return the best matching example resources, best first
+     */
+    @Override
+    public SearchExampleResponse searchExamples(String query, int limit) {
+        List<ExampleSearchHitResponse> hits = new ArrayList<>();
+        for (SearchHit hit : exampleRepository.search(query, limit)) {
+            ExampleResponse example = exampleRepository.get(hit.id());
+            if (example != null) { // Skip examples deleted since they were scored
+                hits.add(new ExampleSearchHitResponse(hit.score(), example));
+            }
+        }
+        return new SearchExampleResponse(hits);
+    }
+
+    /**
+     * Aggregates the example resources matching the given filter, per group.
+     * <p>
+     * The matching examples are scanned with a parallel stream: the store's sorted ID set is split into ranges that
+     * are aggregated by separate fork-join tasks, whose partial results are then merged. Only the aggregated values
+     * are returned, however many examples they cover. Repositories that can aggregate their stored fields directly,
+     * such as the columnar store, do so instead (see {@link ExampleRepository#aggregate}).
+     * </p>
+     *
+     * @param filter   the filter criteria (can be null to aggregate all examples)
+     * @param grouping the criterion by which examples are grouped
+     * @param bucket   the size of the creation date buckets when grouping by creation date
+     * @return the count and price and age statistics of each group
+     */
+    @Override
+    public AggregateExampleResponse aggregateExamples(ExampleFilter filter, ExampleGrouping grouping,
+                                                      ExampleGrouping.DateBucket bucket) {
+        AggregateExampleResponse aggregated = exampleRepository.aggregate(filter, grouping, bucket);
+        if (aggregated != null) {
+            return aggregated;
+        }
+        try (Stream<ExampleResponse> examples = exampleRepository.query(filter)) {
+            return examples.parallel().collect(ExampleAggregator.collector(grouping, bucket));
+        }
+    }
+
+    /**
+     * Applies a change to the repository and records it in the journal.
+     * <p>
+     * The change is versioned and journaled while the entry is locked, so journal order matches store order for every
+     * example; waiting for durability happens afterwards, without holding the lock.
+     * </p>
+     *
+     * @param id       the ID of the example to change
+     * @param mutation a function from the current example (or {@code null}) to its new state (or {@code null})
+     * @return the new state of the example, or {@code null} if it is absent afterwards
+     */
+    private ExampleResponse write(Long id, UnaryOperator<ExampleResponse> mutation) {
+        List<CompletableFuture<Void>> journaled = new ArrayList<>(1);
+        ExampleResponse result = apply(id, mutation, journaled);
+        awaitDurable(journaled);
+        return result;
+    }
+
+    /**
+     * Applies a change to the repository and records it in the journal without waiting for it to become durable.
+     * <p>
+     * A changed example is assigned its version before it is stored, so the mutation must return a new object rather
+     * than one that is already stored. The change is published to the change feed, and counted in the list versions,
+     * once it is visible in the repository. Every assigned version is published: if the change fails after taking
+     * one, the example's unchanged state is published under it instead, which readers can apply like any change.
+     * </p>
+     *
+     * @param id        the ID of the example to change
+     * @param mutation  a function from the current example (or {@code null}) to its new state (or {@code null})
+     * @param journaled the list to add the journal future of the change to, if anything changed
+     * @return the new state of the example, or {@code null} if it is absent afterwards
+     */
+    private ExampleResponse apply(Long id, UnaryOperator<ExampleResponse> mutation,
+                                  List<CompletableFuture<Void>> journaled) {
+        ExampleChangeResponse[] change = new ExampleChangeResponse[1];
+        ExampleResponse[] previous = new ExampleResponse[1];
+        boolean stored = false;
+        try {
+            ExampleResponse result = exampleJournal.change(() -> exampleRepository.compute(id, current -> {
+                ExampleResponse next = mutation.apply(current);
+                if (next != current) {
+                    previous[0] = current;
+                    ChangeType type = current == null ? ChangeType.CREATE
+                            : next == null ? ChangeType.DELETE
+                            : ChangeType.UPDATE;
+                    // Built together with taking the version, so nothing can fail in between
+                    change[0] = new ExampleChangeResponse(changeFeed.nextVersion(), type, id, next);
+                    if (next != null) {
+                        next.setVersion(change[0].getVersion());
+                        journaled.add(exampleJournal.recordPut(next));
+                    } else {
+                        journaled.add(exampleJournal.recordDelete(id, change[0].getVersion()));
+                    }
+                }
+                return next;
+            }));
+            stored = true;
+            return result;
+        } finally {
+            // The feed cannot move past a version that is never published
+            if (change[0] != null && stored) {
+                countListChange(previous[0], change[0].getExample());
+                changeFeed.publish(change[0]);
+            } else if (change[0] != null) {
+                changeFeed.publish(unchanged(change[0].getVersion(), id, previous[0]));
+            }
+        }
+    }
+
+    /**
+     * Builds a change that leaves an example as it is, to publish under a version whose change failed.
+     */
+    private static ExampleChangeResponse unchanged(long version, Long id, ExampleResponse current) {
+        return current == null
+                ? new ExampleChangeResponse(version, ChangeType.DELETE, id, null)
+                : new ExampleChangeResponse(version, ChangeType.UPDATE, id, current);
+    }
+
+    private void countListChange(ExampleResponse previous, ExampleResponse next) {
+        listVersions.incrementAndGet(0);
+        ExampleRequest.ExampleType previousType = previous != null ? previous.getExampleType() : null;
+        ExampleRequest.ExampleType nextType = next != null ? next.getExampleType() : null;
+        if (previousType != null) {
+            listVersions.incrementAndGet(previousType.ordinal() + 1);
+        }
+        if (nextType != null && nextType != previousType) {
+            listVersions.incrementAndGet(nextType.ordinal() + 1);
+        }
+    }
+
+    private static void awaitDurable(List<CompletableFuture<Void>> journaled) {
+        if (!journaled.isEmpty()) {
+            CompletableFuture.allOf(journaled.toArray(CompletableFuture[]::new)).join();
+        }
+    }
+
+    private static ExampleResponse newExample(long id, ExampleRequest exampleRequest) {
+        return new ExampleResponse(
+                id,
+                exampleRequest.getName(),
+                exampleRequest.getDescription(),
+                exampleRequest.getAge(),
+                exampleRequest.getPrice(),
+                exampleRequest.getIsActive(),
+                exampleRequest.getCreationDate(),
+                exampleRequest.getTags(),
+                exampleRequest.getExampleType()
+        );
+    }
+
+    private static ExampleResponse requireFound(Long id, ExampleResponse example) {
+        if (example == null) {
+            throw new ExampleNotFoundException(id);
         }
-        return examples.stream()
-                .filter(example -> example.getExampleType() == type)
-                .collect(Collectors.toList());
+        return example;
+    }
+
+    private static void checkVersion(Long id, ExampleResponse current, Long expectedVersion) {
+        Long currentVersion = current != null ? current.getVersion() : null;
+        if (expectedVersion == null || expectedVersion == ANY_VERSION && current != null) {
+            return;
+        }
+        if (!expectedVersion.equals(currentVersion)) {
+            throw new ExampleVersionConflictException(id, expectedVersion, currentVersion);
+        }
+    }
+
+    static ExampleRequest detailsOf(ExampleResponse example) {
+        return new ExampleRequest(
+                example.getId(),
+                example.getName(),
+                example.getDescription(),
+                example.getAge(),
+                example.getPrice(),
+                example.getIsActive(),
+                example.getCreationDate(),
+                example.getTags() != null ? example.getTags().clone() : null,
+                example.getExampleType()
+        );
+    }
+
+    private static ExampleResponse updatedExample(ExampleResponse example, ExampleRequest exampleRequest) {
+        return new ExampleResponse(
+                example.getId(),
+                exampleRequest.getName(),
+                exampleRequest.getDescription(),
+                exampleRequest.getAge(),
+                exampleRequest.getPrice(),
+                exampleRequest.getIsActive(),
+                exampleRequest.getCreationDate(),
+                exampleRequest.getTags(),
+                exampleRequest.getExampleType()
+        );
     }
 }
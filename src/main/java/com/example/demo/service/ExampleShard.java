@@ -0,0 +1,43 @@
+package com.example.demo.service;
+
+import com.example.demo.web.model.v1.request.ExampleRequest;
+import com.example.demo.web.model.v1.response.BatchItemResponse;
+import com.example.demo.web.model.v1.response.ExampleResponse;
+
+import java.util.List;
+
+/**
+ * One partition of the examples behind a {@link ShardedExampleService}.
+ * <p>
+ * A shard is a complete example service over the examples it owns. On top of that, it creates examples under IDs
+ * chosen by the caller, since the {@link ShardedExampleService} has to know the ID of an example to pick the shard
+ * that owns it. Shards are called through this interface only, so a shard can live in the same process, as an
+ * {@link ExampleServiceImpl} over its own store, or behind any transport implementing it.
+ * </p>
+ */
+public interface ExampleShard extends ExampleService {
+
+    /**
+     * Creates an example under the ID of its request.
+     *
+     * @param exampleRequest the details of the example, including the ID reserved for it
+     * @return the created example
+     * @throws IllegalArgumentException if the ID is missing or an example with it already exists
+     */
+    ExampleResponse insertExample(ExampleRequest exampleRequest);
+
+    /**
+     * Creates examples under the IDs of their requests, in one pass.
+     *
+     * @param exampleRequests the details of the examples, including the IDs reserved for them
+     * @return one result per request, in the same order
+     */
+    List<BatchItemResponse> insertExamples(List<ExampleRequest> exampleRequests);
+
+    /**
+     * Returns the highest ID of the examples of this shard.
+     *
+     * @return the highest ID, or {@code 0} if the shard holds no example
+     */
+    long lastId();
+}
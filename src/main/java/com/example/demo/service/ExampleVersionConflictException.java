@@ -0,0 +1,31 @@
+package com.example.demo.service;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a conditional change is rejected because the example is not at the version the caller expected.
+ * <p>
+ * This is how concurrent changes to the same example are detected: a client that read an example at one version and
+ * changes it on that basis is refused if another change was made in between, instead of silently overwriting it.
+ * </p>
+ */
+@Getter
+public class ExampleVersionConflictException extends RuntimeException {
+
+    /**
+     * The current version of the example, or {@code null} if it does not exist or has no version.
+     */
+    private final Long currentVersion;
+
+    /**
+     * Creates an exception for a change expecting another version than the current one.
+     *
+     * @param id              the ID of the example
+     * @param expectedVersion the version the change expected
+     * @param currentVersion  the current version, or {@code null} if the example does not exist or has no version
+     */
+    public ExampleVersionConflictException(Long id, long expectedVersion, Long currentVersion) {
+        super("Example with ID " + id + " is at version " + currentVersion + ", not " + expectedVersion + ".");
+        this.currentVersion = currentVersion;
+    }
+}
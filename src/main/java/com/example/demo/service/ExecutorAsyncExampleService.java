@@ -0,0 +1,81 @@
+package com.example.demo.service;
+
+import com.example.demo.web.model.v1.request.ExampleRequest;
+import com.example.demo.web.model.v1.response.AggregateExampleResponse;
+import com.example.demo.web.model.v1.response.ExampleResponse;
+import com.example.demo.web.model.v1.response.SearchExampleResponse;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link AsyncExampleService} running the operations of an {@link ExampleService} on an {@link ExecutorService}.
+ * <p>
+ * The executor is configured with {@code example.async.threads} (see {@link ExampleServiceConfig}): by default every
+ * operation runs on a virtual thread of its own, which is cheap to block while a write waits for its journal entry to
+ * be flushed; with a fixed number of platform threads, at most that many operations run at once and the others wait
+ * in line. The service owns its executor and shuts it down when closed.
+ * </p>
+ */
+@RequiredArgsConstructor
+public class ExecutorAsyncExampleService implements AsyncExampleService, AutoCloseable {
+
+    private final ExampleService delegate;
+    private final ExecutorService executor;
+
+    @Override
+    public CompletableFuture<ExampleResponse> createExample(ExampleRequest exampleRequest) {
+        return CompletableFuture.supplyAsync(() -> delegate.createExample(exampleRequest), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> deleteExample(Long id, Long expectedVersion) {
+        return CompletableFuture.runAsync(() -> delegate.deleteExample(id, expectedVersion), executor);
+    }
+
+    @Override
+    public CompletableFuture<ExampleResponse> updateExample(Long id, ExampleRequest exampleRequest,
+                                                           Long expectedVersion) {
+        return CompletableFuture.supplyAsync(() -> delegate.updateExample(id, exampleRequest, expectedVersion),
+                executor);
+    }
+
+    @Override
+    public CompletableFuture<ExampleResponse> patchExample(Long id, UnaryOperator<ExampleRequest> patch,
+                                                           Long expectedVersion) {
+        return CompletableFuture.supplyAsync(() -> delegate.patchExample(id, patch, expectedVersion), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<ExampleResponse>> listExamples(ExampleFilter filter) {
+        return CompletableFuture.supplyAsync(() -> delegate.listExamples(filter), executor);
+    }
+
+    @Override
+    public CompletableFuture<List<ExampleResponse>> listExamples(ExampleFilter filter, Long afterId, int limit) {
+        return CompletableFuture.supplyAsync(() -> delegate.listExamples(filter, afterId, limit), executor);
+    }
+
+    @Override
+    public CompletableFuture<SearchExampleResponse> searchExamples(String query, int limit) {
+        return CompletableFuture.supplyAsync(() -> delegate.searchExamples(query, limit), executor);
+    }
+
+    @Override
+    public CompletableFuture<AggregateExampleResponse> aggregateExamples(ExampleFilter filter,
+                                                                         ExampleGrouping grouping,
+                                                                         ExampleGrouping.DateBucket bucket) {
+        return CompletableFuture.supplyAsync(() -> delegate.aggregateExamples(filter, grouping, bucket), executor);
+    }
+
+    /**
+     * Shuts down the executor, waiting for the operations already submitted to finish.
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
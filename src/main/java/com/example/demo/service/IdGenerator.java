@@ -0,0 +1,72 @@
+package com.example.demo.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generator of example IDs that never collide with the IDs generated by other nodes.
+ * <p>
+ * The ID space is interleaved between the nodes: node {@code n} of {@code N} only hands out IDs congruent to
+ * {@code n} modulo {@code N}, counting up from a local sequence. Nodes therefore need no coordination beyond a
+ * distinct node number each and the same node count, and a single node ({@code N = 1}) hands out 1, 2, 3, ...
+ * </p>
+ */
+public class IdGenerator {
+
+    private final int node;
+    private final int nodes;
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Creates the generator of one node.
+     *
+     * @param node  the number of this node, from {@code 0} to {@code nodes - 1}
+     * @param nodes the number of nodes generating IDs
+     * @throws IllegalArgumentException if the node number is out of range
+     */
+    public IdGenerator(int node, int nodes) {
+        if (nodes < 1 || node < 0 || node >= nodes) {
+            throw new IllegalArgumentException("Node " + node + " is not one of " + nodes + " nodes");
+        }
+        this.node = node;
+        this.nodes = nodes;
+    }
+
+    /**
+     * Returns the next ID of this node.
+     *
+     * @return the ID
+     */
+    public long next() {
+        return toId(sequence.getAndIncrement());
+    }
+
+    /**
+     * Reserves the given number of IDs at once.
+     *
+     * @param count the number of IDs
+     * @return the reserved IDs, in ascending order
+     */
+    public long[] next(int count) {
+        long first = sequence.getAndAdd(count);
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = toId(first + i);
+        }
+        return ids;
+    }
+
+    /**
+     * Makes sure every ID handed out from now on is greater than the given one, such as the highest ID recovered
+     * from storage.
+     *
+     * @param id the ID to stay above
+     */
+    public void startAfter(long id) {
+        long after = Math.floorDiv(id - node, nodes);
+        sequence.accumulateAndGet(after, Math::max);
+    }
+
+    private long toId(long sequence) {
+        return (sequence + 1) * nodes + node;
+    }
+}
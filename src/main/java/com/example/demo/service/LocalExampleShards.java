@@ -0,0 +1,110 @@
+package com.example.demo.service;
+
+import com.example.demo.infrastructure.persistence.ExampleJournal;
+import com.example.demo.infrastructure.persistence.ExamplePersistenceProperties;
+import com.example.demo.infrastructure.persistence.FileExampleJournal;
+import com.example.demo.infrastructure.persistence.NoOpExampleJournal;
+import com.example.demo.service.store.ExampleStore;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The in-process shards of a {@link ShardedExampleService}, each an {@link ExampleServiceImpl} over a store and
+ * journal of its own, and a repository cache of its own if enabled.
+ * <p>
+ * When persistence is enabled, each shard journals to its own subdirectory ({@code shard-0}, {@code shard-1}, ...)
+ * of the persistence directory, so shards recover independently. All shards share the change feed, which hands out
+ * versions on one scale, and the ID generator.
+ * </p>
+ */
+final class LocalExampleShards implements AutoCloseable {
+
+    private final List<ExampleServiceImpl> shards = new ArrayList<>();
+    private final List<ExampleStore> stores = new ArrayList<>();
+    private final List<ExampleJournal> journals = new ArrayList<>();
+    private final boolean recovered;
+
+    /**
+     * Creates the shards and recovers their persisted examples.
+     * <p>
+     * The change feed is started after the highest version recovered by any shard, once all of them are recovered.
+     * </p>
+     *
+     * @param count           the number of shards
+     * @param layout          the memory layout of the shard stores
+     * @param persistence     the persistence configuration
+     * @param changeFeed      the feed shared by the shards
+     * @param idGenerator     the ID generator shared by the shards
+     * @param repositoryCache the cache put in front of each shard store, if enabled
+     */
+    LocalExampleShards(int count, ExampleStore.Layout layout, ExamplePersistenceProperties persistence,
+                       ExampleChangeFeed changeFeed, IdGenerator idGenerator, ExampleRepositoryCache repositoryCache) {
+        boolean anyRecovered = false;
+        long lastVersion = 0;
+        for (int i = 0; i < count; i++) {
+            ExampleJournal journal = persistence.isEnabled()
+                    ? new FileExampleJournal(shardProperties(persistence, i))
+                    : new NoOpExampleJournal();
+            journals.add(journal);
+            ExampleStore store = new ExampleStore(layout);
+            stores.add(store);
+            ExampleServiceImpl shard = new ExampleServiceImpl(repositoryCache.decorate(store), journal, changeFeed,
+                    idGenerator);
+            shards.add(shard);
+            anyRecovered |= shard.recover();
+            lastVersion = Math.max(lastVersion, shard.lastVersion());
+        }
+        changeFeed.startAt(lastVersion);
+        this.recovered = anyRecovered;
+    }
+
+    /**
+     * Returns the shards, in a fixed order.
+     *
+     * @return the shards
+     */
+    List<ExampleServiceImpl> shards() {
+        return shards;
+    }
+
+    /**
+     * Returns the stores of the shards, in the same order.
+     *
+     * @return the stores
+     */
+    List<ExampleStore> stores() {
+        return stores;
+    }
+
+    /**
+     * Returns whether any shard recovered persisted examples.
+     *
+     * @return {@code true} if persisted examples were found
+     */
+    boolean recovered() {
+        return recovered;
+    }
+
+    /**
+     * Closes the journals of the shards.
+     */
+    @Override
+    public void close() {
+        for (ExampleJournal journal : journals) {
+            if (journal instanceof FileExampleJournal fileJournal) {
+                fileJournal.close();
+            }
+        }
+    }
+
+    private static ExamplePersistenceProperties shardProperties(ExamplePersistenceProperties persistence, int shard) {
+        ExamplePersistenceProperties properties = new ExamplePersistenceProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(persistence.getDirectory().resolve("shard-" + shard));
+        properties.setSyncWrites(persistence.isSyncWrites());
+        properties.setMaxBatchSize(persistence.getMaxBatchSize());
+        properties.setSnapshotInterval(persistence.getSnapshotInterval());
+        return properties;
+    }
+}
@@ -0,0 +1,350 @@
+package com.example.demo.service;
+
+import com.example.demo.web.model.v1.request.ExampleRequest;
+import com.example.demo.web.model.v1.response.AggregateExampleResponse;
+import com.example.demo.web.model.v1.response.BatchItemResponse;
+import com.example.demo.web.model.v1.response.ExampleResponse;
+import com.example.demo.web.model.v1.response.ExampleSearchHitResponse;
+import com.example.demo.web.model.v1.response.SearchExampleResponse;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * {@link ExampleService} partitioning the examples by ID over several {@link ExampleShard shards}.
+ * <p>
+ * Every ID belongs to one shard, picked by a {@link ConsistentHashRing}, so reads and writes of single examples go to
+ * exactly one shard. IDs of new examples are reserved from the {@link IdGenerator} before the owning shard is known,
+ * which keeps them unique across shards and across nodes.
+ * </p>
+ * <p>
+ * Everything else is answered scatter-gather: the request is sent to all shards at once, each on its own virtual
+ * thread so that shards behind a blocking transport are waited for concurrently, and the partial results are merged.
+ * Every shard returns its examples in ascending ID order, so lists are merged on the fly and pages only ever take the
+ * first {@code limit} examples of each shard. Aggregates are merged from the per-group counts, sums, minimums and
+ * maximums of the shards. Search scores are computed by each shard over its own examples, so the ranking across
+ * shards is approximate where the shards' word frequencies differ.
+ * </p>
+ */
+public class ShardedExampleService implements ExampleService, AutoCloseable {
+
+    private final List<ExampleShard> shards;
+    private final ConsistentHashRing<ExampleShard> ring;
+    private final IdGenerator idGenerator;
+    private final ExecutorService scatterExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Creates a service over the given shards.
+     *
+     * @param shards       the shards, in a fixed order; the position of a shard determines the IDs it owns
+     * @param virtualNodes the number of points of each shard on the hash ring
+     * @param idGenerator  the generator of the IDs of new examples
+     */
+    public ShardedExampleService(List<? extends ExampleShard> shards, int virtualNodes, IdGenerator idGenerator) {
+        this.shards = List.copyOf(shards);
+        this.ring = ConsistentHashRing.of(this.shards, virtualNodes);
+        this.idGenerator = idGenerator;
+    }
+
+    /**
+     * Moves the ID generator past the IDs held by the shards, and populates them with mock examples if requested.
+     *
+     * @param seed whether to create the mock examples, such as when no shard recovered persisted examples
+     */
+    void initialize(boolean seed) {
+        idGenerator.startAfter(scatter(ExampleShard::lastId).stream().mapToLong(Long::longValue).max().orElse(0));
+        if (seed) {
+            ExampleServiceImpl.seedExamples(this);
+        }
+    }
+
+    /**
+     * Returns the shard owning the given ID.
+     *
+     * @param id the ID of an example
+     * @return the owning shard
+     */
+    ExampleShard shardFor(long id) {
+        return ring.shardFor(id);
+    }
+
+    @Override
+    public ExampleResponse createExample(ExampleRequest exampleRequest) {
+        long id = idGenerator.next();
+        return shardFor(id).insertExample(withId(exampleRequest, id));
+    }
+
+    @Override
+    public void deleteExample(Long id, Long expectedVersion) {
+        shardFor(id).deleteExample(id, expectedVersion);
+    }
+
+    @Override
+    public ExampleResponse updateExample(Long id, ExampleRequest exampleRequest, Long expectedVersion) {
+        return shardFor(id).updateExample(id, exampleRequest, expectedVersion);
+    }
+
+    @Override
+    public ExampleResponse patchExample(Long id, UnaryOperator<ExampleRequest> patch, Long expectedVersion) {
+        return shardFor(id).patchExample(id, patch, expectedVersion);
+    }
+
+    /**
+     * Creates example resources in one pass per shard.
+     * <p>
+     * IDs for the whole batch are reserved at once, and each shard then creates its part of the batch concurrently
+     * with the others.
+     * </p>
+     *
+     * @param exampleRequests the details of the examples to create
+     * @return one result per request, in the same order
+     */
+    @Override
+    public List<BatchItemResponse> createExamples(List<ExampleRequest> exampleRequests) {
+        long[] ids = idGenerator.next((int) exampleRequests.stream().filter(request -> request != null).count());
+        List<ExampleRequest> withIds = new ArrayList<>(exampleRequests.size());
+        int nextId = 0;
+        for (ExampleRequest exampleRequest : exampleRequests) {
+            withIds.add(exampleRequest == null ? null : withId(exampleRequest, ids[nextId++]));
+        }
+        return routeBatch(withIds, ExampleRequest::getId, ExampleShard::insertExamples, "Example is required.");
+    }
+
+    @Override
+    public List<BatchItemResponse> updateExamples(List<ExampleRequest> exampleRequests) {
+        return routeBatch(exampleRequests, ExampleRequest::getId, ExampleShard::updateExamples,
+                "Example ID is required.");
+    }
+
+    @Override
+    public List<BatchItemResponse> deleteExamples(List<Long> ids) {
+        return routeBatch(ids, Function.identity(), ExampleShard::deleteExamples, "Example ID is required.");
+    }
+
+    @Override
+    public List<ExampleResponse> listExamples(ExampleFilter filter) {
+        List<List<ExampleResponse>> partials = scatter(shard -> shard.listExamples(filter));
+        List<ExampleResponse> examples = new ArrayList<>(partials.stream().mapToInt(List::size).sum());
+        mergeById(partials.stream().map(List::iterator).toList()).forEachRemaining(examples::add);
+        return examples;
+    }
+
+    @Override
+    public List<ExampleResponse> listExamples(ExampleFilter filter, Long afterId, int limit) {
+        List<List<ExampleResponse>> partials = scatter(shard -> shard.listExamples(filter, afterId, limit));
+        List<ExampleResponse> examples = new ArrayList<>();
+        Iterator<ExampleResponse> merged = mergeById(partials.stream().map(List::iterator).toList());
+        while (examples.size() < limit && merged.hasNext()) {
+            examples.add(merged.next());
+        }
+        return examples;
+    }
+
+    /**
+     * Streams example resources matching the given filter from all shards, merged in ascending ID order.
+     * <p>
+     * The shard streams are only read as the merged stream is consumed, one example ahead each, and are all closed
+     * when it is closed.
+     * </p>
+     *
+     * @param filter  the filter criteria (can be null to stream all examples)
+     * @param afterId the ID after which the stream starts (can be null to start from the first example)
+     * @return a stream of matching example resources in ascending ID order
+     */
+    @Override
+    public Stream<ExampleResponse> streamExamples(ExampleFilter filter, Long afterId) {
+        List<Stream<ExampleResponse>> streams = shards.stream()
+                .map(shard -> shard.streamExamples(filter, afterId))
+                .toList();
+        Iterator<ExampleResponse> merged = mergeById(streams.stream().map(Stream::iterator).toList());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged,
+                        Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> streams.forEach(Stream::close));
+    }
+
+    /**
+     * Returns a version of the examples that a list filtered by the given type can contain.
+     * <p>
+     * This is the sum of the list versions of the shards, which changes whenever any of them does.
+     * </p>
+     *
+     * @param type the type filter of the list (can be null for lists of all types)
+     * @return the current version of the examples of the type
+     */
+    @Override
+    public long listVersion(ExampleRequest.ExampleType type) {
+        long version = 0;
+        for (ExampleShard shard : shards) {
+            version += shard.listVersion(type);
+        }
+        return version;
+    }
+
+    @Override
+    public SearchExampleResponse searchExamples(String query, int limit) {
+        List<ExampleSearchHitResponse> hits = new ArrayList<>();
+        for (SearchExampleResponse partial : scatter(shard -> shard.searchExamples(query, limit))) {
+            hits.addAll(partial.getHits());
+        }
+        hits.sort(Comparator.comparingDouble(ExampleSearchHitResponse::getScore).reversed()
+                .thenComparing(hit -> hit.getExample().getId()));
+        return new SearchExampleResponse(hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits);
+    }
+
+    @Override
+    public AggregateExampleResponse aggregateExamples(ExampleFilter filter, ExampleGrouping grouping,
+                                                      ExampleGrouping.DateBucket bucket) {
+        return ExampleAggregator.merge(scatter(shard -> shard.aggregateExamples(filter, grouping, bucket)));
+    }
+
+    /**
+     * Stops the threads waiting for shards; the shards themselves are not closed.
+     */
+    @Override
+    public void close() {
+        scatterExecutor.close();
+    }
+
+    /**
+     * Sends a request to every shard concurrently and waits for all answers.
+     *
+     * @param call the request
+     * @param <T>  the type of the answers
+     * @return the answers, in the order of the shards
+     */
+    private <T> List<T> scatter(Function<ExampleShard, T> call) {
+        if (shards.size() == 1) {
+            return List.of(call.apply(shards.getFirst()));
+        }
+        List<CompletableFuture<T>> answers = shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> call.apply(shard), scatterExecutor))
+                .toList();
+        List<T> results = new ArrayList<>(answers.size());
+        for (CompletableFuture<T> answer : answers) {
+            try {
+                results.add(answer.join());
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Splits a batch by owning shard, sends each shard its part concurrently, and puts the results back in the order
+     * of the batch.
+     *
+     * @param items     the items of the batch
+     * @param idOf      returns the ID of an item
+     * @param call      applies a part of the batch to a shard
+     * @param missingId the error of items without an ID, which no shard owns
+     * @param <T>       the type of the items
+     * @return one result per item, in the same order
+     */
+    private <T> List<BatchItemResponse> routeBatch(List<T> items, Function<T, Long> idOf,
+                                                   BiFunction<ExampleShard, List<T>, List<BatchItemResponse>> call,
+                                                   String missingId) {
+        BatchItemResponse[] results = new BatchItemResponse[items.size()];
+        Map<ExampleShard, List<Integer>> positions = new IdentityHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            T item = items.get(i);
+            Long id = item == null ? null : idOf.apply(item);
+            if (id == null) {
+                results[i] = BatchItemResponse.failure(null, HttpStatus.BAD_REQUEST.value(), missingId);
+            } else {
+                positions.computeIfAbsent(shardFor(id), shard -> new ArrayList<>()).add(i);
+            }
+        }
+        scatter(shard -> {
+            List<Integer> mine = positions.get(shard);
+            if (mine != null) {
+                List<BatchItemResponse> answers = call.apply(shard, mine.stream().map(items::get).toList());
+                for (int i = 0; i < mine.size(); i++) {
+                    results[mine.get(i)] = answers.get(i);
+                }
+            }
+            return null;
+        });
+        return Arrays.asList(results);
+    }
+
+    private static ExampleRequest withId(ExampleRequest exampleRequest, long id) {
+        return new ExampleRequest(
+                id,
+                exampleRequest.getName(),
+                exampleRequest.getDescription(),
+                exampleRequest.getAge(),
+                exampleRequest.getPrice(),
+                exampleRequest.getIsActive(),
+                exampleRequest.getCreationDate(),
+                exampleRequest.getTags(),
+                exampleRequest.getExampleType()
+        );
+    }
+
+    /**
+     * Merges iterators of examples in ascending ID order into one iterator in ascending ID order.
+     */
+    private static Iterator<ExampleResponse> mergeById(List<Iterator<ExampleResponse>> sources) {
+        PriorityQueue<Head> heads = new PriorityQueue<>(Math.max(1, sources.size()),
+                Comparator.comparingLong(head -> head.example.getId()));
+        for (Iterator<ExampleResponse> source : sources) {
+            if (source.hasNext()) {
+                heads.add(new Head(source.next(), source));
+            }
+        }
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+
+            @Override
+            public ExampleResponse next() {
+                Head head = heads.poll();
+                if (head == null) {
+                    throw new NoSuchElementException();
+                }
+                ExampleResponse example = head.example;
+                if (head.source.hasNext()) {
+                    head.example = head.source.next();
+                    heads.add(head);
+                }
+                return example;
+            }
+        };
+    }
+
+    /**
+     * The next example of one merged source.
+     */
+    private static final class Head {
+
+        private ExampleResponse example;
+        private final Iterator<ExampleResponse> source;
+
+        Head(ExampleResponse example, Iterator<ExampleResponse> source) {
+            this.example = example;
+            this.source = source;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.demo.service;
+
+import com.example.demo.infrastructure.persistence.ExamplePersistenceProperties;
+import com.example.demo.utils.SyntheticExampleGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads {@code example.synthetic.count} examples from a {@link SyntheticExampleGenerator} into the example service
+ * at startup, so the application can be load tested against a realistically sized data set without sending it over
+ * HTTP first.
+ * <p>
+ * Examples are generated and created in batches on all cores, through {@link ExampleService#createExamples}, so
+ * they are published to the change feed and spread over the shards like any other batch. Creation dates are counted
+ * back from 2024-12-31, so the same seed yields the same examples on every day.
+ * </p>
+ * <p>
+ * The loader is refused together with persistence: it loads the examples again on every startup, on top of the ones
+ * recovered from the journal, so every restart would add another full data set to the journal.
+ * </p>
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("${example.synthetic.count:0} > 0")
+class SyntheticExampleLoader implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 10_000;
+    private static final LocalDate NEWEST_DATE = LocalDate.of(2024, 12, 31);
+
+    private final ExampleService exampleService;
+    private final SyntheticExampleGenerator generator;
+    private final long count;
+
+    /**
+     * Creates the loader.
+     *
+     * @param exampleService the service to create the examples in
+     * @param count          the number of examples to load
+     * @param seed           the seed of the generated examples
+     * @param tags           the number of distinct tags of the generated examples
+     * @param persistence    the persistence configuration
+     * @throws IllegalStateException if persistence is enabled
+     */
+    SyntheticExampleLoader(ExampleService exampleService,
+                           @Value("${example.synthetic.count}") long count,
+                           @Value("${example.synthetic.seed:42}") long seed,
+                           @Value("${example.synthetic.tags:10000}") int tags,
+                           ExamplePersistenceProperties persistence) {
+        if (persistence.isEnabled()) {
+            throw new IllegalStateException("example.synthetic.count cannot be combined with "
+                    + "example.persistence.enabled=true");
+        }
+        this.exampleService = exampleService;
+        this.generator = new SyntheticExampleGenerator(seed, tags, NEWEST_DATE);
+        this.count = count;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        AtomicLong created = new AtomicLong();
+        generator.forEachBatch(count, BATCH_SIZE,
+                batch -> created.addAndGet(exampleService.createExamples(batch).size()));
+        log.info("Loaded {} synthetic examples in {} ms", created.get(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+}
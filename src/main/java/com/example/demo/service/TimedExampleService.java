@@ -0,0 +1,208 @@
+package com.example.demo.service;
+
+import com.example.demo.web.model.v1.request.ExampleRequest;
+import com.example.demo.web.model.v1.response.AggregateExampleResponse;
+import com.example.demo.web.model.v1.response.BatchItemResponse;
+import com.example.demo.web.model.v1.response.ExampleResponse;
+import com.example.demo.web.model.v1.response.SearchExampleResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * {@link ExampleService} decorator recording the latency of every operation of the example service, whether a
+ * single {@link ExampleServiceImpl} or a {@link ShardedExampleService}.
+ * <p>
+ * Each operation has its own {@code example.service} timer, tagged with the method name and registered up front
+ * with a percentile histogram, so recording a call is two clock reads and a lock-free histogram update without any
+ * allocation. Failed calls are recorded as well. {@link #streamExamples} is timed until the stream is created, not
+ * until it is consumed.
+ * </p>
+ */
+@Primary
+@Service
+public class TimedExampleService implements ExampleService {
+
+    private final ExampleService delegate;
+    private final Timer createExample;
+    private final Timer deleteExample;
+    private final Timer updateExample;
+    private final Timer patchExample;
+    private final Timer createExamples;
+    private final Timer updateExamples;
+    private final Timer deleteExamples;
+    private final Timer listExamples;
+    private final Timer listExamplesPage;
+    private final Timer streamExamples;
+    private final Timer searchExamples;
+    private final Timer aggregateExamples;
+
+    /**
+     * Creates the decorator and registers its timers.
+     *
+     * @param delegate the service whose operations are timed
+     * @param registry the registry to register the timers in
+     */
+    public TimedExampleService(ExampleService delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.createExample = timer(registry, "createExample");
+        this.deleteExample = timer(registry, "deleteExample");
+        this.updateExample = timer(registry, "updateExample");
+        this.patchExample = timer(registry, "patchExample");
+        this.createExamples = timer(registry, "createExamples");
+        this.updateExamples = timer(registry, "updateExamples");
+        this.deleteExamples = timer(registry, "deleteExamples");
+        this.listExamples = timer(registry, "listExamples");
+        this.listExamplesPage = timer(registry, "listExamplesPage");
+        this.streamExamples = timer(registry, "streamExamples");
+        this.searchExamples = timer(registry, "searchExamples");
+        this.aggregateExamples = timer(registry, "aggregateExamples");
+    }
+
+    @Override
+    public ExampleResponse createExample(ExampleRequest exampleRequest) {
+        long start = System.nanoTime();
+        try {
+            return delegate.createExample(exampleRequest);
+        } finally {
+            record(createExample, start);
+        }
+    }
+
+    @Override
+    public void deleteExample(Long id, Long expectedVersion) {
+        long start = System.nanoTime();
+        try {
+            delegate.deleteExample(id, expectedVersion);
+        } finally {
+            record(deleteExample, start);
+        }
+    }
+
+    @Override
+    public ExampleResponse updateExample(Long id, ExampleRequest exampleRequest, Long expectedVersion) {
+        long start = System.nanoTime();
+        try {
+            return delegate.updateExample(id, exampleRequest, expectedVersion);
+        } finally {
+            record(updateExample, start);
+        }
+    }
+
+    @Override
+    public ExampleResponse patchExample(Long id, UnaryOperator<ExampleRequest> patch, Long expectedVersion) {
+        long start = System.nanoTime();
+        try {
+            return delegate.patchExample(id, patch, expectedVersion);
+        } finally {
+            record(patchExample, start);
+        }
+    }
+
+    @Override
+    public List<BatchItemResponse> createExamples(List<ExampleRequest> exampleRequests) {
+        long start = System.nanoTime();
+        try {
+            return delegate.createExamples(exampleRequests);
+        } finally {
+            record(createExamples, start);
+        }
+    }
+
+    @Override
+    public List<BatchItemResponse> updateExamples(List<ExampleRequest> exampleRequests) {
+        long start = System.nanoTime();
+        try {
+            return delegate.updateExamples(exampleRequests);
+        } finally {
+            record(updateExamples, start);
+        }
+    }
+
+    @Override
+    public List<BatchItemResponse> deleteExamples(List<Long> ids) {
+        long start = System.nanoTime();
+        try {
+            return delegate.deleteExamples(ids);
+        } finally {
+            record(deleteExamples, start);
+        }
+    }
+
+    @Override
+    public List<ExampleResponse> listExamples(ExampleFilter filter) {
+        long start = System.nanoTime();
+        try {
+            return delegate.listExamples(filter);
+        } finally {
+            record(listExamples, start);
+        }
+    }
+
+    @Override
+    public List<ExampleResponse> listExamples(ExampleFilter filter, Long afterId, int limit) {
+        long start = System.nanoTime();
+        try {
+            return delegate.listExamples(filter, afterId, limit);
+        } finally {
+            record(listExamplesPage, start);
+        }
+    }
+
+    @Override
+    public Stream<ExampleResponse> streamExamples(ExampleFilter filter, Long afterId) {
+        long start = System.nanoTime();
+        try {
+            return delegate.streamExamples(filter, afterId);
+        } finally {
+            record(streamExamples, start);
+        }
+    }
+
+    @Override
+    public long listVersion(ExampleRequest.ExampleType type) {
+        return delegate.listVersion(type); // A volatile read per shard; not worth timing
+    }
+
+    @Override
+    public SearchExampleResponse searchExamples(String query, int limit) {
+        long start = System.nanoTime();
+        try {
+            return delegate.searchExamples(query, limit);
+        } finally {
+            record(searchExamples, start);
+        }
+    }
+
+    @Override
+    public AggregateExampleResponse aggregateExamples(ExampleFilter filter, ExampleGrouping grouping,
+                                                      ExampleGrouping.DateBucket bucket) {
+        long start = System.nanoTime();
+        try {
+            return delegate.aggregateExamples(filter, grouping, bucket);
+        } finally {
+            record(aggregateExamples, start);
+        }
+    }
+
+    private static Timer timer(MeterRegistry registry, String method) {
+        return Timer.builder("example.service")
+                .description("Latency of example service operations")
+                .tag("method", method)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(1_000))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(registry);
+    }
+
+    private static void record(Timer timer, long start) {
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
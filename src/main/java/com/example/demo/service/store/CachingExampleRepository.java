@@ -0,0 +1,269 @@
+package com.example.demo.service.store;
+
+import com.example.demo.infrastructure.persistence.ExampleJournal;
+import com.example.demo.service.ExampleFilter;
+import com.example.demo.service.ExampleGrouping;
+import com.example.demo.web.model.v1.response.AggregateExampleResponse;
+import com.example.demo.web.model.v1.response.ExampleResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * {@link ExampleRepository} decorator caching the examples of a slower repository in memory.
+ * <p>
+ * Examples read by ID are cached in a size-bounded Caffeine cache, whose W-TinyLFU policy admits a new example
+ * only if it is estimated to be used more often than the one it would evict. One-off reads, such as those of a scan,
+ * therefore do not flush out the examples that are read over and over. Evictions run on the calling thread, so the
+ * bound holds without a background thread. Hits, misses and evictions are counted (see {@link #stats}).
+ * </p>
+ * <p>
+ * Writes are applied in one of two {@link WriteMode modes}. Writing through applies every change to the backing
+ * repository before it returns and then caches its result. Writing behind applies the change to the cache only, and
+ * remembers the latest state of each changed example until a background thread writes it to the backing repository,
+ * every {@code flushInterval}. Repeated changes to an example in between are coalesced into one write. Queries,
+ * aggregations, searches and {@link #lastId} are answered by the backing repository, so they first write every
+ * pending change.
+ * </p>
+ * <p>
+ * Writes to one ID are serialized by one of a fixed set of striped locks, held while the backing repository and the
+ * cache are both updated, so the cache never ends up holding an older state than the backing repository. Reads
+ * take no lock: a missed read loads the example while its cache entry is being computed, which a concurrent write
+ * waits for before replacing it.
+ * </p>
+ */
+@Slf4j
+public class CachingExampleRepository implements ExampleRepository, AutoCloseable {
+
+    private static final int STRIPES = 256;
+
+    private final ExampleRepository backing;
+    private final WriteMode writeMode;
+    private final Cache<Long, ExampleResponse> cache;
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+    private final LongAdder flushedWrites = new LongAdder();
+    private final ScheduledExecutorService flusher;
+
+    /**
+     * Creates a cache in front of a repository.
+     *
+     * @param backing       the repository holding the examples
+     * @param maximumSize   the maximum number of cached examples
+     * @param writeMode     how writes reach the backing repository
+     * @param flushInterval the delay between two writes of the pending changes, when writing behind
+     */
+    public CachingExampleRepository(ExampleRepository backing, long maximumSize, WriteMode writeMode,
+                                    Duration flushInterval) {
+        this.backing = backing;
+        this.writeMode = writeMode;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        if (writeMode == WriteMode.WRITE_BEHIND) {
+            flusher = Executors.newSingleThreadScheduledExecutor(
+                    runnable -> Thread.ofPlatform().name("example-repository-flusher").daemon().unstarted(runnable));
+            flusher.scheduleWithFixedDelay(this::scheduledFlush,
+                    flushInterval.toNanos(), flushInterval.toNanos(), TimeUnit.NANOSECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    @Override
+    public ExampleResponse get(Long id) {
+        Pending change = pending.get(id);
+        if (change != null) {
+            return change.example();
+        }
+        // Checked again while loading, in case the change was made, then evicted from the cache, in between
+        return cache.get(id, key -> {
+            Pending loading = pending.get(key);
+            return loading != null ? loading.example() : backing.get(key);
+        });
+    }
+
+    @Override
+    public ExampleResponse compute(Long id, UnaryOperator<ExampleResponse> remapping) {
+        ReentrantLock lock = lock(id);
+        lock.lock();
+        try {
+            ExampleResponse next;
+            if (writeMode == WriteMode.WRITE_THROUGH) {
+                next = backing.compute(id, remapping);
+            } else {
+                ExampleResponse current = get(id);
+                next = remapping.apply(current);
+                if (next == current) {
+                    return current;
+                }
+                pending.put(id, new Pending(next));
+            }
+            if (next != null) {
+                cache.put(id, next);
+            } else {
+                cache.invalidate(id);
+            }
+            return next;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Stream<ExampleResponse> query(ExampleFilter filter, Long afterId) {
+        flush();
+        return backing.query(filter, afterId);
+    }
+
+    @Override
+    public AggregateExampleResponse aggregate(ExampleFilter filter, ExampleGrouping grouping,
+                                              ExampleGrouping.DateBucket bucket) {
+        flush();
+        return backing.aggregate(filter, grouping, bucket);
+    }
+
+    @Override
+    public List<SearchHit> search(String query, int limit) {
+        flush();
+        return backing.search(query, limit);
+    }
+
+    @Override
+    public long lastId() {
+        flush();
+        return backing.lastId();
+    }
+
+    @Override
+    public boolean recover(ExampleJournal journal) {
+        return backing.recover(journal);
+    }
+
+    /**
+     * Writes every pending change to the backing repository. Does nothing when writing through.
+     */
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        for (Long id : pending.keySet()) {
+            ReentrantLock lock = lock(id);
+            lock.lock();
+            try {
+                Pending change = pending.get(id);
+                if (change != null) {
+                    backing.compute(id, current -> change.example());
+                    // Only removed once written, so reads never fall through to the older state
+                    pending.remove(id);
+                    flushedWrites.increment();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns the hit, miss and eviction counts of the cache.
+     *
+     * @return a snapshot of the cache statistics
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Returns the approximate number of cached examples.
+     *
+     * @return the number of cached examples
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Returns the number of examples with changes not written to the backing repository yet.
+     *
+     * @return the number of pending changes
+     */
+    public int pendingWrites() {
+        return pending.size();
+    }
+
+    /**
+     * Returns the number of pending changes written to the backing repository so far.
+     *
+     * @return the number of flushed changes
+     */
+    public long flushedWrites() {
+        return flushedWrites.sum();
+    }
+
+    /**
+     * Stops the background flushes and writes the remaining pending changes.
+     */
+    @Override
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    private void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Failed to write pending example changes; retrying at the next flush", e);
+        }
+    }
+
+    private ReentrantLock lock(Long id) {
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return locks[(int) (hash >>> 56) & (STRIPES - 1)];
+    }
+
+    /**
+     * How writes reach the backing repository.
+     */
+    public enum WriteMode {
+        /**
+         * Every change is applied to the backing repository before the write returns.
+         */
+        WRITE_THROUGH,
+        /**
+         * Changes are applied to the cache, and written to the backing repository in the background.
+         */
+        WRITE_BEHIND
+    }
+
+    /**
+     * The latest state of a changed example, {@code null} if it was deleted.
+     */
+    private record Pending(ExampleResponse example) {
+    }
+}
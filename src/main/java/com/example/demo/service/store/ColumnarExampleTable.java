@@ -0,0 +1,675 @@
+package com.example.demo.service.store;
+
+import com.example.demo.service.ExampleFilter;
+import com.example.demo.service.ExampleGrouping;
+import com.example.demo.web.model.v1.request.ExampleRequest.ExampleType;
+import com.example.demo.web.model.v1.response.AggregateExampleResponse;
+import com.example.demo.web.model.v1.response.ExampleGroupResponse;
+import com.example.demo.web.model.v1.response.ExampleResponse;
+import com.example.demo.web.model.v1.response.MetricSummaryResponse;
+
+import java.lang.invoke.VarHandle;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * {@link ExampleTable} holding examples column-wise in primitive arrays instead of one object per example.
+ * <p>
+ * Every example occupies a slot, and each field is stored in its own column: IDs, versions, ages, prices and
+ * creation dates (as epoch days) in primitive arrays, the active flags in a bitset, the example type as a byte, and tags as codes
+ * into a shared dictionary, so each distinct tag is stored once. A small per-slot bit mask tells which of the
+ * primitive fields are {@code null}. Columns are allocated in fixed-size chunks, so growing the table never copies
+ * existing data. {@link ExampleResponse} objects are only built when an example is read.
+ * </p>
+ * <p>
+ * Writers lock the ID they write through a {@link ConcurrentHashMap} from ID to slot. Readers do not lock: each slot
+ * carries a sequence number that is odd while the slot is being written, and a reader retries until it has read the
+ * slot between two identical even sequence numbers. Freed slots are reused, so readers also check that the slot
+ * still holds the ID they looked up.
+ * </p>
+ * <p>
+ * Aggregations read the columns directly: chunks are scanned in parallel, filters are evaluated on the type bytes,
+ * active bits, epoch days and tag codes, and rows are grouped by an integer key (a type ordinal, tag code or epoch
+ * day) in a primitive hash table. Keys are only turned into strings, and days into date buckets, once per group at the
+ * end, so no object is built per example.
+ * </p>
+ */
+final class ColumnarExampleTable implements ExampleTable {
+
+    private static final int CHUNK_SHIFT = 14;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final int AGE = 1;
+    private static final int PRICE = 1 << 1;
+    private static final int IS_ACTIVE = 1 << 2;
+    private static final int CREATION_DATE = 1 << 3;
+    private static final int VERSION = 1 << 4;
+
+    private static final long FREE = Long.MIN_VALUE;
+    private static final int NULL_KEY = Integer.MIN_VALUE;
+    private static final ExampleType[] EXAMPLE_TYPES = ExampleType.values();
+
+    private final ConcurrentHashMap<Long, Integer> slots = new ConcurrentHashMap<>();
+    private final TagDictionary tags = new TagDictionary();
+    private final ReentrantLock allocationLock = new ReentrantLock();
+    private volatile Chunk[] chunks = new Chunk[0];
+
+    // Guarded by allocationLock
+    private int[] freeSlots = new int[64];
+    private int freeCount;
+    private int nextSlot;
+
+    @Override
+    public ExampleResponse get(Long id) {
+        Integer slot = slots.get(id);
+        return slot == null ? null : read(slot, id);
+    }
+
+    @Override
+    public boolean contains(Long id) {
+        return slots.containsKey(id);
+    }
+
+    @Override
+    public ExampleResponse compute(Long id, BiFunction<Long, ExampleResponse, ExampleResponse> remapping) {
+        ExampleResponse[] result = new ExampleResponse[1];
+        slots.compute(id, (key, slot) -> {
+            ExampleResponse stored = slot == null ? null : read(slot, key);
+            ExampleResponse next = remapping.apply(key, stored);
+            result[0] = next;
+            if (next == stored) {
+                return slot;
+            }
+            if (next == null) {
+                free(slot);
+                return null;
+            }
+            int target = slot != null ? slot : allocate();
+            write(target, next);
+            return target;
+        });
+        return result[0];
+    }
+
+    @Override
+    public long size() {
+        return slots.mappingCount();
+    }
+
+    @Override
+    public AggregateExampleResponse aggregate(ExampleFilter filter, ExampleGrouping grouping,
+                                              ExampleGrouping.DateBucket bucket) {
+        RowFilter rows = RowFilter.of(filter, tags);
+        if (rows == null) {
+            return new AggregateExampleResponse(List.of()); // A requested tag was never stored
+        }
+        Chunk[] scanned = chunks;
+        Groups groups = IntStream.range(0, scanned.length).parallel()
+                .mapToObj(chunk -> aggregate(scanned[chunk], rows, grouping))
+                .reduce(Groups::combine)
+                .orElseGet(Groups::new);
+        return groups.toResponse(key -> key == NULL_KEY ? null : switch (grouping) {
+            case NONE -> null;
+            case TYPE -> EXAMPLE_TYPES[key].name();
+            case ACTIVE -> Boolean.toString(key == 1);
+            case TAG -> tags.value(key);
+            case CREATION_DATE -> bucket.truncate(LocalDate.ofEpochDay(key)).toString();
+        });
+    }
+
+    /**
+     * Aggregates the rows of one chunk, reading each between two identical even sequence numbers like {@link #read}.
+     */
+    private static Groups aggregate(Chunk chunk, RowFilter rows, ExampleGrouping grouping) {
+        Groups groups = new Groups();
+        boolean readTags = grouping == ExampleGrouping.TAG || rows.tagCodes != null;
+        for (int index = 0; index < CHUNK_SIZE; index++) {
+            while (true) {
+                int sequence = chunk.sequences.getAcquire(index);
+                if ((sequence & 1) != 0) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                if (chunk.ids[index] == FREE) {
+                    break;
+                }
+                int present = chunk.present[index];
+                byte type = chunk.types[index];
+                boolean active = chunk.isActive(index);
+                int day = chunk.creationDays[index];
+                int age = chunk.ages[index];
+                double price = chunk.prices[index];
+                int[] tagCodes = readTags ? chunk.tags[index] : null;
+                VarHandle.loadLoadFence();
+                if (chunk.sequences.get(index) != sequence) {
+                    continue;
+                }
+                if (rows.matches(present, type, active, day, tagCodes)) {
+                    boolean hasPrice = (present & PRICE) != 0;
+                    boolean hasAge = (present & AGE) != 0;
+                    switch (grouping) {
+                        case NONE -> groups.add(NULL_KEY, hasPrice, price, hasAge, age);
+                        case TYPE -> groups.add(type < 0 ? NULL_KEY : type, hasPrice, price, hasAge, age);
+                        case ACTIVE -> groups.add((present & IS_ACTIVE) == 0 ? NULL_KEY : active ? 1 : 0,
+                                hasPrice, price, hasAge, age);
+                        case TAG -> addPerTag(groups, tagCodes, hasPrice, price, hasAge, age);
+                        case CREATION_DATE -> groups.add((present & CREATION_DATE) == 0 ? NULL_KEY : day,
+                                hasPrice, price, hasAge, age);
+                    }
+                }
+                break;
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Adds a row to the group of each of its distinct tags, or to the group without a value if it has none.
+     */
+    private static void addPerTag(Groups groups, int[] tagCodes, boolean hasPrice, double price, boolean hasAge,
+                                  int age) {
+        if (tagCodes == null || tagCodes.length == 0) {
+            groups.add(NULL_KEY, hasPrice, price, hasAge, age);
+            return;
+        }
+        for (int i = 0; i < tagCodes.length; i++) {
+            int code = tagCodes[i];
+            boolean repeated = false;
+            for (int j = 0; j < i && !repeated; j++) {
+                repeated = tagCodes[j] == code;
+            }
+            if (!repeated) {
+                groups.add(code == TagDictionary.NULL_TAG ? NULL_KEY : code, hasPrice, price, hasAge, age);
+            }
+        }
+    }
+
+    private ExampleResponse read(int slot, long id) {
+        Chunk chunk = chunks[slot >>> CHUNK_SHIFT];
+        int index = slot & CHUNK_MASK;
+        while (true) {
+            int sequence = chunk.sequences.getAcquire(index);
+            if ((sequence & 1) == 0) {
+                if (chunk.ids[index] != id) {
+                    return null;
+                }
+                ExampleResponse example = decode(chunk, index);
+                int[] tagCodes = chunk.tags[index];
+                VarHandle.loadLoadFence();
+                if (chunk.sequences.get(index) == sequence) {
+                    // Decoded only now: codes of a torn read may not be in the dictionary this thread sees yet
+                    example.setTags(tags.decode(tagCodes));
+                    return example;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Decodes the example in a slot, except for its tags, which the caller decodes once the read is known whole.
+     */
+    private ExampleResponse decode(Chunk chunk, int index) {
+        int present = chunk.present[index];
+        byte type = chunk.types[index];
+        return new ExampleResponse(
+                chunk.ids[index],
+                chunk.names[index],
+                chunk.descriptions[index],
+                (present & AGE) != 0 ? chunk.ages[index] : null,
+                (present & PRICE) != 0 ? chunk.prices[index] : null,
+                (present & IS_ACTIVE) != 0 ? chunk.isActive(index) : null,
+                (present & CREATION_DATE) != 0 ? LocalDate.ofEpochDay(chunk.creationDays[index]) : null,
+                null,
+                type >= 0 ? EXAMPLE_TYPES[type] : null,
+                (present & VERSION) != 0 ? chunk.versions[index] : null
+        );
+    }
+
+    /**
+     * Writes an example into a slot. Only called while the ID owning the slot is locked.
+     */
+    private void write(int slot, ExampleResponse example) {
+        Chunk chunk = chunks[slot >>> CHUNK_SHIFT];
+        int index = slot & CHUNK_MASK;
+        int sequence = chunk.sequences.get(index);
+        chunk.sequences.set(index, sequence + 1);
+        VarHandle.storeStoreFence();
+
+        int present = 0;
+        chunk.ids[index] = example.getId();
+        chunk.names[index] = example.getName();
+        chunk.descriptions[index] = example.getDescription();
+        if (example.getAge() != null) {
+            chunk.ages[index] = example.getAge();
+            present |= AGE;
+        }
+        if (example.getPrice() != null) {
+            chunk.prices[index] = example.getPrice();
+            present |= PRICE;
+        }
+        if (example.getIsActive() != null) {
+            present |= IS_ACTIVE;
+        }
+        chunk.setActive(index, Boolean.TRUE.equals(example.getIsActive()));
+        if (example.getCreationDate() != null) {
+            chunk.creationDays[index] = (int) example.getCreationDate().toEpochDay();
+            present |= CREATION_DATE;
+        }
+        if (example.getVersion() != null) {
+            chunk.versions[index] = example.getVersion();
+            present |= VERSION;
+        }
+        chunk.tags[index] = tags.encode(example.getTags());
+        chunk.types[index] = example.getExampleType() == null ? -1 : (byte) example.getExampleType().ordinal();
+        chunk.present[index] = (byte) present;
+
+        chunk.sequences.setRelease(index, sequence + 2);
+    }
+
+    /**
+     * Clears a slot, so that its strings and tags can be collected, and makes it available for reuse.
+     */
+    private void free(int slot) {
+        Chunk chunk = chunks[slot >>> CHUNK_SHIFT];
+        int index = slot & CHUNK_MASK;
+        int sequence = chunk.sequences.get(index);
+        chunk.sequences.set(index, sequence + 1);
+        VarHandle.storeStoreFence();
+        chunk.ids[index] = FREE;
+        chunk.names[index] = null;
+        chunk.descriptions[index] = null;
+        chunk.tags[index] = null;
+        chunk.sequences.setRelease(index, sequence + 2);
+
+        allocationLock.lock();
+        try {
+            if (freeCount == freeSlots.length) {
+                freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+            }
+            freeSlots[freeCount++] = slot;
+        } finally {
+            allocationLock.unlock();
+        }
+    }
+
+    private int allocate() {
+        allocationLock.lock();
+        try {
+            if (freeCount > 0) {
+                return freeSlots[--freeCount];
+            }
+            int slot = nextSlot++;
+            if (slot >>> CHUNK_SHIFT == chunks.length) {
+                Chunk[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+                grown[chunks.length] = new Chunk();
+                chunks = grown;
+            }
+            return slot;
+        } finally {
+            allocationLock.unlock();
+        }
+    }
+
+    /**
+     * A fixed-size block of slots, one array per column.
+     */
+    private static final class Chunk {
+
+        private final AtomicIntegerArray sequences = new AtomicIntegerArray(CHUNK_SIZE);
+        private final long[] versions = new long[CHUNK_SIZE];
+        private final long[] ids = freeIds(); // Unallocated slots read as free
+        private final String[] names = new String[CHUNK_SIZE];
+        private final String[] descriptions = new String[CHUNK_SIZE];
+        private final int[] ages = new int[CHUNK_SIZE];
+        private final double[] prices = new double[CHUNK_SIZE];
+        private final int[] creationDays = new int[CHUNK_SIZE];
+        private final int[][] tags = new int[CHUNK_SIZE][];
+        private final byte[] types = new byte[CHUNK_SIZE];
+        private final byte[] present = new byte[CHUNK_SIZE];
+        // Bits of neighbouring slots share a word, so they are updated atomically
+        private final AtomicLongArray active = new AtomicLongArray(CHUNK_SIZE >>> 6);
+
+        private static long[] freeIds() {
+            long[] ids = new long[CHUNK_SIZE];
+            Arrays.fill(ids, FREE);
+            return ids;
+        }
+
+        boolean isActive(int index) {
+            return (active.get(index >>> 6) & (1L << index)) != 0;
+        }
+
+        void setActive(int index, boolean value) {
+            long bit = 1L << index;
+            if (value) {
+                active.getAndAccumulate(index >>> 6, bit, (word, mask) -> word | mask);
+            } else {
+                active.getAndAccumulate(index >>> 6, ~bit, (word, mask) -> word & mask);
+            }
+        }
+    }
+
+    /**
+     * Dictionary assigning a dense integer code to each distinct tag. Codes are never reclaimed.
+     */
+    private static final class TagDictionary {
+
+        private static final int NULL_TAG = -1;
+        private static final int UNKNOWN_TAG = -2;
+
+        private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile String[] values = new String[64];
+        private int size; // Guarded by lock
+
+        int[] encode(String[] tags) {
+            if (tags == null) {
+                return null;
+            }
+            int[] encoded = new int[tags.length];
+            for (int i = 0; i < tags.length; i++) {
+                encoded[i] = encode(tags[i]);
+            }
+            return encoded;
+        }
+
+        String[] decode(int[] encoded) {
+            if (encoded == null) {
+                return null;
+            }
+            String[] dictionary = values;
+            String[] decoded = new String[encoded.length];
+            for (int i = 0; i < encoded.length; i++) {
+                decoded[i] = encoded[i] == NULL_TAG ? null : dictionary[encoded[i]];
+            }
+            return decoded;
+        }
+
+        /**
+         * Returns the code of a tag without assigning one.
+         *
+         * @return the code, {@link #NULL_TAG} for {@code null}, or {@link #UNKNOWN_TAG} if the tag was never stored
+         */
+        int lookup(String tag) {
+            if (tag == null) {
+                return NULL_TAG;
+            }
+            Integer code = codes.get(tag);
+            return code == null ? UNKNOWN_TAG : code;
+        }
+
+        String value(int code) {
+            return values[code];
+        }
+
+        private int encode(String tag) {
+            if (tag == null) {
+                return NULL_TAG;
+            }
+            Integer code = codes.get(tag);
+            if (code != null) {
+                return code;
+            }
+            lock.lock();
+            try {
+                code = codes.get(tag);
+                if (code == null) {
+                    code = size++;
+                    String[] dictionary = values;
+                    if (code == dictionary.length) {
+                        dictionary = Arrays.copyOf(dictionary, code * 2);
+                    }
+                    dictionary[code] = tag;
+                    values = dictionary;
+                    codes.put(tag, code);
+                }
+                return code;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * An {@link ExampleFilter} translated to the values of the columns.
+     *
+     * @param type     the type ordinal to match, or {@code -1} for any
+     * @param active   {@code 1} or {@code 0} for the active flag to match, or {@code -1} for any
+     * @param tagCodes the codes of the tags every matching row carries, or {@code null} for any
+     * @param dates    whether the creation date is restricted
+     * @param fromDay  the inclusive lower bound of the creation date, as an epoch day
+     * @param toDay    the inclusive upper bound of the creation date, as an epoch day
+     */
+    private record RowFilter(int type, int active, int[] tagCodes, boolean dates, int fromDay, int toDay) {
+
+        /**
+         * Translates a filter.
+         *
+         * @return the translated filter, or {@code null} if the filter requires a tag that was never stored
+         */
+        static RowFilter of(ExampleFilter filter, TagDictionary dictionary) {
+            if (filter == null) {
+                return new RowFilter(-1, -1, null, false, 0, 0);
+            }
+            int[] tagCodes = null;
+            if (filter.getTags() != null && !filter.getTags().isEmpty()) {
+                tagCodes = new int[filter.getTags().size()];
+                for (int i = 0; i < tagCodes.length; i++) {
+                    tagCodes[i] = dictionary.lookup(filter.getTags().get(i));
+                    if (tagCodes[i] == TagDictionary.UNKNOWN_TAG) {
+                        return null;
+                    }
+                }
+            }
+            return new RowFilter(
+                    filter.getType() == null ? -1 : filter.getType().ordinal(),
+                    filter.getActive() == null ? -1 : filter.getActive() ? 1 : 0,
+                    tagCodes,
+                    filter.getCreatedFrom() != null || filter.getCreatedTo() != null,
+                    filter.getCreatedFrom() == null ? Integer.MIN_VALUE : (int) filter.getCreatedFrom().toEpochDay(),
+                    filter.getCreatedTo() == null ? Integer.MAX_VALUE : (int) filter.getCreatedTo().toEpochDay());
+        }
+
+        boolean matches(int present, byte rowType, boolean rowActive, int day, int[] rowTags) {
+            if (type >= 0 && rowType != type) {
+                return false;
+            }
+            if (active >= 0 && ((present & IS_ACTIVE) == 0 || rowActive != (active == 1))) {
+                return false;
+            }
+            if (dates && ((present & CREATION_DATE) == 0 || day < fromDay || day > toDay)) {
+                return false;
+            }
+            if (tagCodes != null) {
+                for (int code : tagCodes) {
+                    if (!contains(rowTags, code)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private static boolean contains(int[] codes, int code) {
+            if (codes != null) {
+                for (int candidate : codes) {
+                    if (candidate == code) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Per-group counts, sums, minimums and maximums of prices and ages, in an open-addressing hash table keyed by an
+     * integer group key. A group with a count of 0 marks a free bucket.
+     */
+    private static final class Groups {
+
+        private int[] keys = new int[16];
+        private long[] counts = new long[16];
+        private long[] priceCounts = new long[16];
+        private double[] priceSums = new double[16];
+        private double[] priceMins = new double[16];
+        private double[] priceMaxs = new double[16];
+        private long[] ageCounts = new long[16];
+        private long[] ageSums = new long[16];
+        private int[] ageMins = new int[16];
+        private int[] ageMaxs = new int[16];
+        private int size;
+
+        void add(int key, boolean hasPrice, double price, boolean hasAge, int age) {
+            int bucket = bucket(key);
+            counts[bucket]++;
+            if (hasPrice) {
+                if (priceCounts[bucket]++ == 0) {
+                    priceMins[bucket] = price;
+                    priceMaxs[bucket] = price;
+                } else {
+                    priceMins[bucket] = Math.min(priceMins[bucket], price);
+                    priceMaxs[bucket] = Math.max(priceMaxs[bucket], price);
+                }
+                priceSums[bucket] += price;
+            }
+            if (hasAge) {
+                if (ageCounts[bucket]++ == 0) {
+                    ageMins[bucket] = age;
+                    ageMaxs[bucket] = age;
+                } else {
+                    ageMins[bucket] = Math.min(ageMins[bucket], age);
+                    ageMaxs[bucket] = Math.max(ageMaxs[bucket], age);
+                }
+                ageSums[bucket] += age;
+            }
+        }
+
+        Groups combine(Groups other) {
+            for (int from = 0; from < other.keys.length; from++) {
+                if (other.counts[from] > 0) {
+                    merge(bucket(other.keys[from]), other, from);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Builds the response, merging the groups whose keys map to the same string, such as the days of a month.
+         *
+         * @param names maps a group key to the key of its group in the response
+         * @return the aggregation, with groups sorted by key
+         */
+        AggregateExampleResponse toResponse(IntFunction<String> names) {
+            Map<String, Groups> named = new TreeMap<>(Comparator.nullsLast(Comparator.naturalOrder()));
+            for (int bucket = 0; bucket < keys.length; bucket++) {
+                if (counts[bucket] > 0) {
+                    Groups group = named.computeIfAbsent(names.apply(keys[bucket]), name -> new Groups());
+                    group.merge(group.bucket(NULL_KEY), this, bucket);
+                }
+            }
+            List<ExampleGroupResponse> groups = new ArrayList<>(named.size());
+            named.forEach((name, group) -> {
+                int bucket = group.bucket(NULL_KEY);
+                groups.add(new ExampleGroupResponse(name, group.counts[bucket],
+                        summary(group.priceCounts[bucket], group.priceSums[bucket], group.priceMins[bucket],
+                                group.priceMaxs[bucket]),
+                        summary(group.ageCounts[bucket], group.ageSums[bucket], group.ageMins[bucket],
+                                group.ageMaxs[bucket])));
+            });
+            return new AggregateExampleResponse(groups);
+        }
+
+        private static MetricSummaryResponse summary(long count, double sum, double min, double max) {
+            return count == 0
+                    ? new MetricSummaryResponse(0, 0, null, null, null)
+                    : new MetricSummaryResponse(count, sum, min, max, sum / count);
+        }
+
+        private void merge(int bucket, Groups other, int from) {
+            counts[bucket] += other.counts[from];
+            if (other.priceCounts[from] > 0) {
+                boolean first = priceCounts[bucket] == 0;
+                priceMins[bucket] = first ? other.priceMins[from] : Math.min(priceMins[bucket], other.priceMins[from]);
+                priceMaxs[bucket] = first ? other.priceMaxs[from] : Math.max(priceMaxs[bucket], other.priceMaxs[from]);
+                priceCounts[bucket] += other.priceCounts[from];
+                priceSums[bucket] += other.priceSums[from];
+            }
+            if (other.ageCounts[from] > 0) {
+                boolean first = ageCounts[bucket] == 0;
+                ageMins[bucket] = first ? other.ageMins[from] : Math.min(ageMins[bucket], other.ageMins[from]);
+                ageMaxs[bucket] = first ? other.ageMaxs[from] : Math.max(ageMaxs[bucket], other.ageMaxs[from]);
+                ageCounts[bucket] += other.ageCounts[from];
+                ageSums[bucket] += other.ageSums[from];
+            }
+        }
+
+        /**
+         * Returns the bucket of a key, claiming a free one, and growing the table, if the key is new.
+         */
+        private int bucket(int key) {
+            int mask = keys.length - 1;
+            int hash = key * 0x9E3779B9;
+            int bucket = (hash ^ hash >>> 16) & mask;
+            while (counts[bucket] > 0) {
+                if (keys[bucket] == key) {
+                    return bucket;
+                }
+                bucket = bucket + 1 & mask;
+            }
+            if (++size * 2 > keys.length) {
+                grow();
+                return bucket(key);
+            }
+            keys[bucket] = key;
+            counts[bucket] = 0;
+            return bucket;
+        }
+
+        private void grow() {
+            Groups old = copy();
+            int capacity = keys.length * 2;
+            keys = new int[capacity];
+            counts = new long[capacity];
+            priceCounts = new long[capacity];
+            priceSums = new double[capacity];
+            priceMins = new double[capacity];
+            priceMaxs = new double[capacity];
+            ageCounts = new long[capacity];
+            ageSums = new long[capacity];
+            ageMins = new int[capacity];
+            ageMaxs = new int[capacity];
+            size = 0;
+            combine(old);
+        }
+
+        private Groups copy() {
+            Groups copy = new Groups();
+            copy.keys = keys;
+            copy.counts = counts;
+            copy.priceCounts = priceCounts;
+            copy.priceSums = priceSums;
+            copy.priceMins = priceMins;
+            copy.priceMaxs = priceMaxs;
+            copy.ageCounts = ageCounts;
+            copy.ageSums = ageSums;
+            copy.ageMins = ageMins;
+            copy.ageMaxs = ageMaxs;
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.demo.service.store;
+
+import com.example.demo.service.ExampleFilter;
+import com.example.demo.web.model.v1.request.ExampleRequest.ExampleType;
+import com.example.demo.web.model.v1.response.ExampleResponse;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Secondary indexes over the examples held by an {@link ExampleStore}.
+ * <p>
+ * The indexes map example type, active flag, tag and creation date to the IDs of the examples carrying that value.
+ * Each posting list is a sorted concurrent set, so candidates are produced in ascending ID order. The store updates
+ * the indexes while it holds the entry of the example being modified, which keeps them exact under concurrent
+ * writers; readers still re-check every candidate against the stored example.
+ * </p>
+ */
+class ExampleIndexes {
+
+    private final Map<ExampleType, Postings> byType = new EnumMap<>(ExampleType.class);
+    private final Postings activeIds = new Postings();
+    private final Postings inactiveIds = new Postings();
+    private final ConcurrentHashMap<String, Postings> byTag = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<LocalDate, Postings> byCreationDate = new ConcurrentSkipListMap<>();
+
+    ExampleIndexes() {
+        for (ExampleType type : ExampleType.values()) {
+            byType.put(type, new Postings());
+        }
+    }
+
+    /**
+     * Moves an example from the index entries of its previous state to those of its current state.
+     *
+     * @param previous the previous state of the example, or {@code null} if it is being created
+     * @param current  the current state of the example, or {@code null} if it is being removed
+     */
+    void update(ExampleResponse previous, ExampleResponse current) {
+        if (previous != null) {
+            remove(previous);
+        }
+        if (current != null) {
+            add(current);
+        }
+    }
+
+    /**
+     * Produces the IDs of the examples that may match the given filter, in ascending order, starting after the
+     * given ID.
+     * <p>
+     * The smallest posting list among the filter's criteria drives the lookup. A creation date range drives it through
+     * a lazy merge of the posting lists of its dates, so a page only reads the IDs it returns. Candidates are a
+     * superset of the matching examples and must be re-checked with {@link ExampleFilter#matches(ExampleResponse)}.
+     * </p>
+     *
+     * @param filter  a filter with at least one criterion
+     * @param afterId the exclusive lower bound of the returned IDs (can be null to start from the first ID)
+     * @return the candidate IDs
+     */
+    Stream<Long> candidates(ExampleFilter filter, Long afterId) {
+        Postings best = null;
+        if (filter.getType() != null) {
+            best = smaller(best, byType.get(filter.getType()));
+        }
+        if (filter.getActive() != null) {
+            best = smaller(best, filter.getActive() ? activeIds : inactiveIds);
+        }
+        if (filter.getTags() != null) {
+            for (String tag : filter.getTags()) {
+                Postings postings = byTag.get(tag);
+                if (postings == null) {
+                    return Stream.empty();
+                }
+                best = smaller(best, postings);
+            }
+        }
+        if (filter.getCreatedFrom() != null || filter.getCreatedTo() != null) {
+            Collection<Postings> range = creationDateRange(filter.getCreatedFrom(), filter.getCreatedTo()).values();
+            long rangeSize = 0;
+            for (Postings postings : range) {
+                rangeSize += postings.size();
+                if (best != null && rangeSize >= best.size()) {
+                    break;
+                }
+            }
+            if (best == null || rangeSize < best.size()) {
+                return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new MergedIds(range, afterId),
+                        Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+            }
+        }
+        return best == null ? Stream.empty() : best.idsAfter(afterId).stream();
+    }
+
+    /**
+     * Returns the number of distinct tags currently indexed.
+     */
+    long tagCount() {
+        return byTag.mappingCount();
+    }
+
+    /**
+     * Returns the number of distinct creation dates currently indexed; counting them walks the date index.
+     */
+    long creationDateCount() {
+        return byCreationDate.size();
+    }
+
+    private void add(ExampleResponse example) {
+        Long id = example.getId();
+        if (example.getExampleType() != null) {
+            byType.get(example.getExampleType()).add(id);
+        }
+        if (example.getIsActive() != null) {
+            (example.getIsActive() ? activeIds : inactiveIds).add(id);
+        }
+        if (example.getTags() != null) {
+            for (String tag : example.getTags()) {
+                if (tag != null) {
+                    addTo(byTag, tag, id);
+                }
+            }
+        }
+        if (example.getCreationDate() != null) {
+            byCreationDate.computeIfAbsent(example.getCreationDate(), date -> new Postings()).add(id);
+        }
+    }
+
+    private void remove(ExampleResponse example) {
+        Long id = example.getId();
+        if (example.getExampleType() != null) {
+            byType.get(example.getExampleType()).remove(id);
+        }
+        if (example.getIsActive() != null) {
+            (example.getIsActive() ? activeIds : inactiveIds).remove(id);
+        }
+        if (example.getTags() != null) {
+            for (String tag : example.getTags()) {
+                if (tag != null) {
+                    removeFrom(byTag, tag, id);
+                }
+            }
+        }
+        if (example.getCreationDate() != null) {
+            // Empty date buckets are kept: a skip list map cannot atomically drop a bucket that another writer is
+            // adding to, and the number of distinct dates stays small.
+            Postings postings = byCreationDate.get(example.getCreationDate());
+            if (postings != null) {
+                postings.remove(id);
+            }
+        }
+    }
+
+    private NavigableMap<LocalDate, Postings> creationDateRange(LocalDate from, LocalDate to) {
+        if (from == null) {
+            return byCreationDate.headMap(to, true);
+        }
+        if (to == null) {
+            return byCreationDate.tailMap(from, true);
+        }
+        if (from.isAfter(to)) {
+            return new ConcurrentSkipListMap<>();
+        }
+        return byCreationDate.subMap(from, true, to, true);
+    }
+
+    private static Postings smaller(Postings best, Postings candidate) {
+        return best == null || candidate.size() < best.size() ? candidate : best;
+    }
+
+    private static void addTo(ConcurrentHashMap<String, Postings> index, String key, Long id) {
+        index.compute(key, (k, postings) -> {
+            Postings target = postings != null ? postings : new Postings();
+            target.add(id);
+            return target;
+        });
+    }
+
+    private static void removeFrom(ConcurrentHashMap<String, Postings> index, String key, Long id) {
+        index.computeIfPresent(key, (k, postings) -> {
+            postings.remove(id);
+            return postings.size() == 0 ? null : postings;
+        });
+    }
+
+    /**
+     * Merges sorted posting lists into one ascending sequence of distinct IDs.
+     * <p>
+     * A heap holds the next ID of every posting list, so each ID costs a logarithm of the number of lists, and IDs
+     * are only read from the lists as they are consumed. An example moved to another date while the lists are read
+     * can show up in both, which is why equal IDs are only returned once.
+     * </p>
+     */
+    private static final class MergedIds implements Iterator<Long> {
+
+        private final PriorityQueue<Head> heads = new PriorityQueue<>();
+        private Long last;
+
+        MergedIds(Collection<Postings> postings, Long afterId) {
+            for (Postings list : postings) {
+                Iterator<Long> ids = list.idsAfter(afterId).iterator();
+                if (ids.hasNext()) {
+                    heads.add(new Head(ids.next(), ids));
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!heads.isEmpty() && heads.peek().id.equals(last)) {
+                advance();
+            }
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public Long next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = heads.peek().id;
+            advance();
+            return last;
+        }
+
+        private void advance() {
+            Head head = heads.poll();
+            if (head.rest.hasNext()) {
+                heads.add(new Head(head.rest.next(), head.rest));
+            }
+        }
+
+        private record Head(Long id, Iterator<Long> rest) implements Comparable<Head> {
+
+            @Override
+            public int compareTo(Head other) {
+                return id.compareTo(other.id);
+            }
+        }
+    }
+
+    /**
+     * A sorted set of example IDs with a constant-time size.
+     */
+    static final class Postings {
+
+        private final ConcurrentSkipListSet<Long> ids = new ConcurrentSkipListSet<>();
+        private final AtomicInteger size = new AtomicInteger();
+
+        void add(Long id) {
+            if (ids.add(id)) {
+                size.incrementAndGet();
+            }
+        }
+
+        void remove(Long id) {
+            if (ids.remove(id)) {
+                size.decrementAndGet();
+            }
+        }
+
+        int size() {
+            return size.get();
+        }
+
+        NavigableSet<Long> idsAfter(Long afterId) {
+            return afterId == null ? ids : ids.tailSet(afterId, false);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.demo.service.store;
+
+import com.example.demo.infrastructure.persistence.ExampleJournal;
+import com.example.demo.service.ExampleFilter;
+import com.example.demo.service.ExampleGrouping;
+import com.example.demo.web.model.v1.response.AggregateExampleResponse;
+import com.example.demo.web.model.v1.response.ExampleResponse;
+
+import java.util.List;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * Storage the {@link com.example.demo.service.ExampleServiceImpl} keeps its examples in.
+ * <p>
+ * The in-memory {@link ExampleStore} is the default implementation. Other implementations can hold the examples in
+ * slower, larger storage, and be put behind a {@link CachingExampleRepository} so that reads of frequently used
+ * examples still run at memory speed.
+ * </p>
+ * <p>
+ * All writes go through {@link #compute}, which must apply the changes to one ID in the order they are made and run
+ * the remapping function exactly once per change: the service assigns versions and records the change in its
+ * journal from within the function.
+ * </p>
+ */
+public interface ExampleRepository {
+
+    /**
+     * Retrieves an example by ID.
+     *
+     * @param id the ID of the example
+     * @return the stored example, or {@code null} if no example exists with the given ID
+     */
+    ExampleResponse get(Long id);
+
+    /**
+     * Atomically computes the new state of the example with the given ID from its current state.
+     * <p>
+     * Returning {@code null} removes the example, returning the current object leaves it untouched. The function
+     * must not mutate the current object.
+     * </p>
+     *
+     * @param id        the ID of the example
+     * @param remapping a function from the current example (or {@code null} if absent) to its new state
+     * @return the new state of the example, or {@code null} if it is absent afterwards
+     */
+    ExampleResponse compute(Long id, UnaryOperator<ExampleResponse> remapping);
+
+    /**
+     * Streams the examples matching a filter in ascending ID order.
+     *
+     * @param filter the filter criteria (can be null to stream all examples)
+     * @return a lazy stream of the matching examples
+     */
+    default Stream<ExampleResponse> query(ExampleFilter filter) {
+        return query(filter, null);
+    }
+
+    /**
+     * Streams the examples matching a filter in ascending ID order, starting after the given ID.
+     *
+     * @param filter  the filter criteria (can be null to stream all examples)
+     * @param afterId the ID after which the stream starts (can be null to start from the first example)
+     * @return a lazy stream of the matching examples
+     */
+    Stream<ExampleResponse> query(ExampleFilter filter, Long afterId);
+
+    /**
+     * Aggregates the examples matching a filter, if the repository can do so faster than its caller aggregating the
+     * examples of {@link #query}, such as by reading the fields it stores column-wise.
+     *
+     * @param filter   the filter criteria (can be null to aggregate all examples)
+     * @param grouping the criterion by which examples are grouped
+     * @param bucket   the size of the creation date buckets
+     * @return the aggregation, with groups sorted by key, or {@code null} if the caller should aggregate the examples
+     */
+    default AggregateExampleResponse aggregate(ExampleFilter filter, ExampleGrouping grouping,
+                                               ExampleGrouping.DateBucket bucket) {
+        return null;
+    }
+
+    /**
+     * Searches the examples by the words of their name, description and tags.
+     *
+     * @param query the words to search for
+     * @param limit the maximum number of hits to return
+     * @return the hits, best first
+     */
+    List<SearchHit> search(String query, int limit);
+
+    /**
+     * Returns the highest stored ID.
+     *
+     * @return the highest stored ID, or {@code 0} if the repository is empty
+     */
+    long lastId();
+
+    /**
+     * Loads the examples persisted by the journal into the repository, and lets the journal start recording.
+     *
+     * @param journal the journal of the service using the repository
+     * @return {@code true} if persisted examples were found; {@code false} if the journal is empty
+     */
+    boolean recover(ExampleJournal journal);
+}
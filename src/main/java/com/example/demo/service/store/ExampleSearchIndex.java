@@ -0,0 +1,413 @@
+package com.example.demo.service.store;
+
+import com.example.demo.web.model.v1.response.ExampleResponse;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Inverted index over the words of the name, description and tags of the stored examples.
+ * <p>
+ * Text is split into lower-case words of letters and digits. Each word maps to its postings: the IDs of the
+ * examples containing it, grouped by term frequency weighted by field, so that a word in the name counts more than
+ * one in the description. The words are kept sorted, so every word of a query matches all indexed words starting
+ * with it, and scores the best of them. An example matches a query if it matches every query word, and matches are
+ * ranked by TF-IDF.
+ * </p>
+ * <p>
+ * Within a word, IDs are grouped by weight and sorted, so the best matches of a word are found first. A search
+ * walks the postings of its rarest word from the highest weight down and stops as soon as no remaining example can
+ * enter the top hits, which keeps queries on common words as fast as queries on rare ones.
+ * </p>
+ * <p>
+ * Like {@link ExampleIndexes}, the index is updated while the entry being written is locked, so it never disagrees
+ * with the store for longer than a write takes. Writers of different examples share the postings of a word without
+ * a lock: the writer that empties a postings list retires it, after which no example can be added to it, and removes
+ * it from the dictionary. A writer that finds a retired list replaces it with a new one. The dictionary therefore only
+ * holds words of stored examples, and their number is counted as words are added and retired.
+ * </p>
+ */
+final class ExampleSearchIndex {
+
+    static final int NAME_WEIGHT = 3;
+    static final int TAG_WEIGHT = 2;
+    static final int DESCRIPTION_WEIGHT = 1;
+
+    /**
+     * The largest number of indexed words a query word is expanded to; the shortest prefixes would otherwise match
+     * most of the dictionary.
+     */
+    static final int MAX_EXPANSIONS = 64;
+
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Comparator<SearchHit> RANKING = Comparator.comparingDouble(SearchHit::score).reversed()
+            .thenComparingLong(SearchHit::id);
+
+    private final ConcurrentSkipListMap<String, Postings> terms = new ConcurrentSkipListMap<>();
+    private final AtomicLong documents = new AtomicLong();
+    private final AtomicLong termCount = new AtomicLong();
+
+    /**
+     * Moves an example from the postings of its previous words to those of its current words.
+     *
+     * @param previous the previous state of the example (can be null if it was absent)
+     * @param current  the current state of the example (can be null if it was removed)
+     */
+    void update(ExampleResponse previous, ExampleResponse current) {
+        Map<String, Integer> previousTerms = previous == null ? Map.of() : termWeights(previous);
+        Map<String, Integer> currentTerms = current == null ? Map.of() : termWeights(current);
+        if (current != null) {
+            Long id = current.getId();
+            currentTerms.forEach((term, weight) -> {
+                Integer previousWeight = previousTerms.get(term);
+                if (previousWeight == null) {
+                    addPosting(term, id, weight);
+                } else if (!weight.equals(previousWeight)) {
+                    terms.get(term).move(id, previousWeight, weight);
+                }
+            });
+        }
+        if (previous != null) {
+            Long id = previous.getId();
+            previousTerms.forEach((term, weight) -> {
+                if (!currentTerms.containsKey(term)) {
+                    removePosting(term, id, weight);
+                }
+            });
+        }
+        documents.addAndGet((current != null ? 1 : 0) - (previous != null ? 1 : 0));
+    }
+
+    /**
+     * Returns the number of indexed words.
+     */
+    long termCount() {
+        return termCount.get();
+    }
+
+    /**
+     * Finds the best matches of a query from the postings.
+     *
+     * @param query the words to search for
+     * @param limit the maximum number of hits to return
+     * @return the hits, best first
+     */
+    List<SearchHit> search(String query, int limit) {
+        double documentCount = Math.max(1, documents.get());
+        List<List<Map.Entry<String, Postings>>> words = new ArrayList<>();
+        int driver = -1;
+        long driverSize = Long.MAX_VALUE;
+        for (String word : tokenize(query)) {
+            List<Map.Entry<String, Postings>> expansion = expand(word);
+            long size = expansion.stream().mapToLong(entry -> entry.getValue().size()).sum();
+            if (size == 0) {
+                return List.of();
+            }
+            if (size < driverSize) {
+                driver = words.size();
+                driverSize = size;
+            }
+            words.add(expansion);
+        }
+        if (driver < 0) {
+            return List.of();
+        }
+
+        // The best score each word can add; scores and bounds are summed in query order, so equal scores compare equal
+        double[] bestOther = new double[words.size()];
+        for (int i = 0; i < words.size(); i++) {
+            for (Map.Entry<String, Postings> term : words.get(i)) {
+                bestOther[i] = Math.max(bestOther[i], term.getValue().maxWeight() * idf(documentCount, term.getValue()));
+            }
+        }
+
+        // Walk the (word, weight) groups of the driver word from the highest score down
+        List<WeightGroup> groups = new ArrayList<>();
+        for (Map.Entry<String, Postings> term : words.get(driver)) {
+            double idf = idf(documentCount, term.getValue());
+            term.getValue().byWeight.forEach((weight, ids) -> groups.add(new WeightGroup(weight * idf, ids)));
+        }
+        groups.sort(Comparator.comparingDouble(WeightGroup::score).reversed());
+
+        PriorityQueue<SearchHit> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        Set<Long> seen = new HashSet<>();
+        for (WeightGroup group : groups) {
+            double bound = 0;
+            for (int i = 0; i < words.size(); i++) {
+                bound += i == driver ? group.score() : bestOther[i];
+            }
+            if (best.size() == limit && best.peek().score() > bound) {
+                break;
+            }
+            for (Long id : group.ids()) {
+                if (best.size() == limit && !beats(bound, id, best.peek())) {
+                    break; // IDs ascend, so no later example of the group can enter the hits either
+                }
+                if (!seen.add(id)) {
+                    continue; // Already scored through a better matching word
+                }
+                double score = 0;
+                boolean matches = true;
+                for (int i = 0; i < words.size() && matches; i++) {
+                    double wordScore = i == driver ? group.score() : wordScore(words.get(i), id, documentCount);
+                    matches = wordScore > 0;
+                    score += wordScore;
+                }
+                if (matches) {
+                    offer(best, new SearchHit(id, score), limit);
+                }
+            }
+        }
+        return sorted(best);
+    }
+
+    /**
+     * Finds the best matches of a query by scoring the given examples one by one, for when the postings do not
+     * cover every example yet. Word rarity is still taken from the postings.
+     *
+     * @param examples the examples to score
+     * @param query    the words to search for
+     * @param limit    the maximum number of hits to return
+     * @return the hits, best first
+     */
+    List<SearchHit> scan(Stream<ExampleResponse> examples, String query, int limit) {
+        Set<String> words = tokenize(query);
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        double documentCount = Math.max(1, documents.get());
+        PriorityQueue<SearchHit> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        examples.forEach(example -> {
+            Map<String, Integer> exampleTerms = termWeights(example);
+            double score = 0;
+            for (String word : words) {
+                double wordScore = 0;
+                for (Map.Entry<String, Integer> term : exampleTerms.entrySet()) {
+                    if (term.getKey().startsWith(word)) {
+                        Postings postings = terms.get(term.getKey());
+                        wordScore = Math.max(wordScore, term.getValue() * idf(documentCount, postings));
+                    }
+                }
+                if (wordScore == 0) {
+                    return;
+                }
+                score += wordScore;
+            }
+            offer(best, new SearchHit(example.getId(), score), limit);
+        });
+        return sorted(best);
+    }
+
+    /**
+     * Splits text into distinct lower-case words of letters and digits.
+     *
+     * @param text the text to split (can be null)
+     * @return the words, in order of first occurrence
+     */
+    static Set<String> tokenize(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        if (text != null) {
+            for (String word : SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+                if (!word.isEmpty()) {
+                    words.add(word);
+                }
+            }
+        }
+        return words;
+    }
+
+    private void addPosting(String term, Long id, int weight) {
+        while (true) {
+            Postings postings = terms.get(term);
+            if (postings == null) {
+                Postings created = new Postings();
+                postings = terms.putIfAbsent(term, created);
+                if (postings == null) {
+                    termCount.incrementAndGet();
+                    postings = created;
+                }
+            }
+            if (postings.add(id, weight)) {
+                return;
+            }
+            terms.remove(term, postings); // Retired by a concurrent writer, which may not have removed it yet
+        }
+    }
+
+    private void removePosting(String term, Long id, int weight) {
+        Postings postings = terms.get(term);
+        if (postings.remove(id, weight)) {
+            terms.remove(term, postings);
+            termCount.decrementAndGet();
+        }
+    }
+
+    private static Map<String, Integer> termWeights(ExampleResponse example) {
+        Map<String, Integer> weights = new HashMap<>();
+        addTerms(weights, example.getName(), NAME_WEIGHT);
+        addTerms(weights, example.getDescription(), DESCRIPTION_WEIGHT);
+        if (example.getTags() != null) {
+            for (String tag : example.getTags()) {
+                addTerms(weights, tag, TAG_WEIGHT);
+            }
+        }
+        return weights;
+    }
+
+    private static void addTerms(Map<String, Integer> weights, String text, int weight) {
+        if (text == null) {
+            return;
+        }
+        for (String word : SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                weights.merge(word, weight, Integer::sum);
+            }
+        }
+    }
+
+    private List<Map.Entry<String, Postings>> expand(String word) {
+        List<Map.Entry<String, Postings>> expansion = new ArrayList<>();
+        for (Map.Entry<String, Postings> term : terms.subMap(word, true, word + Character.MAX_VALUE, false).entrySet()) {
+            if (term.getValue().size() > 0) {
+                expansion.add(term);
+                if (expansion.size() == MAX_EXPANSIONS) {
+                    break;
+                }
+            }
+        }
+        return expansion;
+    }
+
+    /**
+     * Scores an example for one query word: the best score among the indexed words the query word expands to.
+     */
+    private static double wordScore(List<Map.Entry<String, Postings>> expansion, Long id, double documentCount) {
+        double score = 0;
+        for (Map.Entry<String, Postings> term : expansion) {
+            int weight = term.getValue().weightOf(id);
+            if (weight > 0) {
+                score = Math.max(score, weight * idf(documentCount, term.getValue()));
+            }
+        }
+        return score;
+    }
+
+    private static double idf(double documentCount, Postings postings) {
+        return Math.log(1 + documentCount / Math.max(1, postings == null ? 1 : postings.size()));
+    }
+
+    /**
+     * Checks whether an example with the given score bound and ID could still rank above the worst kept hit.
+     */
+    private static boolean beats(double bound, long id, SearchHit worst) {
+        return bound > worst.score() || (bound == worst.score() && id < worst.id());
+    }
+
+    private static void offer(PriorityQueue<SearchHit> best, SearchHit hit, int limit) {
+        best.offer(hit);
+        if (best.size() > limit) {
+            best.poll();
+        }
+    }
+
+    private static List<SearchHit> sorted(PriorityQueue<SearchHit> best) {
+        List<SearchHit> hits = new ArrayList<>(best);
+        hits.sort(RANKING);
+        return hits;
+    }
+
+    /**
+     * The IDs of the examples sharing a weight for the word being walked, with the score that weight gives.
+     */
+    private record WeightGroup(double score, Set<Long> ids) {
+    }
+
+    /**
+     * The examples containing one word, grouped by descending weight and sorted by ID within a weight.
+     * <p>
+     * The size is reserved before an example is added and released after it is removed, so a list whose size drops
+     * to zero holds no example and none is being added. Its size is then set to {@link #RETIRED}, which refuses any
+     * further addition.
+     * </p>
+     */
+    private static final class Postings {
+
+        private static final int RETIRED = -1;
+
+        private final ConcurrentSkipListMap<Integer, ConcurrentSkipListSet<Long>> byWeight =
+                new ConcurrentSkipListMap<>(Comparator.reverseOrder());
+        private final AtomicInteger size = new AtomicInteger();
+
+        /**
+         * Adds an example that did not contain the word.
+         *
+         * @return {@code false} if the list is retired and the example was not added
+         */
+        boolean add(Long id, int weight) {
+            int current;
+            do {
+                current = size.get();
+                if (current == RETIRED) {
+                    return false;
+                }
+            } while (!size.compareAndSet(current, current + 1));
+            byWeight.computeIfAbsent(weight, key -> new ConcurrentSkipListSet<>()).add(id);
+            return true;
+        }
+
+        /**
+         * Moves an example that still contains the word to another weight.
+         */
+        void move(Long id, int from, int to) {
+            byWeight.computeIfAbsent(to, weight -> new ConcurrentSkipListSet<>()).add(id);
+            byWeight.get(from).remove(id);
+        }
+
+        /**
+         * Removes an example that no longer contains the word.
+         *
+         * @return {@code true} if the list became empty and is now retired
+         */
+        boolean remove(Long id, int weight) {
+            byWeight.get(weight).remove(id);
+            return size.decrementAndGet() == 0 && size.compareAndSet(0, RETIRED);
+        }
+
+        int size() {
+            return Math.max(0, size.get());
+        }
+
+        int maxWeight() {
+            for (Map.Entry<Integer, ConcurrentSkipListSet<Long>> group : byWeight.entrySet()) {
+                if (!group.getValue().isEmpty()) {
+                    return group.getKey();
+                }
+            }
+            return 0;
+        }
+
+        int weightOf(Long id) {
+            for (Map.Entry<Integer, ConcurrentSkipListSet<Long>> group : byWeight.entrySet()) {
+                if (group.getValue().contains(id)) {
+                    return group.getKey();
+                }
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,552 @@
+package com.example.demo.service.store;
+
+import com.example.demo.infrastructure.persistence.ExampleJournal;
+import com.example.demo.service.ExampleFilter;
+import com.example.demo.service.ExampleGrouping;
+import com.example.demo.web.model.v1.response.AggregateExampleResponse;
+import com.example.demo.web.model.v1.response.ExampleResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Thread-safe in-memory storage engine for example resources.
+ * <p>
+ * Examples are kept in an {@link ExampleTable} keyed by ID, which gives constant-time lookups and lock-free
+ * reads. Writers only lock the ID they touch, so concurrent writers on different IDs never contend on a single
+ * global lock. A {@link ConcurrentSkipListSet} of IDs is maintained next to the table so that listings are returned
+ * in ascending ID order without sorting.
+ * </p>
+ * <p>
+ * The table holds either one object per example, or, with {@code example.store.layout=columnar}, primitive
+ * columns from which objects are only built when examples are read (see {@link Layout}).
+ * </p>
+ * <p>
+ * Secondary indexes on example type, active flag, tags and creation date are maintained on every write, while the
+ * entry being written is locked, so filtered queries are answered from the indexes instead of a full scan. An
+ * inverted index over the words of the name, description and tags is maintained the same way for full-text search.
+ * </p>
+ * <p>
+ * Entries are only locked for in-memory work and never across blocking I/O. On JDK 21 the lock of an entry is the
+ * monitor of a {@link ConcurrentHashMap} bin, though, and a few short {@link java.util.concurrent.locks.ReentrantLock
+ * locks} are taken while it is held: queueing the change for the journal, allocating a columnar slot and adding a tag
+ * to the columnar tag dictionary. A virtual thread finding one of them contended stays pinned to its carrier thread
+ * until it is released, which takes a few memory writes.
+ * </p>
+ * <p>
+ * The store can also be started on top of a {@link LazyExampleSource}, such as a memory-mapped snapshot, with
+ * {@link #attach}. The source serves reads right away, decoding examples on access, while a background thread loads
+ * it into memory. Until it is done, writes load the example they touch first, deletions of examples not loaded yet
+ * are remembered as tombstones, and filtered queries fall back to a scan.
+ * </p>
+ * <p>
+ * The store is the default {@link ExampleRepository}, holding every example in memory.
+ * </p>
+ */
+@Slf4j
+public class ExampleStore implements ExampleRepository {
+
+    private final ExampleTable examples;
+    private final ConcurrentSkipListSet<Long> ids = new ConcurrentSkipListSet<>();
+    private final ExampleIndexes indexes = new ExampleIndexes();
+    private final ExampleSearchIndex searchIndex = new ExampleSearchIndex();
+    private final LongAdder writes = new LongAdder();
+    private final LongAdder lockWaitNanos = new LongAdder();
+
+    private volatile BaseLayer base;
+    private volatile CompletableFuture<Void> hydration = CompletableFuture.completedFuture(null);
+
+    /**
+     * Creates a store holding each example as an object.
+     */
+    public ExampleStore() {
+        this(Layout.OBJECT);
+    }
+
+    /**
+     * Creates a store with the given memory layout.
+     *
+     * @param layout the memory layout of the stored examples
+     */
+    public ExampleStore(Layout layout) {
+        this.examples = layout == Layout.COLUMNAR ? new ColumnarExampleTable() : new ObjectExampleTable();
+    }
+
+    /**
+     * Retrieves an example by ID.
+     *
+     * @param id the ID of the example
+     * @return the stored example, or {@code null} if no example exists with the given ID
+     */
+    @Override
+    public ExampleResponse get(Long id) {
+        BaseLayer layer = base;
+        ExampleResponse example = examples.get(id);
+        if (example != null || layer == null) {
+            return example;
+        }
+        ExampleResponse decoded = layer.find(id);
+        if (decoded == null) {
+            return null;
+        }
+        // The example may have been loaded, and then written, while it was being decoded
+        ExampleResponse stored = examples.get(id);
+        return stored != null || base != layer || layer.tombstones.contains(id) ? stored : decoded;
+    }
+
+    /**
+     * Starts serving the examples of the given source and loads them into memory in the background.
+     * <p>
+     * Examples already stored, or written while the source is being loaded, take precedence over the ones of the
+     * source.
+     * </p>
+     *
+     * @param source the examples to serve, sorted by ID
+     * @return a future completed once every example of the source is loaded
+     * @throws IllegalStateException if another source is still being loaded
+     */
+    public synchronized CompletableFuture<Void> attach(LazyExampleSource source) {
+        if (base != null) {
+            throw new IllegalStateException("Another example source is still being loaded");
+        }
+        BaseLayer layer = new BaseLayer(source);
+        CompletableFuture<Void> loaded = new CompletableFuture<>();
+        hydration = loaded;
+        base = layer;
+        Thread.ofPlatform().name("example-store-hydrator").daemon().start(() -> hydrate(layer, loaded));
+        return loaded;
+    }
+
+    /**
+     * Returns a future completed once the examples of the attached source, if any, are loaded into memory.
+     *
+     * @return the loading future; already completed if no source is being loaded
+     */
+    public CompletableFuture<Void> hydration() {
+        return hydration;
+    }
+
+    /**
+     * Inserts or replaces an example, keyed by its ID.
+     *
+     * @param example the example to store; its ID must not be {@code null}
+     */
+    public void put(ExampleResponse example) {
+        Objects.requireNonNull(example.getId(), "Example ID must not be null");
+        compute(example.getId(), previous -> example);
+    }
+
+    /**
+     * Atomically replaces an existing example with a modified version.
+     * <p>
+     * The modifier runs while the entry is locked, so concurrent writers on the same ID are serialized. It must
+     * return a new object rather than mutate the stored one, so that the indexes can tell which values changed.
+     * </p>
+     *
+     * @param id       the ID of the example to modify
+     * @param modifier a function producing the replacement from the stored example
+     * @return the modified example, or {@code null} if no example exists with the given ID
+     */
+    public ExampleResponse update(Long id, UnaryOperator<ExampleResponse> modifier) {
+        return compute(id, example -> example == null ? null : modifier.apply(example));
+    }
+
+    /**
+     * Removes an example by ID.
+     *
+     * @param id the ID of the example to remove
+     * @return the removed example, or {@code null} if no example exists with the given ID
+     */
+    public ExampleResponse remove(Long id) {
+        ExampleResponse[] removed = new ExampleResponse[1];
+        compute(id, example -> {
+            removed[0] = example;
+            return null;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Atomically computes the new state of the example with the given ID from its current state.
+     * <p>
+     * This is the primitive all writes go through. The remapping function runs while the entry is locked, so
+     * concurrent writers on the same ID are serialized and anything the function records, such as a journal entry,
+     * is ordered the same way as the writes themselves. Returning {@code null} removes the example, returning the
+     * current object leaves it untouched. The function must not mutate the current object, and must not block.
+     * </p>
+     *
+     * @param id        the ID of the example
+     * @param remapping a function from the current example (or {@code null} if absent) to its new state
+     * @return the new state of the example, or {@code null} if it is absent afterwards
+     */
+    @Override
+    public ExampleResponse compute(Long id, UnaryOperator<ExampleResponse> remapping) {
+        long start = System.nanoTime();
+        return examples.compute(id, (key, stored) -> {
+            writes.increment();
+            lockWaitNanos.add(System.nanoTime() - start);
+            BaseLayer layer = base;
+            ExampleResponse current = stored;
+            if (current == null && layer != null && (current = layer.find(key)) != null) {
+                load(layer, key, current);
+            }
+            ExampleResponse next = remapping.apply(current);
+            if (next != current) {
+                if (next != null) {
+                    ids.add(key);
+                } else {
+                    ids.remove(key);
+                    if (layer != null) {
+                        layer.tombstones.add(key);
+                    }
+                }
+                indexes.update(current, next);
+                searchIndex.update(current, next);
+            }
+            return next;
+        });
+    }
+
+    /**
+     * Streams all stored examples in ascending ID order.
+     * <p>
+     * The stream is weakly consistent: it never fails because of concurrent modifications, and it reflects the
+     * state of each example at the time it is reached.
+     * </p>
+     *
+     * @return a stream of stored examples
+     */
+    public Stream<ExampleResponse> stream() {
+        return stream(null);
+    }
+
+    /**
+     * Streams the stored examples with an ID greater than the given one, in ascending ID order.
+     *
+     * @param afterId the exclusive lower bound of the returned IDs (can be null to start from the first example)
+     * @return a stream of stored examples
+     */
+    public Stream<ExampleResponse> stream(Long afterId) {
+        Set<Long> storedIds = afterId == null ? ids : ids.tailSet(afterId, false);
+        BaseLayer layer = base;
+        if (layer == null) {
+            return storedIds.stream()
+                    .map(examples::get)
+                    .filter(Objects::nonNull);
+        }
+        long first = 0;
+        if (afterId != null) {
+            long position = layer.source.indexOf(afterId);
+            first = position < 0 ? -position - 1 : position + 1;
+        }
+        Iterator<Long> merged = new MergedIds(storedIds.iterator(), layer.source, first);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged,
+                        Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false)
+                .map(this::get)
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     * Streams the stored examples matching the given filter, in ascending ID order.
+     * <p>
+     * Filtered queries start from the smallest matching secondary index and only look up the candidates it
+     * contains; an empty filter streams all examples.
+     * </p>
+     *
+     * @param filter the filter criteria (can be null to stream all examples)
+     * @return a stream of matching examples
+     */
+    @Override
+    public Stream<ExampleResponse> query(ExampleFilter filter) {
+        return query(filter, null);
+    }
+
+    /**
+     * Streams the stored examples matching the given filter with an ID greater than the given one, in ascending ID
+     * order.
+     * <p>
+     * Together with a limit on the consumed elements this implements keyset pagination: the last ID of a page is the
+     * cursor of the next one, and every page costs the same regardless of its position.
+     * </p>
+     *
+     * @param filter  the filter criteria (can be null to stream all examples)
+     * @param afterId the exclusive lower bound of the returned IDs (can be null to start from the first example)
+     * @return a stream of matching examples
+     */
+    @Override
+    public Stream<ExampleResponse> query(ExampleFilter filter, Long afterId) {
+        if (filter == null || filter.isEmpty()) {
+            return stream(afterId);
+        }
+        if (base != null) {
+            // The indexes only cover the examples loaded so far
+            return stream(afterId).filter(filter::matches);
+        }
+        return indexes.candidates(filter, afterId)
+                .map(examples::get)
+                .filter(example -> example != null && filter.matches(example));
+    }
+
+    /**
+     * Aggregates the examples matching a filter from the columns of the columnar layout, without building an object
+     * per example.
+     *
+     * @param filter   the filter criteria (can be null to aggregate all examples)
+     * @param grouping the criterion by which examples are grouped
+     * @param bucket   the size of the creation date buckets
+     * @return the aggregation, or {@code null} with the object layout, or while an attached source is being loaded
+     */
+    @Override
+    public AggregateExampleResponse aggregate(ExampleFilter filter, ExampleGrouping grouping,
+                                              ExampleGrouping.DateBucket bucket) {
+        // The table only holds the examples loaded so far
+        return base == null ? examples.aggregate(filter, grouping, bucket) : null;
+    }
+
+    /**
+     * Searches the examples whose name, description or tags contain every word of the query, or a word starting
+     * with it.
+     * <p>
+     * Matches are ranked by TF-IDF, with words in the name weighing more than in tags, and in tags more than in the
+     * description. Only the best {@code limit} matches are kept while scoring.
+     * </p>
+     *
+     * @param query the words to search for
+     * @param limit the maximum number of hits to return
+     * @return the hits, best first
+     */
+    @Override
+    public List<SearchHit> search(String query, int limit) {
+        if (base != null) {
+            // The inverted index only covers the examples loaded so far
+            try (Stream<ExampleResponse> examples = stream()) {
+                return searchIndex.scan(examples, query, limit);
+            }
+        }
+        return searchIndex.search(query, limit);
+    }
+
+    /**
+     * Recovers the examples persisted by the journal into this store, which also becomes the source of its
+     * snapshots.
+     *
+     * @param journal the journal of the service using the store
+     * @return {@code true} if persisted examples were found; {@code false} if the journal is empty
+     */
+    @Override
+    public boolean recover(ExampleJournal journal) {
+        return journal.recover(this);
+    }
+
+    /**
+     * Returns the highest stored ID.
+     *
+     * @return the highest stored ID, or {@code 0} if the store is empty
+     */
+    @Override
+    public long lastId() {
+        long lastId;
+        try {
+            lastId = ids.last();
+        } catch (NoSuchElementException e) {
+            lastId = 0;
+        }
+        BaseLayer layer = base;
+        if (layer != null && layer.source.size() > 0) {
+            lastId = Math.max(lastId, layer.source.idAt(layer.source.size() - 1));
+        }
+        return lastId;
+    }
+
+    /**
+     * Returns the number of writes made through {@link #compute}, including the ones that left the example
+     * unchanged.
+     *
+     * @return the number of writes
+     */
+    long writes() {
+        return writes.sum();
+    }
+
+    /**
+     * Returns the total time writers spent waiting for the entry they write, in nanoseconds.
+     *
+     * @return the total lock wait time
+     */
+    long lockWaitNanos() {
+        return lockWaitNanos.sum();
+    }
+
+    /**
+     * Returns the number of distinct tags in the tag index.
+     *
+     * @return the number of indexed tags
+     */
+    long indexedTags() {
+        return indexes.tagCount();
+    }
+
+    /**
+     * Returns the number of distinct creation dates in the creation date index.
+     *
+     * @return the number of indexed creation dates
+     */
+    long indexedCreationDates() {
+        return indexes.creationDateCount();
+    }
+
+    /**
+     * Returns the number of distinct words in the full-text index.
+     *
+     * @return the number of indexed words
+     */
+    long indexedWords() {
+        return searchIndex.termCount();
+    }
+
+    /**
+     * Returns the number of stored examples, including the ones of an attached source not loaded yet.
+     *
+     * @return the number of stored examples
+     */
+    public long size() {
+        BaseLayer layer = base;
+        return examples.size() + (layer == null ? 0 : layer.pending.get());
+    }
+
+    private void hydrate(BaseLayer layer, CompletableFuture<Void> loaded) {
+        try {
+            LazyExampleSource source = layer.source;
+            for (long index = 0, size = source.size(); index < size; index++) {
+                long position = index;
+                Long id = source.idAt(position);
+                if (!examples.contains(id) && !layer.tombstones.contains(id)) {
+                    examples.compute(id, (key, stored) -> {
+                        if (stored != null || layer.tombstones.contains(key)) {
+                            return stored;
+                        }
+                        ExampleResponse example = source.exampleAt(position);
+                        load(layer, key, example);
+                        return example;
+                    });
+                }
+            }
+            base = null;
+            loaded.complete(null);
+        } catch (RuntimeException e) {
+            log.error("Failed to load the example source; examples not loaded yet are decoded on access", e);
+            loaded.completeExceptionally(e);
+        }
+    }
+
+    private void load(BaseLayer layer, Long id, ExampleResponse example) {
+        ids.add(id);
+        indexes.update(null, example);
+        searchIndex.update(null, example);
+        layer.pending.decrementAndGet();
+    }
+
+    /**
+     * Memory layout of the stored examples.
+     */
+    public enum Layout {
+
+        /**
+         * Each example is kept as an {@link ExampleResponse} object; reads return it without copying.
+         */
+        OBJECT,
+
+        /**
+         * Examples are kept column-wise in primitive arrays, with dictionary-encoded tags; reads build a new
+         * {@link ExampleResponse}. Uses less heap than {@link #OBJECT} for large stores, and aggregations read the
+         * columns directly.
+         */
+        COLUMNAR
+    }
+
+    /**
+     * An attached source being loaded, with the IDs deleted while it is. Tombstones are never cleared, so a writer
+     * still holding a layer after loading finished sees a consistent view.
+     */
+    private static final class BaseLayer {
+
+        private final LazyExampleSource source;
+        private final Set<Long> tombstones = ConcurrentHashMap.newKeySet();
+        private final AtomicLong pending;
+
+        private BaseLayer(LazyExampleSource source) {
+            this.source = source;
+            this.pending = new AtomicLong(source.size());
+        }
+
+        ExampleResponse find(Long id) {
+            if (tombstones.contains(id)) {
+                return null;
+            }
+            long index = source.indexOf(id);
+            return index < 0 ? null : source.exampleAt(index);
+        }
+    }
+
+    /**
+     * Merges the stored IDs with the IDs of a source, both ascending, into one ascending sequence without duplicates.
+     */
+    private static final class MergedIds implements Iterator<Long> {
+
+        private final Iterator<Long> stored;
+        private final LazyExampleSource source;
+        private long position;
+        private Long nextStored;
+
+        private MergedIds(Iterator<Long> stored, LazyExampleSource source, long position) {
+            this.stored = stored;
+            this.source = source;
+            this.position = position;
+            this.nextStored = stored.hasNext() ? stored.next() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextStored != null || position < source.size();
+        }
+
+        @Override
+        public Long next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (position >= source.size()) {
+                return advanceStored();
+            }
+            long sourceId = source.idAt(position);
+            if (nextStored == null || sourceId < nextStored) {
+                position++;
+                return sourceId;
+            }
+            if (sourceId == nextStored) {
+                position++;
+            }
+            return advanceStored();
+        }
+
+        private Long advanceStored() {
+            Long id = nextStored;
+            nextStored = stored.hasNext() ? stored.next() : null;
+            return id;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.demo.service.store;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Publishes the size, index sizes and write lock contention of the {@link ExampleStore stores} as metrics.
+ * <p>
+ * With several stores, such as one per shard, every metric is the sum over all of them.
+ * </p>
+ * <p>
+ * Everything is read from the store when the metrics are collected, so writers only pay for two clock reads and
+ * two {@link java.util.concurrent.atomic.LongAdder} updates. Lock contention is reported as a function timer over
+ * the time writers waited for the entry they write: its mean is the average wait per write.
+ * </p>
+ */
+@RequiredArgsConstructor
+public class ExampleStoreMetrics implements MeterBinder {
+
+    private final List<ExampleStore> stores;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("example.store.size", stores, s -> sum(s, ExampleStore::size))
+                .description("Number of stored examples")
+                .register(registry);
+        Gauge.builder("example.store.index.size", stores, s -> sum(s, ExampleStore::indexedTags))
+                .description("Number of distinct keys of a store index")
+                .tag("index", "tag")
+                .register(registry);
+        Gauge.builder("example.store.index.size", stores, s -> sum(s, ExampleStore::indexedCreationDates))
+                .description("Number of distinct keys of a store index")
+                .tag("index", "creationDate")
+                .register(registry);
+        Gauge.builder("example.store.index.size", stores, s -> sum(s, ExampleStore::indexedWords))
+                .description("Number of distinct keys of a store index")
+                .tag("index", "search")
+                .register(registry);
+        FunctionCounter.builder("example.store.writes", stores, s -> sum(s, ExampleStore::writes))
+                .description("Number of writes to the store")
+                .register(registry);
+        FunctionTimer.builder("example.store.lock.wait", stores, s -> sum(s, ExampleStore::writes),
+                        s -> sum(s, ExampleStore::lockWaitNanos),
+                        TimeUnit.NANOSECONDS)
+                .description("Time writers waited for the entry they write")
+                .register(registry);
+    }
+
+    private static long sum(List<ExampleStore> stores, ToLongFunction<ExampleStore> metric) {
+        long sum = 0;
+        for (ExampleStore store : stores) {
+            sum += metric.applyAsLong(store);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.service.store;
+
+import com.example.demo.service.ExampleFilter;
+import com.example.demo.service.ExampleGrouping;
+import com.example.demo.web.model.v1.response.AggregateExampleResponse;
+import com.example.demo.web.model.v1.response.ExampleResponse;
+
+import java.util.function.BiFunction;
+
+/**
+ * Primary storage of an {@link ExampleStore}: examples keyed by ID, with atomic per-ID updates.
+ * <p>
+ * Implementations decide how examples are laid out in memory; the store builds its ordering and secondary indexes
+ * on top of them.
+ * </p>
+ */
+interface ExampleTable {
+
+    /**
+     * Retrieves an example by ID.
+     *
+     * @param id the ID of the example
+     * @return the example, or {@code null} if absent
+     */
+    ExampleResponse get(Long id);
+
+    /**
+     * Checks whether an example is stored under the given ID.
+     *
+     * @param id the ID of the example
+     * @return {@code true} if the example is present
+     */
+    boolean contains(Long id);
+
+    /**
+     * Atomically replaces the example stored under the given ID by the result of the remapping function.
+     * <p>
+     * The function runs while the ID is locked and must not block. Returning the stored object leaves the entry
+     * untouched, returning {@code null} removes it.
+     * </p>
+     *
+     * @param id        the ID of the example
+     * @param remapping a function from the ID and the stored example (or {@code null}) to its new state
+     * @return the new state of the example, or {@code null} if it is absent afterwards
+     */
+    ExampleResponse compute(Long id, BiFunction<Long, ExampleResponse, ExampleResponse> remapping);
+
+    /**
+     * Returns the number of stored examples.
+     *
+     * @return the number of stored examples
+     */
+    long size();
+
+    /**
+     * Aggregates the examples matching a filter straight from the stored fields, without building an
+     * {@link ExampleResponse} per example.
+     *
+     * @param filter   the filter criteria (can be null to aggregate all examples)
+     * @param grouping the criterion by which examples are grouped
+     * @param bucket   the size of the creation date buckets
+     * @return the aggregation, or {@code null} if the table has no faster way than aggregating the examples one by one
+     */
+    default AggregateExampleResponse aggregate(ExampleFilter filter, ExampleGrouping grouping,
+                                               ExampleGrouping.DateBucket bucket) {
+        return null;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.demo.service.store;
+
+import com.example.demo.web.model.v1.response.ExampleResponse;
+
+/**
+ * Read-only source of examples sorted by ID, decoding each example only when it is accessed.
+ * <p>
+ * An {@link ExampleStore} can be started on top of such a source, typically a memory-mapped snapshot, and serve
+ * requests from it right away while the examples are loaded into memory in the background.
+ * </p>
+ */
+public interface LazyExampleSource {
+
+    /**
+     * Returns the number of examples in the source.
+     *
+     * @return the number of examples
+     */
+    long size();
+
+    /**
+     * Returns the ID of the example at the given position, without decoding the example.
+     *
+     * @param index the position of the example, between 0 and {@link #size()} (exclusive)
+     * @return the ID of the example; IDs increase with the position
+     */
+    long idAt(long index);
+
+    /**
+     * Decodes the example at the given position.
+     *
+     * @param index the position of the example, between 0 and {@link #size()} (exclusive)
+     * @return a newly decoded example
+     */
+    ExampleResponse exampleAt(long index);
+
+    /**
+     * Finds the position of an ID with a binary search.
+     *
+     * @param id the ID to look for
+     * @return the position of the ID if present; otherwise {@code -(insertion point) - 1}
+     */
+    default long indexOf(long id) {
+        long low = 0;
+        long high = size() - 1;
+        while (low <= high) {
+            long middle = (low + high) >>> 1;
+            long middleId = idAt(middle);
+            if (middleId < id) {
+                low = middle + 1;
+            } else if (middleId > id) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+}
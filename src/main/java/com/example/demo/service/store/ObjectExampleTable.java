@@ -0,0 +1,38 @@
+package com.example.demo.service.store;
+
+import com.example.demo.web.model.v1.response.ExampleResponse;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * {@link ExampleTable} holding every example as an {@link ExampleResponse} object in a {@link ConcurrentHashMap}.
+ * <p>
+ * Reads return the stored objects themselves, without copying, which makes this the fastest layout for lookups at
+ * the cost of the per-object overhead of the boxed fields of each example.
+ * </p>
+ */
+final class ObjectExampleTable implements ExampleTable {
+
+    private final ConcurrentHashMap<Long, ExampleResponse> examples = new ConcurrentHashMap<>();
+
+    @Override
+    public ExampleResponse get(Long id) {
+        return examples.get(id);
+    }
+
+    @Override
+    public boolean contains(Long id) {
+        return examples.containsKey(id);
+    }
+
+    @Override
+    public ExampleResponse compute(Long id, BiFunction<Long, ExampleResponse, ExampleResponse> remapping) {
+        return examples.compute(id, remapping);
+    }
+
+    @Override
+    public long size() {
+        return examples.mappingCount();
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.demo.service.store;
+
+/**
+ * A full-text search match.
+ *
+ * @param id    the ID of the matching example
+ * @param score the relevance of the example to the query; higher is better
+ */
+public record SearchHit(long id, double score) {
+}
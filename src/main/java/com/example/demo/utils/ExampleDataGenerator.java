@@ -15,6 +15,10 @@ import java.util.List;
  * This utility provides static methods to generate mock data for testing and demonstration purposes. The generated
  * data includes a variety of fields, demonstrating different data types, validation constraints, and default values.
  * </p>
+ * <p>
+ * The values are simple and predictable, which suits small demonstration data sets. Large data sets with realistic
+ * distributions are produced by the {@link SyntheticExampleGenerator}.
+ * </p>
  */
 @UtilityClass
 public class ExampleDataGenerator {
@@ -26,7 +30,9 @@ public class ExampleDataGenerator {
      * @return a list of ExampleRequest objects
      */
     public static List<ExampleResponse> generateExampleRequests(int count) {
-        List<ExampleResponse> responses = new ArrayList<>();
+        List<ExampleResponse> responses = new ArrayList<>(count);
+        LocalDate today = LocalDate.now();
+        ExampleType[] types = ExampleType.values();
         for (int i = 1; i <= count; i++) {
             responses.add(new ExampleResponse(
                     (long) i,
@@ -35,9 +41,9 @@ public class ExampleDataGenerator {
                     20 + i, // Age
                     100.0 + i * 10, // Price
                     i % 2 == 0, // isActive: true for even IDs
-                    LocalDate.now().minusDays(i), // creationDate: current date minus i days
+                    today.minusDays(i), // creationDate: current date minus i days
                     new String[]{"tag" + i, "tag" + (i + 1)}, // Tags
-                    ExampleType.values()[i % ExampleType.values().length] // Rotating ExampleType
+                    types[i % types.length] // Rotating ExampleType
             ));
         }
         return responses;
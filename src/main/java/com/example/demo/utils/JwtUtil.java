@@ -1,16 +1,32 @@
 package com.example.demo.utils;
 
+import com.example.demo.infrastructure.security.TokenStore;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Scheduler;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
 
 import static com.example.demo.domain.Constants.SECRET_KEY;
-import static com.example.demo.domain.Constants.VALID_TOKENS;
+import static com.example.demo.domain.Constants.TOKEN_VALIDITY;
 
 /**
  * Utility class for generating and validating JWT tokens.
@@ -20,24 +36,97 @@ import static com.example.demo.domain.Constants.VALID_TOKENS;
  * and a shared secret key defined in the application's constants.
  * </p>
  * <p>
- * Tokens are also tracked in an in-memory list to manage their validity state.
+ * Tokens are also tracked in an expiring in-memory {@link TokenStore} to manage their validity state.
+ * </p>
+ * <p>
+ * Token verification uses a single prebuilt, thread-safe parser. The claims of verified tokens are kept in a
+ * size-bounded cache until the token expires, so repeated requests with the same token skip signature
+ * verification entirely.
+ * </p>
+ * <p>
+ * The outcome of every validation and the statistics of the claims cache are published as metrics.
  * </p>
  */
 @Component
-public class JwtUtil {
+public class JwtUtil implements MeterBinder {
+
+    private final TokenStore tokenStore;
 
     /**
      * The cryptographic key used for signing JWT tokens.
      */
     private final Key key = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
 
+    /**
+     * The parser used to verify tokens, built once since it is immutable and thread-safe.
+     */
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(key).build();
+
+    /**
+     * The claims of verified tokens, each entry expiring together with its token.
+     */
+    private final Cache<String, Claims> verifiedClaims;
+
+    /**
+     * Validation outcomes: tokens that were not issued by this application, tokens served from the claims cache,
+     * and tokens that were verified or rejected by the parser.
+     */
+    private final LongAdder unknownTokens = new LongAdder();
+    private final LongAdder cachedTokens = new LongAdder();
+    private final LongAdder verifiedTokens = new LongAdder();
+    private final LongAdder rejectedTokens = new LongAdder();
+
+    /**
+     * Creates the JWT utility.
+     *
+     * @param tokenStore         the registry of issued tokens
+     * @param claimsCacheMaxSize the maximum number of verified tokens whose claims are cached
+     */
+    @Autowired
+    public JwtUtil(TokenStore tokenStore,
+                   @Value("${security.claims-cache.maximum-size:100000}") long claimsCacheMaxSize) {
+        this(tokenStore, claimsCacheMaxSize, System::nanoTime);
+    }
+
+    /**
+     * Creates the JWT utility, measuring how long claims stay cached with the given clock.
+     *
+     * @param tokenStore         the registry of issued tokens
+     * @param claimsCacheMaxSize the maximum number of verified tokens whose claims are cached
+     * @param clock              the source of the current time in nanoseconds
+     */
+    JwtUtil(TokenStore tokenStore, long claimsCacheMaxSize, LongSupplier clock) {
+        this.tokenStore = tokenStore;
+        this.verifiedClaims = Caffeine.newBuilder()
+                .ticker(clock::getAsLong)
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new TokenExpiry())
+                .scheduler(Scheduler.systemScheduler())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Registers the validation outcome counters and the claims cache metrics.
+     *
+     * @param registry the registry to register the metrics in
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        validationCounter(registry, "unknown", unknownTokens);
+        validationCounter(registry, "cached", cachedTokens);
+        validationCounter(registry, "verified", verifiedTokens);
+        validationCounter(registry, "rejected", rejectedTokens);
+        CaffeineCacheMetrics.monitor(registry, verifiedClaims, "jwt.claims");
+    }
+
     /**
      * Generates a JWT token for the given username.
      * <p>
      * The token includes the username as the subject, a role claim with "ROLE_USER",
      * an issued timestamp, and an expiration time of 30 minutes from generation.
      * </p>
-     * The generated token is also added to the in-memory {@code VALID_TOKENS} list.
+     * The generated token is also registered in the {@link TokenStore}.
      *
      * @param username the username to be included in the token's subject claim.
      * @return the generated JWT token as a {@code String}.
@@ -47,18 +136,50 @@ public class JwtUtil {
                 .setSubject(username)
                 .claim("roles", "ROLE_USER") // Add user roles to token claims
                 .setIssuedAt(new Date()) // Set the issued timestamp
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 30)) // Set expiration to 30 minutes
+                .setExpiration(new Date(System.currentTimeMillis() + TOKEN_VALIDITY.toMillis())) // Set expiration to 30 minutes
                 .signWith(key, SignatureAlgorithm.HS256) // Sign token with HMAC-SHA256
                 .compact();
 
-        VALID_TOKENS.add(token); // Track token in the in-memory list
+        tokenStore.add(token); // Track token in the in-memory token store
         return token;
     }
 
+    /**
+     * Validates a JWT token and returns its claims.
+     * <p>
+     * This method checks whether the token is registered in the {@link TokenStore}, then returns its cached claims
+     * if the token was verified before. Otherwise the signature and expiration are verified once and the claims are
+     * cached until the token expires.
+     * </p>
+     *
+     * @param token the JWT token to validate.
+     * @return the verified claims of the token, or {@code null} if the token is invalid.
+     */
+    public Claims validateToken(String token) {
+        if (!tokenStore.contains(token)) {
+            unknownTokens.increment();
+            return null; // Token is not in the token store
+        }
+        Claims claims = verifiedClaims.getIfPresent(token);
+        if (claims != null) {
+            cachedTokens.increment();
+            return claims;
+        }
+        try {
+            claims = parser.parseClaimsJws(token).getBody(); // Verify token
+        } catch (JwtException | IllegalArgumentException e) {
+            rejectedTokens.increment();
+            return null; // Any parsing failure indicates an invalid token
+        }
+        verifiedTokens.increment();
+        verifiedClaims.put(token, claims);
+        return claims;
+    }
+
     /**
      * Validates a JWT token.
      * <p>
-     * This method checks whether the token is included in the {@code VALID_TOKENS} list
+     * This method checks whether the token is registered in the {@link TokenStore}
      * and verifies its signature and expiration. If the token is valid, it returns {@code true};
      * otherwise, it returns {@code false}.
      * </p>
@@ -67,15 +188,7 @@ public class JwtUtil {
      * @return {@code true} if the token is valid; {@code false} otherwise.
      */
     public boolean isTokenValid(String token) {
-        try {
-            if (!VALID_TOKENS.contains(token)) {
-                return false; // Token is not in the valid tokens list
-            }
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token); // Verify token
-            return true;
-        } catch (Exception e) {
-            return false; // Any exception indicates invalid token
-        }
+        return validateToken(token) != null;
     }
 
     /**
@@ -83,16 +196,46 @@ public class JwtUtil {
      * <p>
      * This method parses the token and retrieves all claims included in its payload.
      * Claims can contain information such as the subject (username), roles, issued timestamp, and expiration time.
+     * Claims of tokens that were already verified are served from the cache.
      * </p>
      *
      * @param token the JWT token from which to extract claims.
      * @return a {@code Claims} object containing the claims from the token.
      */
     public Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key) // Use the signing key to parse the token
-                .build()
-                .parseClaimsJws(token)
-                .getBody(); // Extract claims from token body
+        Claims claims = verifiedClaims.getIfPresent(token);
+        if (claims != null) {
+            return claims;
+        }
+        return parser.parseClaimsJws(token).getBody(); // Extract claims from token body
+    }
+
+    private static void validationCounter(MeterRegistry registry, String result, LongAdder count) {
+        FunctionCounter.builder("security.jwt.validations", count, LongAdder::sum)
+                .description("Outcomes of JWT validations")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    /**
+     * Expires cached claims at the expiration time of their token.
+     */
+    private static final class TokenExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String token, Claims claims, long currentTime) {
+            long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -0,0 +1,275 @@
+package com.example.demo.utils;
+
+import com.example.demo.web.model.v1.request.ExampleRequest;
+import com.example.demo.web.model.v1.request.ExampleRequest.ExampleType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Seeded generator of synthetic examples with realistic value distributions, for load tests and benchmarks at
+ * sizes up to tens of millions of examples.
+ * <p>
+ * Every example is a pure function of the seed and its index: its values are drawn from a random generator seeded
+ * with both, so examples can be generated in any order and on any number of threads, and the same seed always
+ * yields the same examples. Nothing is kept in memory besides the lookup tables of the distributions.
+ * </p>
+ * <p>
+ * The values follow the skewed distributions seen in real catalogues rather than the round-robin values of
+ * {@link ExampleDataGenerator}:
+ * </p>
+ * <ul>
+ *     <li>tags are drawn from {@code tagCardinality} distinct tags with a Zipf distribution, so a few tags are on
+ *     most examples and most tags on few, one to five per example;</li>
+ *     <li>names and descriptions are made of words drawn with a Zipf distribution from a fixed vocabulary, so search
+ *     terms have realistic frequencies;</li>
+ *     <li>types are mostly {@code BASIC} and rarely {@code PRO}, and prices are log-normal around a median rising
+ *     with the type, with a long tail of expensive examples;</li>
+ *     <li>creation dates decay exponentially back from {@code newestDate}, so recent dates are the most common, and
+ *     ages are normally distributed between 18 and 90.</li>
+ * </ul>
+ */
+public class SyntheticExampleGenerator {
+
+    /**
+     * The number of examples generated per task by the parallel methods.
+     */
+    static final int CHUNK_SIZE = 8_192;
+
+    private static final double TAG_EXPONENT = 1.07;
+    private static final double WORD_EXPONENT = 1.0;
+    private static final double MEAN_AGE_IN_DAYS = 365;
+    private static final int MAX_AGE_IN_DAYS = 3_650;
+    private static final ExampleType[] TYPES = ExampleType.values();
+    private static final double[] TYPE_WEIGHTS = {0.6, 0.3, 0.1};
+    private static final double[] MEDIAN_PRICES = {20, 80, 300};
+    private static final double PRICE_SIGMA = 0.9;
+    private static final String[] WORDS = {
+            "example", "basic", "service", "data", "model", "system", "user", "report", "order", "product",
+            "custom", "standard", "premium", "quick", "simple", "advanced", "smart", "cloud", "mobile", "secure",
+            "classic", "modern", "digital", "global", "local", "fast", "light", "green", "blue", "red",
+            "account", "payment", "invoice", "catalog", "inventory", "shipment", "customer", "partner", "project",
+            "analytics", "dashboard", "gateway", "storage", "network", "platform", "module", "plugin", "widget",
+            "template", "workflow", "schedule", "message", "profile", "session", "archive", "backup", "monitor",
+            "sensor", "device", "engine", "pipeline", "cluster", "bundle", "edition"
+    };
+
+    private final long seed;
+    private final LocalDate newestDate;
+    private final String[] tags;
+    private final double[] tagDistribution;
+    private final double[] wordDistribution;
+
+    /**
+     * Creates a generator.
+     *
+     * @param seed           the seed every generated value derives from
+     * @param tagCardinality the number of distinct tags
+     * @param newestDate     the most recent creation date; dates go back up to ten years from it
+     */
+    public SyntheticExampleGenerator(long seed, int tagCardinality, LocalDate newestDate) {
+        if (tagCardinality < 1) {
+            throw new IllegalArgumentException("The tag cardinality must be positive: " + tagCardinality);
+        }
+        this.seed = seed;
+        this.newestDate = newestDate;
+        this.tags = new String[tagCardinality];
+        for (int i = 0; i < tagCardinality; i++) {
+            tags[i] = "tag" + (i + 1);
+        }
+        this.tagDistribution = zipf(tagCardinality, TAG_EXPONENT);
+        this.wordDistribution = zipf(WORDS.length, WORD_EXPONENT);
+    }
+
+    /**
+     * Generates the example with the given index.
+     *
+     * @param index the index of the example, from zero
+     * @return the example, always the same for the same seed and index
+     */
+    public ExampleRequest example(long index) {
+        SplittableRandom random = new SplittableRandom(mix(seed ^ mix(index)));
+        ExampleType type = TYPES[pick(random, TYPE_WEIGHTS)];
+
+        String name = capitalize(word(random)) + " " + word(random) + " " + (index + 1);
+        StringBuilder description = new StringBuilder(capitalize(word(random)));
+        for (int words = 5 + random.nextInt(10); words > 0; words--) {
+            description.append(' ').append(word(random));
+        }
+
+        int age = Math.clamp(Math.round(38 + 12 * random.nextGaussian()), 18, 90);
+        double price = Math.max(0.01, Math.round(
+                MEDIAN_PRICES[type.ordinal()] * Math.exp(PRICE_SIGMA * random.nextGaussian()) * 100) / 100.0);
+        boolean active = random.nextDouble() < 0.85;
+        long daysAgo = Math.min(MAX_AGE_IN_DAYS, (long) (-MEAN_AGE_IN_DAYS * Math.log(1 - random.nextDouble())));
+
+        return new ExampleRequest(null, name, description.toString(), age, price, active,
+                newestDate.minusDays(daysAgo), tags(random), type);
+    }
+
+    /**
+     * Returns the examples with indexes from zero to {@code count - 1}, in that order. The stream can be made
+     * parallel, and yields the same examples either way.
+     *
+     * @param count the number of examples
+     * @return a lazy, ordered stream of the examples
+     */
+    public Stream<ExampleRequest> examples(long count) {
+        return LongStream.range(0, count).mapToObj(this::example);
+    }
+
+    /**
+     * Generates examples in batches on all cores and hands each batch to the consumer, for instance to create them
+     * in a service. Batches are handed over concurrently and in no particular order, and each is a new list the
+     * consumer can keep.
+     *
+     * @param count     the number of examples
+     * @param batchSize the maximum number of examples per batch
+     * @param consumer  receives the batches; must be thread-safe
+     */
+    public void forEachBatch(long count, int batchSize, Consumer<List<ExampleRequest>> consumer) {
+        long batches = (count + batchSize - 1) / batchSize;
+        LongStream.range(0, batches).parallel().forEach(batch -> {
+            long from = batch * batchSize;
+            long to = Math.min(count, from + batchSize);
+            List<ExampleRequest> examples = new ArrayList<>((int) (to - from));
+            for (long index = from; index < to; index++) {
+                examples.add(example(index));
+            }
+            consumer.accept(examples);
+        });
+    }
+
+    /**
+     * Writes the examples with indexes from zero to {@code count - 1} as a JSON array, the body accepted by
+     * {@code POST /api/example/batch}.
+     * <p>
+     * Chunks of examples are generated and serialized on all cores and written in order, a bounded window of chunks
+     * at a time, so memory use does not grow with the number of examples. The stream is not closed.
+     * </p>
+     *
+     * @param count  the number of examples
+     * @param mapper the mapper to serialize the examples with
+     * @param out    the stream to write to
+     * @throws IOException if writing fails
+     */
+    public void writeJson(long count, ObjectMapper mapper, OutputStream out) throws IOException {
+        long chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        int window = 2 * Runtime.getRuntime().availableProcessors();
+        out.write('[');
+        for (long first = 0; first < chunks; first += window) {
+            List<byte[]> serialized = LongStream.range(first, Math.min(chunks, first + window))
+                    .parallel()
+                    .mapToObj(chunk -> serialize(chunk, count, mapper))
+                    .toList();
+            for (byte[] bytes : serialized) {
+                out.write(bytes);
+            }
+        }
+        out.write("]\n".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private byte[] serialize(long chunk, long count, ObjectMapper mapper) {
+        long from = chunk * CHUNK_SIZE;
+        long to = Math.min(count, from + CHUNK_SIZE);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(CHUNK_SIZE * 320);
+        try {
+            for (long index = from; index < to; index++) {
+                if (index > 0) {
+                    bytes.write(',');
+                }
+                bytes.write(mapper.writeValueAsBytes(example(index)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private String[] tags(SplittableRandom random) {
+        // One tag on most examples, rarely up to five
+        int count = 1;
+        while (count < 5 && random.nextDouble() < 0.45) {
+            count++;
+        }
+        String[] drawn = new String[count];
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            String tag = tags[sample(random, tagDistribution)];
+            if (!contains(drawn, distinct, tag)) {
+                drawn[distinct++] = tag;
+            }
+        }
+        return distinct == count ? drawn : Arrays.copyOf(drawn, distinct);
+    }
+
+    private static boolean contains(String[] values, int length, String value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i].equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String word(SplittableRandom random) {
+        return WORDS[sample(random, wordDistribution)];
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    /**
+     * Builds the cumulative distribution of a Zipf distribution over the given number of ranks.
+     */
+    private static double[] zipf(int ranks, double exponent) {
+        double[] cumulative = new double[ranks];
+        double sum = 0;
+        for (int rank = 0; rank < ranks; rank++) {
+            sum += 1 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < ranks; rank++) {
+            cumulative[rank] /= sum;
+        }
+        return cumulative;
+    }
+
+    private static int sample(SplittableRandom random, double[] cumulative) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index < 0 ? -index - 1 : index, cumulative.length - 1);
+    }
+
+    private static int pick(SplittableRandom random, double[] weights) {
+        double value = random.nextDouble();
+        for (int i = 0; i < weights.length - 1; i++) {
+            value -= weights[i];
+            if (value < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    /**
+     * Stafford's variant 13 of the MurmurHash3 finalizer, spreading neighbouring indexes over unrelated seeds.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.demo.web.controller.v1;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The content codings list responses can be compressed with, in order of preference when a client accepts several
+ * equally.
+ */
+enum ContentCoding {
+
+    GZIP("gzip"),
+    DEFLATE("deflate"),
+    IDENTITY("identity");
+
+    private final String token;
+
+    ContentCoding(String token) {
+        this.token = token;
+    }
+
+    /**
+     * Returns the name of the coding, as used in {@code Accept-Encoding} and {@code Content-Encoding} headers.
+     *
+     * @return the coding name
+     */
+    String token() {
+        return token;
+    }
+
+    /**
+     * Picks the coding of a response from an {@code Accept-Encoding} header.
+     * <p>
+     * A coding named in the header gets its own quality, any other one the quality of {@code *}, if present. Codings
+     * with a quality of 0, such as {@code gzip;q=0}, are refused and never picked.
+     * </p>
+     *
+     * @param acceptEncoding the header value (can be null)
+     * @return the accepted compressing coding with the highest quality, or {@link #IDENTITY} if none is accepted
+     */
+    static ContentCoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return IDENTITY;
+        }
+        double[] qualities = new double[values().length];
+        Arrays.fill(qualities, -1);
+        double wildcard = -1;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String name = parts[0].strip();
+            double quality = quality(parts);
+            if (name.equals("*")) {
+                wildcard = quality;
+            }
+            for (ContentCoding coding : values()) {
+                if (name.equalsIgnoreCase(coding.token)) {
+                    qualities[coding.ordinal()] = quality;
+                }
+            }
+        }
+        ContentCoding best = IDENTITY;
+        double bestQuality = 0;
+        for (ContentCoding coding : values()) {
+            double quality = qualities[coding.ordinal()] >= 0 ? qualities[coding.ordinal()] : wildcard;
+            // Strictly greater, so ties go to the coding declared first
+            if (coding != IDENTITY && quality > bestQuality) {
+                best = coding;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Compresses the given bytes with this coding.
+     *
+     * @param content the bytes to compress
+     * @return the compressed bytes
+     */
+    byte[] encode(byte[] content) {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream(content.length / 4);
+        try (OutputStream out = switch (this) {
+            case GZIP -> new GZIPOutputStream(encoded, 64 * 1024);
+            case DEFLATE -> new DeflaterOutputStream(encoded);
+            case IDENTITY -> encoded;
+        }) {
+            out.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Not thrown by in-memory streams
+        }
+        return encoded.toByteArray();
+    }
+
+    private static double quality(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].strip();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
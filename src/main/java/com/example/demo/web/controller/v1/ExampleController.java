@@ -1,26 +1,83 @@
 package com.example.demo.web.controller.v1;
 
+import com.example.demo.service.AsyncExampleService;
+import com.example.demo.service.ExampleChangeFeed;
+import com.example.demo.service.ExampleFilter;
+import com.example.demo.service.ExampleGrouping;
+import com.example.demo.service.ExampleNotFoundException;
 import com.example.demo.service.ExampleService;
+import com.example.demo.service.ExampleVersionConflictException;
 import com.example.demo.web.model.v1.request.ExampleRequest;
+import com.example.demo.web.model.v1.response.AggregateExampleResponse;
+import com.example.demo.web.model.v1.response.BatchItemResponse;
+import com.example.demo.web.model.v1.response.ExampleChangeResponse;
 import com.example.demo.web.model.v1.response.ExampleResponse;
 import com.example.demo.web.model.v1.response.ListExampleResponse;
+import com.example.demo.web.model.v1.response.SearchExampleResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.AllArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * Controller for managing example resources.
  * <p>
- * Provides endpoints for creating, updating, deleting, and listing example resources.
+ * Provides endpoints for creating, updating, deleting, and listing example resources, and for following the changes
+ * made to them.
+ * </p>
+ * <p>
+ * Changed examples are returned with their version as entity tag, which later updates, patches and deletes can pass
+ * in an {@code If-Match} header to be applied only if nobody else changed the example in between.
+ * </p>
+ * <p>
+ * Besides JSON, requests and responses may be CBOR or Smile, selected by the {@code Content-Type} and {@code Accept}
+ * headers. Batch, stream, patch and change feed endpoints are JSON only, since their formats are defined on JSON
+ * text.
+ * </p>
+ * <p>
+ * Single-example, list, search and aggregate endpoints return futures from the {@link AsyncExampleService}, which
+ * Spring MVC completes asynchronously: the request thread is released while the operation runs, such as while a
+ * write waits for its journal entry to be flushed or a scan goes over many examples.
  * </p>
  */
 @Tag(name = "Example API", description = "APIs for creating, updating, deleting, and listing examples.")
@@ -29,13 +86,57 @@ import java.util.List;
 @RequestMapping("/api/example")
 public class ExampleController {
 
+    /**
+     * The largest page size accepted by the paginated list endpoint.
+     */
+    private static final int MAX_PAGE_SIZE = 10_000;
+
+    /**
+     * The number of items of a batch request that are parsed and applied together.
+     */
+    private static final int BATCH_CHUNK_SIZE = 1_000;
+
+    /**
+     * The largest number of hits returned by a search.
+     */
+    private static final int MAX_SEARCH_HITS = 1_000;
+
+    /**
+     * The longest a change stream stays open; clients reconnect with the last event ID they received.
+     */
+    private static final Duration CHANGE_STREAM_TIMEOUT = Duration.ofMinutes(5);
+
+    /**
+     * The longest a change stream stays silent before a heartbeat is sent, which also detects closed connections.
+     */
+    private static final Duration CHANGE_STREAM_HEARTBEAT = Duration.ofSeconds(15);
+
+    /**
+     * The largest number of changes read from the change feed at once.
+     */
+    private static final int CHANGE_BATCH_SIZE = 1_000;
+
+    /**
+     * The media type of JSON merge patches (RFC 7396).
+     */
+    private static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+
+    /**
+     * The expected version of changes whose {@code If-Match} header can match no example; versions start at 1.
+     */
+    private static final long UNMATCHED_VERSION = 0;
+
     private final ExampleService exampleService;
+    private final AsyncExampleService asyncExampleService;
+    private final ExampleChangeFeed changeFeed;
+    private final ListExampleResponseCache listResponseCache;
+    private final ObjectMapper objectMapper;
 
     /**
      * Creates a new example resource.
      *
      * @param exampleRequest the request object containing details of the example to create
-     * @return the created example resource
+     * @return the created example resource, with its entity tag
      */
     @Operation(
             summary = "Create Example",
@@ -47,16 +148,20 @@ public class ExampleController {
             @ApiResponse(responseCode = "500", description = "Internal server error.")
     })
     @PostMapping
-    public ResponseEntity<ExampleResponse> createExample(
+    public CompletableFuture<ResponseEntity<ExampleResponse>> createExample(
             @RequestBody @Parameter(description = "Details of the example to create.") ExampleRequest exampleRequest) {
-        ExampleResponse response = exampleService.createExample(exampleRequest);
-        return ResponseEntity.ok(response);
+        return asyncExampleService.createExample(exampleRequest).thenApply(ExampleController::withEntityTag);
     }
 
     /**
      * Deletes an existing example resource by ID.
+     * <p>
+     * With an {@code If-Match} header holding the entity tag of the example, it is only deleted if it has not been
+     * changed since.
+     * </p>
      *
-     * @param id the ID of the example to delete
+     * @param id      the ID of the example to delete
+     * @param ifMatch the entity tag the example must still have (optional)
      * @return a response with no content
      */
     @Operation(
@@ -65,60 +170,628 @@ public class ExampleController {
     )
     @ApiResponses({
             @ApiResponse(responseCode = "204", description = "Successfully deleted the example."),
-            @ApiResponse(responseCode = "404", description = "Example not found.")
+            @ApiResponse(responseCode = "404", description = "Example not found."),
+            @ApiResponse(responseCode = "412", description = "The example does not match the If-Match entity tag.")
     })
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteExample(
-            @PathVariable @Parameter(description = "ID of the example to delete.") Long id) {
-        exampleService.deleteExample(id);
-        return ResponseEntity.noContent().build();
+    public CompletableFuture<ResponseEntity<Void>> deleteExample(
+            @PathVariable @Parameter(description = "ID of the example to delete.") Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+            @Parameter(description = "Optional entity tag the example must still have, as returned when it was last read or changed.")
+            String ifMatch) {
+        return asyncExampleService.deleteExample(id, expectedVersion(ifMatch))
+                .thenApply(deleted -> ResponseEntity.noContent().build());
     }
 
     /**
-     * Updates an existing example resource.
+     * Replaces the details of an existing example resource.
+     * <p>
+     * With an {@code If-Match} header holding the entity tag of the example, it is only updated if it has not been
+     * changed since.
+     * </p>
      *
      * @param id             the ID of the example to update
      * @param exampleRequest the request object containing updated details of the example
-     * @return the updated example resource
+     * @param ifMatch        the entity tag the example must still have (optional)
+     * @return the updated example resource, with its new entity tag
      */
     @Operation(
             summary = "Update Example",
-            description = "Updates an existing example resource."
+            description = "Replaces all details of an existing example resource."
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Successfully updated the example."),
             @ApiResponse(responseCode = "404", description = "Example not found."),
-            @ApiResponse(responseCode = "400", description = "Invalid input.")
+            @ApiResponse(responseCode = "400", description = "Invalid input."),
+            @ApiResponse(responseCode = "412", description = "The example does not match the If-Match entity tag.")
     })
     @PutMapping("/{id}")
-    public ResponseEntity<ExampleResponse> updateExample(
+    public CompletableFuture<ResponseEntity<ExampleResponse>> updateExample(
             @PathVariable @Parameter(description = "ID of the example to update.") Long id,
-            @RequestBody @Parameter(description = "Details of the example to update.") ExampleRequest exampleRequest) {
-        ExampleResponse response = exampleService.updateExample(id, exampleRequest);
-        return ResponseEntity.ok(response);
+            @RequestBody @Parameter(description = "Details of the example to update.") ExampleRequest exampleRequest,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+            @Parameter(description = "Optional entity tag the example must still have, as returned when it was last read or changed.")
+            String ifMatch) {
+        return asyncExampleService.updateExample(id, exampleRequest, expectedVersion(ifMatch))
+                .thenApply(ExampleController::withEntityTag);
+    }
+
+    /**
+     * Changes some of the details of an existing example resource.
+     * <p>
+     * The body is a JSON merge patch (RFC 7396): the fields it contains replace those of the example, a {@code null}
+     * field clears it, and fields it does not contain are left unchanged. With an {@code If-Match} header holding the
+     * entity tag of the example, it is only changed if it has not been changed since.
+     * </p>
+     *
+     * @param id      the ID of the example to change
+     * @param patch   the fields to change
+     * @param ifMatch the entity tag the example must still have (optional)
+     * @return the changed example resource, with its new entity tag
+     */
+    @Operation(
+            summary = "Patch Example",
+            description = "Changes the given fields of an existing example resource, using JSON merge patch semantics."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Successfully changed the example."),
+            @ApiResponse(responseCode = "404", description = "Example not found."),
+            @ApiResponse(responseCode = "400", description = "Invalid input."),
+            @ApiResponse(responseCode = "412", description = "The example does not match the If-Match entity tag.")
+    })
+    @PatchMapping(value = "/{id}", consumes = {MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public CompletableFuture<ResponseEntity<ExampleResponse>> patchExample(
+            @PathVariable @Parameter(description = "ID of the example to change.") Long id,
+            @RequestBody @Parameter(description = "Fields of the example to change.",
+                    schema = @Schema(implementation = ExampleRequest.class)) ObjectNode patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+            @Parameter(description = "Optional entity tag the example must still have, as returned when it was last read or changed.")
+            String ifMatch) {
+        try {
+            // Rejects invalid field values before the example is locked, so applying the patch cannot fail
+            objectMapper.treeToValue(patch, ExampleRequest.class);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        return asyncExampleService.patchExample(id, details -> merge(details, patch), expectedVersion(ifMatch))
+                .thenApply(ExampleController::withEntityTag);
+    }
+
+    /**
+     * Answers changes to examples that do not exist.
+     *
+     * @param e the rejection
+     * @return a response with no content
+     */
+    @ExceptionHandler(ExampleNotFoundException.class)
+    public ResponseEntity<Void> notFound(ExampleNotFoundException e) {
+        return ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Answers changes rejected because of their {@code If-Match} header, with the current entity tag of the example
+     * if it exists.
+     *
+     * @param e the rejection
+     * @return a response with no content
+     */
+    @ExceptionHandler(ExampleVersionConflictException.class)
+    public ResponseEntity<Void> versionConflict(ExampleVersionConflictException e) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.PRECONDITION_FAILED);
+        if (e.getCurrentVersion() != null) {
+            response.eTag(Long.toString(e.getCurrentVersion()));
+        }
+        return response.build();
+    }
+
+    /**
+     * Creates example resources in bulk.
+     * <p>
+     * The request body is a JSON array that is parsed while it is read, and applied in chunks of
+     * {@value #BATCH_CHUNK_SIZE} items. The response streams one result per item as newline-delimited JSON, in
+     * request order.
+     * </p>
+     *
+     * @param body the request body, a JSON array of examples to create
+     * @return a streaming response body writing one result per item
+     * @throws IOException if the request body cannot be read
+     */
+    @Operation(
+            summary = "Create Examples",
+            description = "Creates example resources from a JSON array and streams one result per item as newline-delimited JSON.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = ExampleRequest.class))))
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Successfully started applying the batch."),
+            @ApiResponse(responseCode = "400", description = "The request body is not a JSON array.")
+    })
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> createExamples(InputStream body) throws IOException {
+        return streamBatch(body, ExampleRequest.class, exampleService::createExamples);
+    }
+
+    /**
+     * Updates example resources in bulk, each identified by the {@code id} of its item.
+     *
+     * @param body the request body, a JSON array of examples to update
+     * @return a streaming response body writing one result per item
+     * @throws IOException if the request body cannot be read
+     */
+    @Operation(
+            summary = "Update Examples",
+            description = "Updates example resources, identified by their 'id', from a JSON array and streams one result per item as newline-delimited JSON.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = ExampleRequest.class))))
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Successfully started applying the batch."),
+            @ApiResponse(responseCode = "400", description = "The request body is not a JSON array.")
+    })
+    @PutMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> updateExamples(InputStream body) throws IOException {
+        return streamBatch(body, ExampleRequest.class, exampleService::updateExamples);
+    }
+
+    /**
+     * Deletes example resources in bulk.
+     *
+     * @param body the request body, a JSON array of the IDs to delete
+     * @return a streaming response body writing one result per item
+     * @throws IOException if the request body cannot be read
+     */
+    @Operation(
+            summary = "Delete Examples",
+            description = "Deletes the example resources whose IDs are given as a JSON array and streams one result per item as newline-delimited JSON.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(
+                    mediaType = MediaType.APPLICATION_JSON_VALUE,
+                    array = @ArraySchema(schema = @Schema(implementation = Long.class, example = "12345"))))
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Successfully started applying the batch."),
+            @ApiResponse(responseCode = "400", description = "The request body is not a JSON array.")
+    })
+    @DeleteMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> deleteExamples(InputStream body) throws IOException {
+        return streamBatch(body, Long.class, exampleService::deleteExamples);
     }
 
     /**
-     * Lists all example resources, optionally filtered by type.
+     * Lists example resources, optionally filtered by type, active flag, tags and creation date.
+     * <p>
+     * Without a {@code limit} all matching examples are returned. With a {@code limit} the response holds one page in
+     * ascending ID order, and its {@code nextCursor} is passed back as {@code after} to fetch the following page.
+     * </p>
+     * <p>
+     * Responses carry an entity tag that changes whenever an example of the requested type changes. A request whose
+     * {@code If-None-Match} header holds the current tag is answered with {@code 304 Not Modified} and no body.
+     * Otherwise the serialized response is served from {@link ListExampleResponseCache} while the examples of the
+     * type are unchanged.
+     * </p>
+     * <p>
+     * The response is JSON, CBOR or Smile, whichever the {@code Accept} header prefers; each format is cached and
+     * tagged separately. Large responses are compressed with gzip or deflate, if enabled and accepted, and are
+     * compressed once per version rather than per request.
+     * </p>
      *
-     * @param type the optional filter for examples by type
-     * @return a list of example resources
+     * @param type        the optional filter for examples by type
+     * @param active      the optional filter for examples by active flag
+     * @param tags        the optional tags every returned example must carry
+     * @param createdFrom the optional inclusive lower bound of the creation date
+     * @param createdTo   the optional inclusive upper bound of the creation date
+     * @param after       the optional cursor; only examples with a greater ID are returned
+     * @param limit       the optional maximum number of examples to return
+     * @param webRequest  the current request, used to evaluate its {@code Accept}, {@code Accept-Encoding} and
+     *                    {@code If-None-Match} headers
+     * @return a list of example resources, or no body if the client's copy is still current
      */
     @Operation(
             summary = "List Examples",
-            description = "Retrieves a list of all examples, optionally filtered by type."
+            description = "Retrieves a list of all examples, optionally filtered by type, active flag, tags and creation date range. " +
+                    "Use 'limit' and 'after' for cursor-based pagination."
     )
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Successfully retrieved the examples."),
-            @ApiResponse(responseCode = "400", description = "Invalid type filter.")
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved the examples.",
+                    content = {
+                            @Content(mediaType = MediaType.APPLICATION_JSON_VALUE,
+                                    schema = @Schema(implementation = ListExampleResponse.class)),
+                            @Content(mediaType = MediaType.APPLICATION_CBOR_VALUE,
+                                    schema = @Schema(implementation = ListExampleResponse.class)),
+                            @Content(mediaType = WireFormat.APPLICATION_SMILE_VALUE,
+                                    schema = @Schema(implementation = ListExampleResponse.class))
+                    }),
+            @ApiResponse(responseCode = "304", description = "The examples are unchanged since the given entity tag."),
+            @ApiResponse(responseCode = "400", description = "Invalid filter or page size.")
     })
-    @GetMapping
-    public ResponseEntity<ListExampleResponse> listExamples(
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            WireFormat.APPLICATION_SMILE_VALUE})
+    public CompletableFuture<ResponseEntity<ByteBuffer>> listExamples(
             @RequestParam(value = "type", required = false)
             @Parameter(description = "Optional filter for example type.", schema = @Schema(allowableValues = {"BASIC", "ADVANCED", "PRO"}))
-            ExampleRequest.ExampleType type) {
-        List<ExampleResponse> examples = exampleService.listExamples(type);
-        return ResponseEntity.ok(new ListExampleResponse(examples));
+            ExampleRequest.ExampleType type,
+            @RequestParam(value = "active", required = false)
+            @Parameter(description = "Optional filter for the active flag.") Boolean active,
+            @RequestParam(value = "tag", required = false)
+            @Parameter(description = "Optional tags; only examples carrying all of them are returned.") List<String> tags,
+            @RequestParam(value = "createdFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @Parameter(description = "Optional inclusive lower bound of the creation date.", example = "2024-01-01") LocalDate createdFrom,
+            @RequestParam(value = "createdTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @Parameter(description = "Optional inclusive upper bound of the creation date.", example = "2024-12-31") LocalDate createdTo,
+            @RequestParam(value = "after", required = false)
+            @Parameter(description = "Optional cursor; only examples with a greater ID are returned.", example = "100") Long after,
+            @RequestParam(value = "limit", required = false)
+            @Parameter(description = "Optional page size, between 1 and 10000.", example = "100") Integer limit,
+            WebRequest webRequest) {
+        if (limit != null && (limit < 1 || limit > MAX_PAGE_SIZE)) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        ExampleFilter filter = new ExampleFilter(type, active, tags, createdFrom, createdTo);
+        // Read before listing, so the tag is never newer than the listed examples
+        long version = exampleService.listVersion(type);
+        WireFormat format = WireFormat.negotiate(acceptedMediaTypes(webRequest));
+        String etag = listResponseCache.etag(type, version, format);
+        if (webRequest.checkNotModified(etag)) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build());
+        }
+        ContentCoding coding = ContentCoding.negotiate(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        return listResponseCache.get(new ListExampleResponseCache.ListQuery(filter, after, limit, format), version,
+                coding, () -> listPage(filter, after, limit)).thenApply(payload -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(format.mediaType())
+                    .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate());
+            if (payload.coding() != ContentCoding.IDENTITY) {
+                response.header(HttpHeaders.CONTENT_ENCODING, payload.coding().token());
+            }
+            return response.body(payload.body());
+        });
+    }
+
+    /**
+     * Returns the version an {@code If-Match} header requires, or {@code null} if there is none. {@code *} accepts any
+     * version of an existing example. Entity tags of examples are their quoted versions; weak, foreign or multiple
+     * tags match no version.
+     */
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+        String tag = ifMatch.strip();
+        if (tag.equals("*")) {
+            return ExampleService.ANY_VERSION;
+        }
+        if (tag.length() > 2 && tag.charAt(0) == '"' && tag.charAt(tag.length() - 1) == '"') {
+            try {
+                return Long.parseLong(tag, 1, tag.length() - 1, 10);
+            } catch (NumberFormatException e) {
+                // Not one of ours
+            }
+        }
+        return UNMATCHED_VERSION;
+    }
+
+    private static List<MediaType> acceptedMediaTypes(WebRequest webRequest) {
+        String[] accept = webRequest.getHeaderValues(HttpHeaders.ACCEPT);
+        return accept == null ? List.of() : MediaType.parseMediaTypes(List.of(accept));
+    }
+
+    private static ResponseEntity<ExampleResponse> withEntityTag(ExampleResponse example) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (example.getVersion() != null) {
+            response.eTag(Long.toString(example.getVersion()));
+        }
+        return response.body(example);
+    }
+
+    private ExampleRequest merge(ExampleRequest details, ObjectNode patch) {
+        try {
+            return objectMapper.readerForUpdating(details).readValue(patch);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Lists the matching examples, or one page of them if a limit is given.
+     */
+    private CompletableFuture<ListExampleResponse> listPage(ExampleFilter filter, Long after, Integer limit) {
+        if (limit == null) {
+            return (after == null
+                    ? asyncExampleService.listExamples(filter)
+                    : asyncExampleService.listExamples(filter, after, Integer.MAX_VALUE))
+                    .thenApply(examples -> new ListExampleResponse(examples, null));
+        }
+        // Fetch one extra example to know whether another page follows
+        return asyncExampleService.listExamples(filter, after, limit + 1).thenApply(examples -> {
+            Long nextCursor = null;
+            if (examples.size() > limit) {
+                examples = examples.subList(0, limit);
+                nextCursor = examples.get(limit - 1).getId();
+            }
+            return new ListExampleResponse(examples, nextCursor);
+        });
+    }
+
+    /**
+     * Searches example resources by the words of their name, description and tags.
+     * <p>
+     * Every word of the query must occur in the example, either in full or as the beginning of a longer word, so
+     * {@code exa} matches {@code example}. Hits are ranked by relevance, with matches in the name ranking above
+     * matches in tags, and those above matches in the description.
+     * </p>
+     *
+     * @param query the words to search for
+     * @param limit the maximum number of hits to return
+     * @return the best matching example resources, best first
+     */
+    @Operation(
+            summary = "Search Examples",
+            description = "Full-text search over example names, descriptions and tags, with prefix matching and relevance ranking."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Successfully searched the examples."),
+            @ApiResponse(responseCode = "400", description = "Invalid number of hits.")
+    })
+    @GetMapping("/search")
+    public CompletableFuture<ResponseEntity<SearchExampleResponse>> searchExamples(
+            @RequestParam("q")
+            @Parameter(description = "Words to search for.", example = "example pro") String query,
+            @RequestParam(value = "limit", defaultValue = "10")
+            @Parameter(description = "Maximum number of hits, between 1 and 1000.", example = "10") int limit) {
+        if (limit < 1 || limit > MAX_SEARCH_HITS) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        return asyncExampleService.searchExamples(query, limit).thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * Streams example resources as newline-delimited JSON, optionally filtered like {@code GET /api/example}.
+     * <p>
+     * Examples are written to the response one by one while the store is iterated, so memory use stays flat
+     * regardless of the number of matching examples.
+     * </p>
+     *
+     * @param type        the optional filter for examples by type
+     * @param active      the optional filter for examples by active flag
+     * @param tags        the optional tags every returned example must carry
+     * @param createdFrom the optional inclusive lower bound of the creation date
+     * @param createdTo   the optional inclusive upper bound of the creation date
+     * @param after       the optional cursor; only examples with a greater ID are returned
+     * @return a streaming response body writing one JSON example per line
+     */
+    @Operation(
+            summary = "Stream Examples",
+            description = "Streams all matching examples as newline-delimited JSON (application/x-ndjson) in ascending ID order."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Successfully started streaming the examples."),
+            @ApiResponse(responseCode = "400", description = "Invalid filter.")
+    })
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamExamples(
+            @RequestParam(value = "type", required = false)
+            @Parameter(description = "Optional filter for example type.", schema = @Schema(allowableValues = {"BASIC", "ADVANCED", "PRO"}))
+            ExampleRequest.ExampleType type,
+            @RequestParam(value = "active", required = false)
+            @Parameter(description = "Optional filter for the active flag.") Boolean active,
+            @RequestParam(value = "tag", required = false)
+            @Parameter(description = "Optional tags; only examples carrying all of them are returned.") List<String> tags,
+            @RequestParam(value = "createdFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @Parameter(description = "Optional inclusive lower bound of the creation date.", example = "2024-01-01") LocalDate createdFrom,
+            @RequestParam(value = "createdTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @Parameter(description = "Optional inclusive upper bound of the creation date.", example = "2024-12-31") LocalDate createdTo,
+            @RequestParam(value = "after", required = false)
+            @Parameter(description = "Optional cursor; only examples with a greater ID are returned.", example = "100") Long after) {
+        ExampleFilter filter = new ExampleFilter(type, active, tags, createdFrom, createdTo);
+        StreamingResponseBody body = outputStream -> {
+            ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            try (Stream<ExampleResponse> examples = exampleService.streamExamples(filter, after);
+                 JsonGenerator generator = createNdjsonGenerator(outputStream)) {
+                for (ExampleResponse example : (Iterable<ExampleResponse>) examples::iterator) {
+                    writer.writeValue(generator, example);
+                    generator.writeRaw('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Aggregates example resources on the server, optionally filtered like {@code GET /api/example}.
+     * <p>
+     * Matching examples are grouped by the requested criterion, and each group reports its count together with the
+     * count, sum, minimum, maximum and average of the prices and ages, so clients get a few numbers instead of
+     * every example.
+     * </p>
+     *
+     * @param groupBy     the criterion by which examples are grouped
+     * @param bucket      the size of the creation date buckets when grouping by creation date
+     * @param type        the optional filter for examples by type
+     * @param active      the optional filter for examples by active flag
+     * @param tags        the optional tags every aggregated example must carry
+     * @param createdFrom the optional inclusive lower bound of the creation date
+     * @param createdTo   the optional inclusive upper bound of the creation date
+     * @return the aggregated values of each group
+     */
+    @Operation(
+            summary = "Aggregate Examples",
+            description = "Groups the matching examples by type, active flag, tag or creation date bucket and returns the count " +
+                    "and price and age statistics (count, sum, min, max, avg) of each group."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Successfully aggregated the examples."),
+            @ApiResponse(responseCode = "400", description = "Invalid grouping or filter.")
+    })
+    @GetMapping("/aggregate")
+    public CompletableFuture<ResponseEntity<AggregateExampleResponse>> aggregateExamples(
+            @RequestParam(value = "groupBy", defaultValue = "NONE")
+            @Parameter(description = "Criterion by which examples are grouped.") ExampleGrouping groupBy,
+            @RequestParam(value = "bucket", defaultValue = "DAY")
+            @Parameter(description = "Size of the creation date buckets when grouping by CREATION_DATE.") ExampleGrouping.DateBucket bucket,
+            @RequestParam(value = "type", required = false)
+            @Parameter(description = "Optional filter for example type.", schema = @Schema(allowableValues = {"BASIC", "ADVANCED", "PRO"}))
+            ExampleRequest.ExampleType type,
+            @RequestParam(value = "active", required = false)
+            @Parameter(description = "Optional filter for the active flag.") Boolean active,
+            @RequestParam(value = "tag", required = false)
+            @Parameter(description = "Optional tags; only examples carrying all of them are aggregated.") List<String> tags,
+            @RequestParam(value = "createdFrom", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @Parameter(description = "Optional inclusive lower bound of the creation date.", example = "2024-01-01") LocalDate createdFrom,
+            @RequestParam(value = "createdTo", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @Parameter(description = "Optional inclusive upper bound of the creation date.", example = "2024-12-31") LocalDate createdTo) {
+        ExampleFilter filter = new ExampleFilter(type, active, tags, createdFrom, createdTo);
+        return asyncExampleService.aggregateExamples(filter, groupBy, bucket).thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * Streams the changes made to example resources as server-sent events, starting after a given version.
+     * <p>
+     * Each change is sent as an event whose ID is the version of the change and whose data is the change as JSON, so
+     * a client reconnecting with the standard {@code Last-Event-ID} header resumes where it stopped. Without a
+     * starting version, only changes made from now on are sent. If the requested changes are no longer held by the
+     * feed, a single {@code reset} event carrying the current version is sent and the stream ends: the client then
+     * lists all examples and resumes from that version, ignoring changes older than the examples it already has.
+     * </p>
+     *
+     * @param fromVersion the optional version to start after
+     * @param lastEventId the ID of the last event received before reconnecting; takes precedence over
+     *                    {@code fromVersion}
+     * @return the event stream
+     */
+    @Operation(
+            summary = "Stream Example Changes",
+            description = "Streams create, update and delete events as server-sent events (text/event-stream), starting after " +
+                    "the given version or the Last-Event-ID header."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Successfully started streaming the changes."),
+            @ApiResponse(responseCode = "400", description = "Invalid version.")
+    })
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestParam(value = "fromVersion", required = false)
+            @Parameter(description = "Optional version to start after; defaults to the current version.", example = "42") Long fromVersion,
+            @RequestHeader(value = "Last-Event-ID", required = false)
+            @Parameter(description = "ID of the last event received, sent by clients when reconnecting.") Long lastEventId) {
+        long after = lastEventId != null ? lastEventId
+                : fromVersion != null ? fromVersion
+                : changeFeed.publishedVersion();
+        SseEmitter emitter = new SseEmitter(CHANGE_STREAM_TIMEOUT.toMillis());
+        AtomicBoolean open = new AtomicBoolean(true);
+        emitter.onCompletion(() -> open.set(false));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> open.set(false));
+        // Each stream mostly waits for changes, which a virtual thread does without holding a platform thread
+        Thread.ofVirtual().name("example-change-stream").start(() -> sendChanges(emitter, after, open));
+        return emitter;
+    }
+
+    /**
+     * Sends the changes following a version to an event stream until the stream is closed.
+     */
+    private void sendChanges(SseEmitter emitter, long after, AtomicBoolean open) {
+        long position = after;
+        try {
+            while (open.get()) {
+                List<ExampleChangeResponse> changes = changeFeed.changesAfter(position, CHANGE_BATCH_SIZE);
+                if (changes == null) {
+                    emitter.send(SseEmitter.event().name("reset")
+                            .data(Map.of("version", changeFeed.publishedVersion()), MediaType.APPLICATION_JSON));
+                    emitter.complete();
+                    return;
+                }
+                for (ExampleChangeResponse change : changes) {
+                    emitter.send(SseEmitter.event().id(Long.toString(change.getVersion()))
+                            .data(change, MediaType.APPLICATION_JSON));
+                    position = change.getVersion();
+                }
+                if (changes.isEmpty() && !changeFeed.awaitChangesAfter(position, CHANGE_STREAM_HEARTBEAT)) {
+                    emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client disconnected or the stream timed out; the emitter is completed by Spring
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            emitter.complete();
+        }
+    }
+
+    /**
+     * Parses a JSON array of batch items from the request body chunk by chunk, applies each chunk and streams the
+     * results of its items.
+     * <p>
+     * Only the opening of the array is checked before the response starts. If an item cannot be parsed, the items
+     * before it stay applied and the stream ends with a failed result describing the error.
+     * </p>
+     */
+    private <T> ResponseEntity<StreamingResponseBody> streamBatch(
+            InputStream body, Class<T> itemType, Function<List<T>, List<BatchItemResponse>> operation) throws IOException {
+        JsonParser parser = objectMapper.getFactory().createParser(body);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            parser.close();
+            return ResponseEntity.badRequest().build();
+        }
+        ObjectReader reader = objectMapper.readerFor(itemType);
+        StreamingResponseBody responseBody = outputStream -> {
+            try (parser; JsonGenerator generator = createNdjsonGenerator(outputStream)) {
+                ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+                List<T> chunk = new ArrayList<>(BATCH_CHUNK_SIZE);
+                boolean more = true;
+                while (more) {
+                    String error = null;
+                    try {
+                        more = readChunk(parser, reader, chunk);
+                    } catch (JsonProcessingException e) {
+                        error = "Invalid batch item: " + e.getOriginalMessage();
+                        more = false;
+                    }
+                    for (BatchItemResponse result : operation.apply(chunk)) {
+                        writer.writeValue(generator, result);
+                        generator.writeRaw('\n');
+                    }
+                    chunk.clear();
+                    if (error != null) {
+                        writer.writeValue(generator, BatchItemResponse.failure(null, HttpStatus.BAD_REQUEST.value(), error));
+                        generator.writeRaw('\n');
+                    }
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(responseBody);
+    }
+
+    /**
+     * Reads up to {@value #BATCH_CHUNK_SIZE} items into the chunk.
+     *
+     * @return {@code true} if more items may follow; {@code false} once the end of the array is reached
+     */
+    private static <T> boolean readChunk(JsonParser parser, ObjectReader reader, List<T> chunk) throws IOException {
+        while (chunk.size() < BATCH_CHUNK_SIZE) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.END_ARRAY) {
+                return false;
+            }
+            if (token == null) {
+                throw MismatchedInputException.from(parser, List.class, "Unexpected end of the batch");
+            }
+            chunk.add(token == JsonToken.VALUE_NULL ? null : reader.readValue(parser));
+        }
+        return true;
+    }
+
+    private JsonGenerator createNdjsonGenerator(OutputStream outputStream) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        generator.setRootValueSeparator(null);
+        return generator;
     }
 
     /**
@@ -0,0 +1,239 @@
+package com.example.demo.web.controller.v1;
+
+import com.example.demo.service.ExampleFilter;
+import com.example.demo.web.model.v1.request.ExampleRequest;
+import com.example.demo.web.model.v1.response.ListExampleResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Cache of serialized list responses, so that repeated reads of unchanged examples skip both the query and the JSON
+ * serialization.
+ * <p>
+ * Each entry holds the serialized bytes of one list request, in one {@link WireFormat}, together with the list
+ * version it was built at (see {@link com.example.demo.service.ExampleService#listVersion}). An entry is only served
+ * while the version is unchanged, so changes invalidate entries without any coordination with the writers. The cache
+ * is bounded by the total size of the cached bytes.
+ * </p>
+ * <p>
+ * The bytes are kept in direct memory, outside the garbage-collected heap, and handed out as buffers that are written
+ * to the connection without copying (see {@link com.example.demo.infrastructure.ByteBufferHttpMessageConverter}).
+ * When response compression is enabled ({@code server.compression.*}), large responses are also cached compressed.
+ * </p>
+ * <p>
+ * Cache hits and misses and the time spent serializing missed responses, per format, and compressing them, per
+ * coding, are published as metrics.
+ * </p>
+ * <p>
+ * The same versions make up the entity tags of list responses. They are prefixed with a random value chosen at
+ * startup, since versions are counted in memory and start over after a restart, and suffixed with the format for
+ * binary formats, since each format is a different representation of the list. The tags are weak, since the same
+ * tag is used for the uncompressed and compressed bytes of a list.
+ * </p>
+ */
+@Component
+class ListExampleResponseCache {
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+    private final Map<WireFormat, ObjectMapper> mappers = new EnumMap<>(WireFormat.class);
+    private final Map<WireFormat, Timer> serializations = new EnumMap<>(WireFormat.class);
+    private final Cache<ListQuery, CachedList> lists;
+    private final Counter hits;
+    private final Counter misses;
+    private final Map<ContentCoding, Timer> compressions = new EnumMap<>(ContentCoding.class);
+    private final boolean compression;
+    private final long compressionThreshold;
+
+    /**
+     * Creates a cache of serialized list responses.
+     *
+     * @param objectMapper   the mapper used to serialize JSON responses
+     * @param cborConverter  the converter whose mapper is used to serialize CBOR responses
+     * @param smileConverter the converter whose mapper is used to serialize Smile responses
+     * @param registry       the registry to register the cache metrics in
+     * @param maximumBytes   the maximum total size of the cached responses
+     * @param compression    whether responses are compressed
+     * @param threshold      the smallest response that is compressed
+     */
+    ListExampleResponseCache(ObjectMapper objectMapper, MappingJackson2CborHttpMessageConverter cborConverter,
+                             MappingJackson2SmileHttpMessageConverter smileConverter, MeterRegistry registry,
+                             @Value("${example.list-cache.maximum-bytes:67108864}") long maximumBytes,
+                             @Value("${server.compression.enabled:false}") boolean compression,
+                             @Value("${server.compression.min-response-size:2KB}") DataSize threshold) {
+        this.compression = compression;
+        this.compressionThreshold = threshold.toBytes();
+        mappers.put(WireFormat.JSON, objectMapper);
+        mappers.put(WireFormat.CBOR, cborConverter.getObjectMapper());
+        mappers.put(WireFormat.SMILE, smileConverter.getObjectMapper());
+        this.lists = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((ListQuery query, CachedList list) -> list.weight())
+                .build();
+        this.hits = Counter.builder("example.list.cache").tag("result", "hit")
+                .description("Lookups of serialized list responses").register(registry);
+        this.misses = Counter.builder("example.list.cache").tag("result", "miss")
+                .description("Lookups of serialized list responses").register(registry);
+        for (WireFormat format : WireFormat.values()) {
+            serializations.put(format, Timer.builder("example.list.serialization")
+                    .description("Time spent querying and serializing list responses on cache misses")
+                    .tag("format", format.name().toLowerCase())
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        for (ContentCoding coding : ContentCoding.values()) {
+            compressions.put(coding, Timer.builder("example.list.compression")
+                    .description("Time spent compressing list responses, once per version and coding")
+                    .tag("coding", coding.token())
+                    .register(registry));
+        }
+    }
+
+    /**
+     * Builds the entity tag of lists with the given type filter at the given version, in the given format.
+     *
+     * @param type    the type filter of the list (can be null)
+     * @param version the list version of the type
+     * @param format  the format of the list
+     * @return the weak entity tag
+     */
+    String etag(ExampleRequest.ExampleType type, long version, WireFormat format) {
+        String tag = epoch + "-" + (type == null ? "all" : type.name()) + "-" + version;
+        return "W/\"" + (format == WireFormat.JSON ? tag : tag + "-" + format.name().toLowerCase()) + "\"";
+    }
+
+    /**
+     * Returns the serialized response of a list request, building and caching it if the cached one is missing or
+     * was built at another version.
+     * <p>
+     * Cached responses are returned as a completed future. Missing ones are serialized by the thread completing the
+     * loaded list, so neither the query nor the serialization runs on the calling thread.
+     * </p>
+     * <p>
+     * If compression is enabled and the response is at least as large as the compression threshold, it is returned
+     * compressed with the accepted coding. Compressed responses are cached alongside the uncompressed one, so each
+     * is compressed once per version rather than once per request.
+     * </p>
+     *
+     * @param query    the list request
+     * @param version  the list version read before the request is answered
+     * @param accepted the compressing coding the client accepts, or {@link ContentCoding#IDENTITY}
+     * @param loader   starts loading the response when it is not cached
+     * @return the serialized response, in the format of the query
+     */
+    CompletableFuture<Payload> get(ListQuery query, long version, ContentCoding accepted,
+                                   Supplier<CompletableFuture<ListExampleResponse>> loader) {
+        CachedList cached = lists.getIfPresent(query);
+        if (cached != null && cached.version() == version) {
+            hits.increment();
+            return CompletableFuture.completedFuture(payload(query, version, accepted, cached));
+        }
+        misses.increment();
+        long start = System.nanoTime();
+        return loader.get()
+                .thenApply(list -> payload(query, version, accepted, build(query, version, list, start)));
+    }
+
+    private Payload payload(ListQuery query, long version, ContentCoding accepted, CachedList cached) {
+        if (accepted == ContentCoding.IDENTITY || !compression || cached.identity().capacity() < compressionThreshold) {
+            return new Payload(cached.identity().asReadOnlyBuffer(), ContentCoding.IDENTITY);
+        }
+        ByteBuffer encoded = cached.encoded().get(accepted);
+        if (encoded == null) {
+            encoded = encode(cached.identity(), accepted);
+            ByteBuffer added = encoded;
+            lists.asMap().computeIfPresent(query,
+                    (key, current) -> current.version() == version ? current.with(accepted, added) : current);
+        }
+        return new Payload(encoded.asReadOnlyBuffer(), accepted);
+    }
+
+    private CachedList build(ListQuery query, long version, ListExampleResponse list, long start) {
+        byte[] body;
+        try {
+            body = mappers.get(query.format()).writeValueAsBytes(list);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            serializations.get(query.format()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        CachedList built = new CachedList(version, direct(body), Map.of());
+        // Concurrent misses may finish out of order; keep the response of the newest version
+        return lists.asMap().merge(query, built,
+                (current, added) -> added.version() > current.version() ? added : current);
+    }
+
+    private ByteBuffer encode(ByteBuffer identity, ContentCoding coding) {
+        long start = System.nanoTime();
+        try {
+            byte[] content = new byte[identity.capacity()];
+            identity.get(0, content);
+            return direct(coding.encode(content));
+        } finally {
+            compressions.get(coding).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static ByteBuffer direct(byte[] bytes) {
+        return ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+    }
+
+    /**
+     * The parameters of a list request.
+     *
+     * @param filter the filter criteria
+     * @param after  the cursor (can be null)
+     * @param limit  the page size (can be null for all matching examples)
+     * @param format the format of the response
+     */
+    record ListQuery(ExampleFilter filter, Long after, Integer limit, WireFormat format) {
+    }
+
+    /**
+     * A serialized list response, ready to be written.
+     *
+     * @param body   the bytes of the response, as a read-only buffer of its own
+     * @param coding the coding the bytes are compressed with
+     */
+    record Payload(ByteBuffer body, ContentCoding coding) {
+    }
+
+    /**
+     * A cached list response, uncompressed and with the compressed versions built so far, all in direct memory.
+     */
+    private record CachedList(long version, ByteBuffer identity, Map<ContentCoding, ByteBuffer> encoded) {
+
+        CachedList with(ContentCoding coding, ByteBuffer body) {
+            Map<ContentCoding, ByteBuffer> withCoding = new EnumMap<>(ContentCoding.class);
+            withCoding.putAll(encoded);
+            withCoding.put(coding, body);
+            return new CachedList(version, identity, withCoding);
+        }
+
+        int weight() {
+            int weight = identity.capacity();
+            for (ByteBuffer body : encoded.values()) {
+                weight += body.capacity();
+            }
+            return weight;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.web.controller.v1;
+
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+/**
+ * The formats list responses are serialized in, in order of preference when a client accepts several equally.
+ */
+enum WireFormat {
+
+    JSON(MediaType.APPLICATION_JSON),
+    CBOR(MediaType.APPLICATION_CBOR),
+    SMILE(MediaType.valueOf(WireFormat.APPLICATION_SMILE_VALUE));
+
+    /**
+     * The media type of Smile, the binary JSON encoding of Jackson.
+     */
+    static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    private final MediaType mediaType;
+
+    WireFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    MediaType mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Picks the format of a response from the media types the client accepts.
+     * <p>
+     * Each format gets the quality of the most specific accepted media type including it, so {@code application/cbor}
+     * overrides {@code application/*}, which overrides {@code *}{@code /*}. Formats with a quality of 0 are refused.
+     * </p>
+     *
+     * @param accepted the media types of the {@code Accept} header, or an empty list if there is none
+     * @return the accepted format with the highest quality, or {@link #JSON} if none is accepted
+     */
+    static WireFormat negotiate(List<MediaType> accepted) {
+        WireFormat best = JSON;
+        double bestQuality = 0;
+        for (WireFormat format : values()) {
+            MediaType match = null;
+            for (MediaType mediaType : accepted) {
+                boolean moreSpecific = match == null || specificity(mediaType) > specificity(match);
+                if (moreSpecific && mediaType.includes(format.mediaType)) {
+                    match = mediaType;
+                }
+            }
+            // Strictly greater, so ties go to the format declared first
+            if (match != null && match.getQualityValue() > bestQuality) {
+                best = format;
+                bestQuality = match.getQualityValue();
+            }
+        }
+        return best;
+    }
+
+    private static int specificity(MediaType mediaType) {
+        return (mediaType.isWildcardType() ? 0 : 1) + (mediaType.isWildcardSubtype() ? 0 : 1);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.demo.web.model.v1.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response object for aggregated examples, holding one entry per group sorted by key.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AggregateExampleResponse {
+    private List<ExampleGroupResponse> groups;
+}
@@ -0,0 +1,57 @@
+package com.example.demo.web.model.v1.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response object for the outcome of one item of a batch request.
+ * <p>
+ * Batch responses hold one item per element of the request, in the same order, so that a failed item does not fail
+ * the whole batch.
+ * </p>
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResponse {
+
+    @Schema(description = "ID of the example the item refers to, if known", example = "12345")
+    private Long id;
+
+    @Schema(description = "HTTP status code the item would have had as a single request", example = "200")
+    private int status;
+
+    @Schema(description = "The example after the change; absent for deletions and failed items")
+    private ExampleResponse example;
+
+    @Schema(description = "Reason the item failed; absent for successful items", example = "Example not found.")
+    private String error;
+
+    /**
+     * Creates the result of a successful item.
+     *
+     * @param id      the ID of the example
+     * @param status  the HTTP status code of the item
+     * @param example the example after the change (can be null)
+     * @return the item result
+     */
+    public static BatchItemResponse success(Long id, int status, ExampleResponse example) {
+        return new BatchItemResponse(id, status, example, null);
+    }
+
+    /**
+     * Creates the result of a failed item.
+     *
+     * @param id     the ID of the example (can be null)
+     * @param status the HTTP status code of the item
+     * @param error  the reason the item failed
+     * @return the item result
+     */
+    public static BatchItemResponse failure(Long id, int status, String error) {
+        return new BatchItemResponse(id, status, null, error);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.demo.web.model.v1.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response object for one change of the change feed.
+ * <p>
+ * Changes carry the version assigned to them, which is also the version of the example they produced, so a client
+ * that applies changes in version order and remembers the last version it applied can resume from there.
+ * </p>
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ExampleChangeResponse {
+
+    @Schema(description = "Version of the change; increases with every change to any example", example = "42")
+    private long version;
+
+    @Schema(description = "Kind of change", example = "UPDATE")
+    private ChangeType type;
+
+    @Schema(description = "ID of the changed example", example = "12345")
+    private Long id;
+
+    @Schema(description = "The example after the change; absent for deletions")
+    private ExampleResponse example;
+
+    /**
+     * Enum representing the kinds of change made to an example.
+     */
+    public enum ChangeType {
+        CREATE, UPDATE, DELETE
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.demo.web.model.v1.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response object for the aggregated values of one group of examples.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ExampleGroupResponse {
+
+    @Schema(description = "Key of the group: a type, active flag, tag or first day of a date bucket; null for examples without a value", example = "PRO")
+    private String key;
+
+    @Schema(description = "Number of examples in the group", example = "42")
+    private long count;
+
+    @Schema(description = "Summary of the prices in the group")
+    private MetricSummaryResponse price;
+
+    @Schema(description = "Summary of the ages in the group")
+    private MetricSummaryResponse age;
+}
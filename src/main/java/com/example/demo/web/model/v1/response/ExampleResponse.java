@@ -10,6 +10,10 @@ import java.time.LocalDate;
 
 /**
  * Response object for single example operations.
+ * <p>
+ * Every change to an example assigns it a new {@code version}, taken from a single counter shared by all examples,
+ * so versions also order changes across examples and match the versions of the change feed.
+ * </p>
  */
 @Data
 @AllArgsConstructor
@@ -42,6 +46,27 @@ public class ExampleResponse {
     @Schema(description = "Type of example, represented as an enumeration", example = "BASIC")
     private ExampleRequest.ExampleType exampleType;
 
+    @Schema(description = "Version of the last change to the example; increases with every change to any example", example = "42", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
+
+    /**
+     * Creates an example that has not been assigned a version yet.
+     *
+     * @param id           the ID of the example
+     * @param name         the name of the example
+     * @param description  the description of the example
+     * @param age          the age associated with the example
+     * @param price        the price of the example
+     * @param isActive     whether the example is active
+     * @param creationDate the date of creation
+     * @param tags         the tags associated with the example
+     * @param exampleType  the type of the example
+     */
+    public ExampleResponse(Long id, String name, String description, Integer age, Double price, Boolean isActive,
+                           LocalDate creationDate, String[] tags, ExampleRequest.ExampleType exampleType) {
+        this(id, name, description, age, price, isActive, creationDate, tags, exampleType, null);
+    }
+
     /**
      * Enum representing example types.
      */
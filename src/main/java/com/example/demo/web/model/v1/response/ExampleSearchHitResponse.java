@@ -0,0 +1,20 @@
+package com.example.demo.web.model.v1.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response object for one example matching a full-text search.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ExampleSearchHitResponse {
+
+    @Schema(description = "Relevance of the example to the query; higher is better", example = "4.2")
+    private double score;
+
+    private ExampleResponse example;
+}
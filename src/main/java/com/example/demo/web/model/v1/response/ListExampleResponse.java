@@ -1,5 +1,7 @@
 package com.example.demo.web.model.v1.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -14,4 +16,8 @@ import java.util.List;
 @NoArgsConstructor
 public class ListExampleResponse {
     private List<ExampleResponse> examples;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Cursor to pass as 'after' to fetch the next page; absent on the last page", example = "12345")
+    private Long nextCursor;
 }
\ No newline at end of file
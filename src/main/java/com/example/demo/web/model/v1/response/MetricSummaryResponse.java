@@ -0,0 +1,34 @@
+package com.example.demo.web.model.v1.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response object summarizing the values of one numeric field over a group of examples.
+ * <p>
+ * Examples without a value for the field are left out; the minimum, maximum and average are {@code null} when no
+ * example of the group has a value.
+ * </p>
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class MetricSummaryResponse {
+
+    @Schema(description = "Number of examples with a value", example = "42")
+    private long count;
+
+    @Schema(description = "Sum of the values", example = "4200.0")
+    private double sum;
+
+    @Schema(description = "Smallest value", example = "10.0")
+    private Double min;
+
+    @Schema(description = "Largest value", example = "190.0")
+    private Double max;
+
+    @Schema(description = "Average of the values", example = "100.0")
+    private Double avg;
+}
@@ -0,0 +1,17 @@
+package com.example.demo.web.model.v1.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response object for a full-text search, holding the best matches first.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchExampleResponse {
+    private List<ExampleSearchHitResponse> hits;
+}
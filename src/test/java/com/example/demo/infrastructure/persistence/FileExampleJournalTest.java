@@ -0,0 +1,195 @@
+package com.example.demo.infrastructure.persistence;
+
+import com.example.demo.service.store.ExampleStore;
+import com.example.demo.web.model.v1.request.ExampleRequest.ExampleType;
+import com.example.demo.web.model.v1.response.ExampleResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileExampleJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void emptyDirectoryRecoversNothing() {
+        try (FileExampleJournal journal = journal()) {
+            assertThat(journal.recover(new ExampleStore())).isFalse();
+        }
+    }
+
+    @Test
+    void replaysLoggedChangesInOrder() {
+        ExampleStore store = new ExampleStore();
+        FileExampleJournal journal = journal();
+        journal.recover(store);
+        journal.recordPut(example(1L, "first")).join();
+        journal.recordPut(example(2L, "second")).join();
+        journal.recordPut(example(1L, "renamed")).join();
+        journal.recordDelete(2L, 4).join();
+        // The journal is abandoned without close(), as after a crash: no final snapshot is written
+
+        ExampleStore recovered = recover();
+        assertThat(recovered.stream().map(ExampleResponse::getId)).containsExactly(1L);
+        assertThat(recovered.get(1L)).usingRecursiveComparison().isEqualTo(example(1L, "renamed"));
+    }
+
+    @Test
+    void snapshotCompactsTheLogAndLaterChangesAreReplayedOnTop() throws IOException {
+        ExampleStore store = new ExampleStore();
+        FileExampleJournal journal = journal();
+        journal.recover(store);
+        for (long id = 1; id <= 100; id++) {
+            ExampleResponse example = example(id, "example " + id);
+            store.put(example);
+            journal.recordPut(example);
+        }
+        journal.snapshot();
+        store.remove(50L);
+        journal.recordDelete(50L, 101).join();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.map(path -> path.getFileName().toString()))
+                    .contains("snapshot.bin")
+                    .doesNotContain("wal-0000000000.log");
+        }
+        ExampleStore recovered = recover();
+        assertThat(recovered.size()).isEqualTo(99);
+        assertThat(recovered.get(50L)).isNull();
+        assertThat(recovered.get(100L).getName()).isEqualTo("example 100");
+        recovered.hydration().join();
+        assertThat(recovered.size()).isEqualTo(99);
+        assertThat(recovered.stream().map(ExampleResponse::getId)).hasSize(99).doesNotContain(50L);
+    }
+
+    @Test
+    void versionsSurviveSnapshotsAndReplay() throws IOException {
+        ExampleStore store = new ExampleStore();
+        FileExampleJournal journal = journal();
+        journal.recover(store);
+        ExampleResponse example = example(1L, "versioned");
+        example.setVersion(5L);
+        store.put(example);
+        journal.recordPut(example).join();
+        journal.recordDelete(2L, 9).join();
+        journal.snapshot();
+        journal.recordDelete(3L, 12).join();
+
+        // Recovered from the snapshot and the log, then from the final snapshot alone
+        for (int restart = 0; restart < 2; restart++) {
+            ExampleStore recovered = new ExampleStore();
+            try (FileExampleJournal reopened = journal()) {
+                reopened.recover(recovered);
+                assertThat(reopened.lastVersion()).isEqualTo(12);
+            }
+            assertThat(recovered.get(1L).getVersion()).isEqualTo(5L);
+        }
+    }
+
+    @Test
+    void tornEntryAtTheEndOfTheLogIsIgnored() throws IOException {
+        FileExampleJournal journal = journal();
+        journal.recover(new ExampleStore());
+        journal.recordPut(example(1L, "kept")).join();
+        Files.write(directory.resolve("wal-0000000000.log"), new byte[]{0, 0, 0, 42, 1, 2},
+                StandardOpenOption.APPEND);
+
+        assertThat(recover().stream().map(ExampleResponse::getName)).containsExactly("kept");
+    }
+
+    @Test
+    void snapshotsTakenWhileWritingKeepEveryLoggedChange() throws Exception {
+        ExampleStore store = new ExampleStore();
+        FileExampleJournal journal = journal();
+        journal.recover(store);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Future<?>> writers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            for (int writer = 0; writer < 4; writer++) {
+                long firstId = writer * 100L + 1;
+                writers.add(executor.submit(() -> {
+                    for (long round = 0; writing.get(); round++) {
+                        long id = firstId + round % 100;
+                        ExampleResponse next = example(id, "round " + round);
+                        next.setVersion(round);
+                        journal.change(() -> store.compute(id, current -> {
+                            journal.recordPut(next);
+                            // Widens the window between logging the change and the store publishing it
+                            LockSupport.parkNanos(20_000);
+                            return next;
+                        }));
+                    }
+                    return null;
+                }));
+            }
+            for (int snapshot = 0; snapshot < 20; snapshot++) {
+                journal.snapshot();
+                Thread.sleep(5);
+            }
+            writing.set(false);
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        }
+        journal.recordDelete(0L, 0).join(); // Flushes every entry queued before it
+        // Abandoned without close(), so recovery relies on the last snapshot and the segments after it
+
+        ExampleStore recovered = recover();
+        recovered.hydration().join();
+        assertThat(recovered.size()).isEqualTo(store.size());
+        store.stream().forEach(example ->
+                assertThat(recovered.get(example.getId()).getName()).isEqualTo(example.getName()));
+    }
+
+    @Test
+    void segmentsAfterATornOneAreStillReplayed() throws IOException {
+        FileExampleJournal journal = journal();
+        journal.recover(new ExampleStore());
+        journal.recordPut(example(1L, "before")).join();
+        Files.write(directory.resolve("wal-0000000000.log"), new byte[]{0, 0, 0, 42, 1, 2},
+                StandardOpenOption.APPEND);
+
+        // Recovery continues in a new segment, which must survive the torn tail of the first one
+        FileExampleJournal reopened = journal();
+        reopened.recover(new ExampleStore());
+        reopened.recordPut(example(2L, "after")).join();
+
+        assertThat(recover().stream().map(ExampleResponse::getName)).containsExactly("before", "after");
+    }
+
+    private FileExampleJournal journal() {
+        ExamplePersistenceProperties properties = new ExamplePersistenceProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory);
+        return new FileExampleJournal(properties);
+    }
+
+    private ExampleStore recover() {
+        ExampleStore store = new ExampleStore();
+        try (FileExampleJournal journal = journal()) {
+            assertThat(journal.recover(store)).isTrue();
+        }
+        return store;
+    }
+
+    private static ExampleResponse example(long id, String name) {
+        return new ExampleResponse(id, name, "Description", 30, 99.5, true, LocalDate.of(2024, 1, 1),
+                new String[]{"tag", null}, ExampleType.ADVANCED);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.demo.infrastructure.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 4, 100, now::get);
+
+    @Test
+    void requestsOverTheLimitAreRejected() {
+        for (int i = 0; i < 20; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+        assertThat(limiter.tryAcquire()).isFalse();
+        limiter.release(-1);
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.inFlight()).isEqualTo(20);
+    }
+
+    @Test
+    void theLimitShrinksWhenLatencyClimbsAndGrowsWhenItRecovers() {
+        runWindows(10, 20, TimeUnit.MILLISECONDS.toNanos(10));
+        int baseline = limiter.limit();
+        assertThat(baseline).isGreaterThan(20);
+
+        runWindows(10, baseline, TimeUnit.MILLISECONDS.toNanos(100));
+        int overloaded = limiter.limit();
+        assertThat(overloaded).isLessThan(baseline);
+
+        runWindows(10, overloaded, TimeUnit.MILLISECONDS.toNanos(10));
+        assertThat(limiter.limit()).isGreaterThan(overloaded);
+    }
+
+    @Test
+    void theLimitDoesNotGrowWhileMostOfItIsUnused() {
+        runWindows(20, 2, TimeUnit.MILLISECONDS.toNanos(10));
+        assertThat(limiter.limit()).isEqualTo(20);
+    }
+
+    /**
+     * Runs windows of requests, each filling the given number of slots at once and taking the given time.
+     */
+    private void runWindows(int windows, int concurrency, long latencyNanos) {
+        for (int window = 0; window < windows; window++) {
+            for (int batch = 0; batch < 16; batch += concurrency) {
+                int admitted = 0;
+                while (admitted < concurrency && limiter.tryAcquire()) {
+                    admitted++;
+                }
+                for (int i = 0; i < admitted; i++) {
+                    limiter.release(latencyNanos);
+                }
+            }
+            now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        }
+    }
+}
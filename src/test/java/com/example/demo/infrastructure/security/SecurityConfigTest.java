@@ -0,0 +1,39 @@
+package com.example.demo.infrastructure.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false) // Exposes the Prometheus endpoint, which tests disable by default
+class SecurityConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void onlyHealthIsPublicAmongActuatorEndpoints() throws Exception {
+        String token = mockMvc.perform(get("/api/auth/token")).andReturn().getResponse().getContentAsString();
+
+        assertThat(status("/actuator/health", null)).isEqualTo(200);
+        assertThat(status("/actuator/prometheus", null)).isEqualTo(403);
+        assertThat(status("/actuator/prometheus", token)).isEqualTo(200);
+    }
+
+    private int status(String path, String token) throws Exception {
+        MockHttpServletRequestBuilder request = get(path);
+        if (token != null) {
+            request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        }
+        return mockMvc.perform(request).andReturn().getResponse().getStatus();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.demo.infrastructure.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+    private final TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 3, 100, now::get);
+
+    @Test
+    void burstsAreAllowedUpToTheBucketSizeThenRefilledAtTheRate() {
+        assertThat(limiter.tryAcquire("alice")).isZero();
+        assertThat(limiter.tryAcquire("alice")).isZero();
+        assertThat(limiter.tryAcquire("alice")).isZero();
+        assertThat(limiter.tryAcquire("alice")).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        // Other subjects have buckets of their own
+        assertThat(limiter.tryAcquire("bob")).isZero();
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(limiter.tryAcquire("alice")).isZero();
+        assertThat(limiter.tryAcquire("alice")).isPositive();
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("alice")).isZero();
+        }
+        assertThat(limiter.tryAcquire("alice")).isPositive();
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.demo.infrastructure.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.demo.domain.Constants.TOKEN_VALIDITY;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenStoreTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+    private final TokenStore tokenStore = new TokenStore(100, now::get);
+
+    @Test
+    void issuedTokensAreKnownUntilTheyExpire() {
+        tokenStore.add("issued");
+
+        assertThat(tokenStore.contains("issued")).isTrue();
+        assertThat(tokenStore.contains("unknown")).isFalse();
+
+        now.addAndGet(TOKEN_VALIDITY.toNanos() - 1);
+        assertThat(tokenStore.contains("issued")).isTrue();
+        now.addAndGet(1);
+        assertThat(tokenStore.contains("issued")).isFalse();
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.demo.service;
+
+import com.example.demo.service.store.ExampleStore;
+import com.example.demo.web.model.v1.request.ExampleRequest.ExampleType;
+import com.example.demo.web.model.v1.response.AggregateExampleResponse;
+import com.example.demo.web.model.v1.response.ExampleGroupResponse;
+import com.example.demo.web.model.v1.response.ExampleResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExampleAggregatorTest {
+
+    private final List<ExampleResponse> examples = LongStream.rangeClosed(1, 100_000)
+            .mapToObj(id -> new ExampleResponse(id, "Example " + id, null, id % 10 == 0 ? null : (int) (id % 50),
+                    (double) id, id % 2 == 0, LocalDate.of(2024, 1, 1).plusDays(id % 60),
+                    id % 3 == 0 ? null : new String[]{"tag" + id % 3, "all"}, ExampleType.values()[(int) (id % 3)]))
+            .toList();
+
+    @Test
+    void parallelAggregationMatchesSequentialAggregation() {
+        for (ExampleGrouping grouping : ExampleGrouping.values()) {
+            AggregateExampleResponse parallel = examples.parallelStream()
+                    .collect(ExampleAggregator.collector(grouping, ExampleGrouping.DateBucket.MONTH));
+            AggregateExampleResponse sequential = examples.stream()
+                    .collect(ExampleAggregator.collector(grouping, ExampleGrouping.DateBucket.MONTH));
+            assertThat(parallel).usingRecursiveComparison().isEqualTo(sequential);
+        }
+    }
+
+    @Test
+    void columnarAggregationMatchesTheCollector() {
+        ExampleStore store = new ExampleStore(ExampleStore.Layout.COLUMNAR);
+        examples.forEach(store::put);
+        List<ExampleFilter> filters = List.of(
+                new ExampleFilter(),
+                new ExampleFilter(ExampleType.ADVANCED, true, null, null, null),
+                new ExampleFilter(null, false, List.of("tag2", "all"), LocalDate.of(2024, 1, 15), null),
+                new ExampleFilter(null, null, null, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 10)),
+                new ExampleFilter(null, null, List.of("unknown"), null, null));
+
+        for (ExampleFilter filter : filters) {
+            for (ExampleGrouping grouping : ExampleGrouping.values()) {
+                AggregateExampleResponse columnar = store.aggregate(filter, grouping, ExampleGrouping.DateBucket.WEEK);
+                AggregateExampleResponse collected = examples.stream().filter(filter::matches)
+                        .collect(ExampleAggregator.collector(grouping, ExampleGrouping.DateBucket.WEEK));
+                assertThat(columnar).as("%s by %s", filter, grouping)
+                        .usingRecursiveComparison().isEqualTo(collected);
+            }
+        }
+    }
+
+    @Test
+    void groupsReportCountsAndFieldStatistics() {
+        List<ExampleGroupResponse> groups = examples.parallelStream()
+                .collect(ExampleAggregator.collector(ExampleGrouping.TAG, ExampleGrouping.DateBucket.DAY))
+                .getGroups();
+
+        assertThat(groups).extracting(ExampleGroupResponse::getKey).containsExactly("all", "tag1", "tag2", null);
+        ExampleGroupResponse all = groups.get(0);
+        assertThat(all.getCount()).isEqualTo(66_667);
+        assertThat(all.getPrice().getMin()).isEqualTo(1.0);
+        assertThat(all.getPrice().getMax()).isEqualTo(100_000.0);
+        assertThat(all.getAge().getCount()).isLessThan(all.getCount());
+        assertThat(groups.get(3).getCount()).isEqualTo(33_333);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.demo.service;
+
+import com.example.demo.web.model.v1.response.ExampleChangeResponse;
+import com.example.demo.web.model.v1.response.ExampleChangeResponse.ChangeType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExampleChangeFeedTest {
+
+    @Test
+    void changesBecomeVisibleOnceEveryEarlierVersionIsPublished() throws InterruptedException {
+        ExampleChangeFeed feed = new ExampleChangeFeed(8);
+        feed.startAt(10);
+
+        feed.publish(change(12));
+        assertThat(feed.publishedVersion()).isEqualTo(10);
+        assertThat(feed.changesAfter(10, 100)).isEmpty();
+        assertThat(feed.awaitChangesAfter(10, Duration.ofMillis(10))).isFalse();
+
+        feed.publish(change(11));
+        assertThat(feed.publishedVersion()).isEqualTo(12);
+        assertThat(feed.changesAfter(10, 100)).extracting(ExampleChangeResponse::getVersion).containsExactly(11L, 12L);
+        assertThat(feed.changesAfter(11, 100)).extracting(ExampleChangeResponse::getVersion).containsExactly(12L);
+        assertThat(feed.awaitChangesAfter(10, Duration.ofMillis(10))).isTrue();
+    }
+
+    @Test
+    void readersOutsideTheBufferHaveToResynchronize() {
+        ExampleChangeFeed feed = new ExampleChangeFeed(8);
+        feed.startAt(0);
+        for (long version = 1; version <= 20; version++) {
+            feed.publish(change(version));
+        }
+
+        assertThat(feed.changesAfter(0, 100)).isNull();
+        assertThat(feed.changesAfter(11, 100)).isNull();
+        assertThat(feed.changesAfter(12, 100)).extracting(ExampleChangeResponse::getVersion)
+                .containsExactly(13L, 14L, 15L, 16L, 17L, 18L, 19L, 20L);
+        assertThat(feed.changesAfter(20, 100)).isEmpty();
+    }
+
+    @Test
+    void theFeedGivesUpOnStalledVersionsInsteadOfBlockingPublishers() {
+        ExampleChangeFeed feed = new ExampleChangeFeed(2, Duration.ofMillis(50));
+        feed.startAt(0);
+        for (int i = 0; i < 6; i++) {
+            feed.nextVersion();
+        }
+
+        // Versions 1 and 2 stall; every later change is still published, once
+        feed.publish(change(3));
+        feed.publish(change(4));
+        feed.publish(change(5));
+        assertThat(feed.publishedVersion()).isEqualTo(5);
+        assertThat(feed.changesAfter(0, 100)).isNull();
+        assertThat(feed.changesAfter(3, 100)).extracting(ExampleChangeResponse::getVersion).containsExactly(4L, 5L);
+
+        // The stalled changes arrive late and are dropped without disturbing newer ones
+        feed.publish(change(1));
+        feed.publish(change(2));
+        feed.publish(change(6));
+        assertThat(feed.publishedVersion()).isEqualTo(6);
+        assertThat(feed.changesAfter(4, 100)).extracting(ExampleChangeResponse::getVersion).containsExactly(5L, 6L);
+    }
+
+    private static ExampleChangeResponse change(long version) {
+        return new ExampleChangeResponse(version, ChangeType.DELETE, version, null);
+    }
+}
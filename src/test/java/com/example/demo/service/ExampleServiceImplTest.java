@@ -0,0 +1,111 @@
+package com.example.demo.service;
+
+import com.example.demo.infrastructure.persistence.NoOpExampleJournal;
+import com.example.demo.service.store.ExampleStore;
+import com.example.demo.web.model.v1.request.ExampleRequest;
+import com.example.demo.web.model.v1.response.BatchItemResponse;
+import com.example.demo.web.model.v1.response.ExampleChangeResponse;
+import com.example.demo.web.model.v1.response.ExampleChangeResponse.ChangeType;
+import com.example.demo.web.model.v1.response.ExampleResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExampleServiceImplTest {
+
+    private final ExampleServiceImpl service =
+            new ExampleServiceImpl(new ExampleStore(), new NoOpExampleJournal(), new ExampleChangeFeed(64));
+
+    @Test
+    void changesExpectingAnOutdatedVersionAreRejected() {
+        ExampleResponse created = service.createExample(request("first", 10));
+        ExampleResponse updated = service.updateExample(created.getId(), request("second", 20), created.getVersion());
+
+        assertThat(updated.getVersion()).isGreaterThan(created.getVersion());
+        assertThatThrownBy(() -> service.updateExample(created.getId(), request("lost", 30), created.getVersion()))
+                .isInstanceOf(ExampleVersionConflictException.class)
+                .extracting("currentVersion").isEqualTo(updated.getVersion());
+        assertThatThrownBy(() -> service.deleteExample(created.getId(), created.getVersion()))
+                .isInstanceOf(ExampleVersionConflictException.class);
+        assertThat(service.listExamples(ExampleFilter.ofType(null))).containsExactly(updated);
+        // The previously returned example is a separate object and was not changed
+        assertThat(created.getName()).isEqualTo("first");
+    }
+
+    @Test
+    void patchesOnlyChangeTheGivenDetails() {
+        ExampleResponse created = service.createExample(request("first", 10));
+        ExampleResponse patched = service.patchExample(created.getId(), details -> {
+            details.setAge(11);
+            details.setTags(null);
+            return details;
+        }, null);
+
+        assertThat(patched.getName()).isEqualTo("first");
+        assertThat(patched.getAge()).isEqualTo(11);
+        assertThat(patched.getTags()).isNull();
+        assertThat(patched.getCreationDate()).isEqualTo(created.getCreationDate());
+        assertThat(created.getTags()).containsExactly("tag");
+    }
+
+    @Test
+    void batchItemsFailOneByOne() {
+        List<BatchItemResponse> created = service.createExamples(Arrays.asList(request("a", 1), null, request("b", 2)));
+        assertThat(created).extracting(BatchItemResponse::getStatus).containsExactly(200, 400, 200);
+        Long id = created.get(0).getId();
+
+        ExampleRequest existing = request("inserted", 3);
+        existing.setId(id);
+        ExampleRequest missing = request("missing", 4);
+        missing.setId(id + 1_000);
+        assertThat(service.insertExamples(List.of(existing, missing)))
+                .extracting(BatchItemResponse::getStatus).containsExactly(409, 200);
+        missing.setId(id + 2_000);
+        assertThat(service.updateExamples(Arrays.asList(existing, missing, null)))
+                .extracting(BatchItemResponse::getStatus).containsExactly(200, 404, 400);
+        assertThat(service.deleteExamples(Arrays.asList(id, id, null)))
+                .extracting(BatchItemResponse::getStatus).containsExactly(204, 404, 400);
+    }
+
+    @Test
+    void versionsOfFailedChangesArePublishedWithoutTheChange() {
+        ExampleChangeFeed feed = new ExampleChangeFeed(64);
+        ExampleServiceImpl failing = new ExampleServiceImpl(new ExampleStore(), new NoOpExampleJournal() {
+            @Override
+            public CompletableFuture<Void> recordPut(ExampleResponse example) {
+                if (example.getName().equals("unwritable")) {
+                    throw new IllegalStateException("Journal closed");
+                }
+                return super.recordPut(example);
+            }
+        }, feed);
+        feed.startAt(0);
+        ExampleResponse created = failing.createExample(request("first", 10));
+
+        assertThatThrownBy(() -> failing.updateExample(created.getId(), request("unwritable", 20), null))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> failing.createExample(request("unwritable", 30)))
+                .isInstanceOf(IllegalStateException.class);
+        ExampleResponse next = failing.createExample(request("second", 40));
+
+        assertThat(feed.publishedVersion()).isEqualTo(next.getVersion()).isEqualTo(4);
+        List<ExampleChangeResponse> changes = feed.changesAfter(0, 10);
+        assertThat(changes).extracting(ExampleChangeResponse::getType)
+                .containsExactly(ChangeType.CREATE, ChangeType.UPDATE, ChangeType.DELETE, ChangeType.CREATE);
+        assertThat(changes.get(1).getExample().getName()).isEqualTo("first");
+        assertThat(changes.get(2).getExample()).isNull();
+        assertThat(failing.listExamples(ExampleFilter.ofType(null))).extracting(ExampleResponse::getName)
+                .containsExactly("first", "second");
+    }
+
+    private static ExampleRequest request(String name, int age) {
+        return new ExampleRequest(null, name, "description", age, 1.5, true, LocalDate.of(2024, 1, 1),
+                new String[]{"tag"}, ExampleRequest.ExampleType.BASIC);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.demo.service;
+
+import com.example.demo.infrastructure.persistence.NoOpExampleJournal;
+import com.example.demo.service.store.ExampleStore;
+import com.example.demo.web.model.v1.request.ExampleRequest;
+import com.example.demo.web.model.v1.response.ExampleResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExecutorAsyncExampleServiceTest {
+
+    private final AtomicReference<String> listingThread = new AtomicReference<>();
+
+    private final ExecutorAsyncExampleService service = new ExecutorAsyncExampleService(
+            new ExampleServiceImpl(new ExampleStore(), new NoOpExampleJournal(), new ExampleChangeFeed(64)) {
+                @Override
+                public List<ExampleResponse> listExamples(ExampleFilter filter) {
+                    listingThread.set(Thread.currentThread().getName());
+                    return super.listExamples(filter);
+                }
+            },
+            Executors.newSingleThreadExecutor(Thread.ofPlatform().name("async-test").factory()));
+
+    @AfterEach
+    void close() {
+        service.close();
+    }
+
+    @Test
+    void operationsCompleteOnTheExecutorWithTheirResultOrException() {
+        ExampleResponse created = service.createExample(request("first")).join();
+        CompletableFuture<ExampleResponse> conflicting = service.updateExample(created.getId(), request("second"),
+                created.getVersion() + 1);
+
+        // Checked inside the task: a dependent stage of an already completed future runs on the caller's thread
+        service.listExamples(ExampleFilter.ofType(null)).join();
+        assertThat(listingThread).hasValue("async-test");
+        assertThat(conflicting).failsWithin(Duration.ofSeconds(1))
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(ExampleVersionConflictException.class);
+        assertThat(service.listExamples(ExampleFilter.ofType(null)).join()).containsExactly(created);
+    }
+
+    private static ExampleRequest request(String name) {
+        return new ExampleRequest(null, name, "description", 10, 1.5, true, LocalDate.of(2024, 1, 1),
+                new String[]{"tag"}, ExampleRequest.ExampleType.BASIC);
+    }
+}
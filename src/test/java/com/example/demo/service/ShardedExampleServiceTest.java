@@ -0,0 +1,95 @@
+package com.example.demo.service;
+
+import com.example.demo.infrastructure.persistence.ExamplePersistenceProperties;
+import com.example.demo.service.store.CachingExampleRepository;
+import com.example.demo.service.store.ExampleStore;
+import com.example.demo.web.model.v1.request.ExampleRequest;
+import com.example.demo.web.model.v1.response.AggregateExampleResponse;
+import com.example.demo.web.model.v1.response.BatchItemResponse;
+import com.example.demo.web.model.v1.response.ExampleResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShardedExampleServiceTest {
+
+    private final IdGenerator idGenerator = new IdGenerator(0, 1);
+    private final ExampleRepositoryCache noCache = new ExampleRepositoryCache(false, 0,
+            CachingExampleRepository.WriteMode.WRITE_THROUGH, Duration.ZERO, new ExamplePersistenceProperties());
+    private final LocalExampleShards shards = new LocalExampleShards(4, ExampleStore.Layout.OBJECT,
+            new ExamplePersistenceProperties(), new ExampleChangeFeed(1024), idGenerator, noCache);
+    private final ShardedExampleService service = new ShardedExampleService(shards.shards(), 64, idGenerator);
+
+    @AfterEach
+    void close() {
+        service.close();
+        shards.close();
+    }
+
+    @Test
+    void examplesAreSpreadOverShardsAndMergedInIdOrder() {
+        List<ExampleRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            requests.add(request("example " + i, i));
+        }
+        requests.add(1, null);
+        List<BatchItemResponse> results = service.createExamples(requests);
+
+        assertThat(results.get(1).getStatus()).isEqualTo(400);
+        assertThat(shards.stores()).allSatisfy(store -> assertThat(store.size()).isBetween(20L, 80L));
+        List<ExampleResponse> all = service.listExamples(ExampleFilter.ofType(null));
+        assertThat(all).extracting(ExampleResponse::getId).containsExactlyElementsOf(
+                LongStream.rangeClosed(1, 200).boxed().toList());
+        assertThat(all).allSatisfy(example ->
+                assertThat(service.shardFor(example.getId()).listExamples(ExampleFilter.ofType(null))).contains(example));
+        assertThat(service.listExamples(ExampleFilter.ofType(null), 50L, 10)).isEqualTo(all.subList(50, 60));
+        try (Stream<ExampleResponse> stream = service.streamExamples(ExampleFilter.ofType(null), 190L)) {
+            assertThat(stream).isEqualTo(all.subList(190, 200));
+        }
+
+        AggregateExampleResponse aggregate = service.aggregateExamples(ExampleFilter.ofType(null),
+                ExampleGrouping.NONE, null);
+        assertThat(aggregate.getGroups()).singleElement().satisfies(group -> {
+            assertThat(group.getCount()).isEqualTo(200);
+            assertThat(group.getAge().getMin()).isEqualTo(0.0);
+            assertThat(group.getAge().getMax()).isEqualTo(199.0);
+            assertThat(group.getAge().getAvg()).isEqualTo(99.5);
+        });
+    }
+
+    @Test
+    void writesAreRoutedToTheOwningShard() {
+        ExampleResponse created = service.createExample(request("first", 10));
+        ExampleResponse updated = service.updateExample(created.getId(), request("second", 20), created.getVersion());
+        long version = service.listVersion(null);
+
+        assertThat(service.shardFor(created.getId()).listExamples(ExampleFilter.ofType(null))).containsExactly(updated);
+        assertThat(service.deleteExamples(List.of(created.getId(), 999L)))
+                .extracting(BatchItemResponse::getStatus).containsExactly(204, 404);
+        assertThat(service.listExamples(ExampleFilter.ofType(null))).isEmpty();
+        assertThat(service.listVersion(null)).isGreaterThan(version);
+    }
+
+    @Test
+    void nodesNeverGenerateTheSameId() {
+        IdGenerator first = new IdGenerator(0, 2);
+        IdGenerator second = new IdGenerator(1, 2);
+        second.startAfter(7);
+
+        assertThat(first.next(3)).containsExactly(2, 4, 6);
+        assertThat(second.next(3)).containsExactly(9, 11, 13);
+    }
+
+    private static ExampleRequest request(String name, int age) {
+        return new ExampleRequest(null, name, "description", age, 1.5, true, LocalDate.of(2024, 1, 1),
+                new String[]{"tag"}, ExampleRequest.ExampleType.BASIC);
+    }
+}
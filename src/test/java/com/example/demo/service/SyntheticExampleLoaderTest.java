@@ -0,0 +1,19 @@
+package com.example.demo.service;
+
+import com.example.demo.infrastructure.persistence.ExamplePersistenceProperties;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SyntheticExampleLoaderTest {
+
+    @Test
+    void loadingIsRefusedWithPersistence() {
+        ExamplePersistenceProperties persistence = new ExamplePersistenceProperties();
+        persistence.setEnabled(true);
+
+        assertThatThrownBy(() -> new SyntheticExampleLoader(null, 1_000, 42, 100, persistence))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("example.persistence.enabled");
+    }
+}
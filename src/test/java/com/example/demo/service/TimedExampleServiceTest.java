@@ -0,0 +1,76 @@
+package com.example.demo.service;
+
+import com.example.demo.infrastructure.persistence.NoOpExampleJournal;
+import com.example.demo.service.store.ExampleStore;
+import com.example.demo.service.store.ExampleStoreMetrics;
+import com.example.demo.web.model.v1.request.ExampleRequest;
+import com.example.demo.web.model.v1.response.ExampleResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimedExampleServiceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ExampleStore store = new ExampleStore();
+    private final ExampleService service = new TimedExampleService(
+            new ExampleServiceImpl(store, new NoOpExampleJournal(), new ExampleChangeFeed(64)), registry);
+
+    TimedExampleServiceTest() {
+        new ExampleStoreMetrics(List.of(store)).bindTo(registry);
+    }
+
+    @Test
+    void everyCallIsTimedIncludingFailedOnes() {
+        ExampleResponse created = service.createExample(request("first", "red", 1));
+        service.updateExample(created.getId(), request("second", "red", 1));
+        assertThatThrownBy(() -> service.updateExample(Long.MAX_VALUE, request("absent", "red", 1)))
+                .isInstanceOf(ExampleNotFoundException.class);
+        service.listExamples(ExampleFilter.ofType(null));
+
+        assertThat(calls("createExample")).isEqualTo(1);
+        assertThat(calls("updateExample")).isEqualTo(2);
+        assertThat(calls("listExamples")).isEqualTo(1);
+        assertThat(calls("deleteExample")).isZero();
+        assertThat(registry.get("example.service").tag("method", "updateExample").timer()
+                .totalTime(TimeUnit.NANOSECONDS)).isPositive();
+    }
+
+    @Test
+    void storeGaugesFollowWrites() {
+        ExampleResponse first = service.createExample(request("first", "red", 1));
+        service.createExample(request("second", "blue", 2));
+        assertThat(gauge("example.store.size")).isEqualTo(2);
+        assertThat(index("tag")).isEqualTo(2);
+        assertThat(index("creationDate")).isEqualTo(2);
+
+        service.deleteExample(first.getId());
+        assertThat(gauge("example.store.size")).isEqualTo(1);
+        assertThat(index("tag")).isEqualTo(1);
+        assertThat(index("creationDate")).isEqualTo(2); // Empty date buckets are kept
+        assertThat(registry.get("example.store.writes").functionCounter().count()).isEqualTo(3);
+    }
+
+    private long calls(String method) {
+        return registry.get("example.service").tag("method", method).timer().count();
+    }
+
+    private double gauge(String name) {
+        return registry.get(name).gauge().value();
+    }
+
+    private double index(String index) {
+        return registry.get("example.store.index.size").tag("index", index).gauge().value();
+    }
+
+    private static ExampleRequest request(String name, String tag, int day) {
+        return new ExampleRequest(null, name, "description", 30, 1.5, true, LocalDate.of(2024, 1, day),
+                new String[]{tag}, ExampleRequest.ExampleType.BASIC);
+    }
+}
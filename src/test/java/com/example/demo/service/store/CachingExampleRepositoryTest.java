@@ -0,0 +1,165 @@
+package com.example.demo.service.store;
+
+import com.example.demo.infrastructure.persistence.ExampleJournal;
+import com.example.demo.service.ExampleFilter;
+import com.example.demo.service.store.CachingExampleRepository.WriteMode;
+import com.example.demo.web.model.v1.request.ExampleRequest.ExampleType;
+import com.example.demo.web.model.v1.response.ExampleResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachingExampleRepositoryTest {
+
+    private final SlowExampleRepository backing = new SlowExampleRepository(Duration.ofMillis(1));
+
+    @Test
+    void repeatedReadsAreServedFromTheCache() {
+        for (long id = 1; id <= 10; id++) {
+            backing.store.put(example(id, "stored"));
+        }
+        CachingExampleRepository repository =
+                new CachingExampleRepository(backing, 100, WriteMode.WRITE_THROUGH, Duration.ofHours(1));
+
+        for (int round = 0; round < 5; round++) {
+            for (long id = 1; id <= 10; id++) {
+                assertThat(repository.get(id).getName()).isEqualTo("stored");
+            }
+        }
+
+        assertThat(backing.gets).hasValue(10);
+        assertThat(repository.stats().missCount()).isEqualTo(10);
+        assertThat(repository.stats().hitCount()).isEqualTo(40);
+    }
+
+    @Test
+    void frequentlyReadExamplesSurviveAScan() {
+        for (long id = 1; id <= 1_000; id++) {
+            backing.store.put(example(id, "stored"));
+        }
+        CachingExampleRepository repository =
+                new CachingExampleRepository(backing, 100, WriteMode.WRITE_THROUGH, Duration.ofHours(1));
+        for (int round = 0; round < 10; round++) {
+            for (long id = 1; id <= 50; id++) {
+                repository.get(id);
+            }
+        }
+
+        for (long id = 101; id <= 1_000; id++) {
+            repository.get(id); // Read once each, as by a scan
+        }
+        int before = backing.gets.get();
+        for (long id = 1; id <= 50; id++) {
+            repository.get(id);
+        }
+
+        assertThat(repository.size()).isLessThanOrEqualTo(100);
+        assertThat(backing.gets.get() - before).isLessThan(5);
+    }
+
+    @Test
+    void writesThroughBeforeReturning() {
+        CachingExampleRepository repository =
+                new CachingExampleRepository(backing, 100, WriteMode.WRITE_THROUGH, Duration.ofHours(1));
+
+        repository.compute(1L, current -> example(1, "created"));
+        repository.compute(1L, current -> example(1, current.getName() + " and updated"));
+
+        assertThat(backing.store.get(1L).getName()).isEqualTo("created and updated");
+        assertThat(repository.get(1L).getName()).isEqualTo("created and updated");
+        assertThat(backing.gets).hasValue(0);
+    }
+
+    @Test
+    void writesBehindAndCoalescesChangesUntilFlushed() {
+        CachingExampleRepository repository =
+                new CachingExampleRepository(backing, 100, WriteMode.WRITE_BEHIND, Duration.ofHours(1));
+
+        repository.compute(1L, current -> example(1, "version 0"));
+        for (int i = 1; i <= 100; i++) {
+            String name = "version " + i;
+            repository.compute(1L, current -> example(1, name));
+        }
+        repository.compute(2L, current -> example(2, "deleted"));
+        repository.compute(2L, current -> null);
+
+        assertThat(backing.computes).hasValue(0);
+        assertThat(repository.pendingWrites()).isEqualTo(2);
+        assertThat(repository.get(1L).getName()).isEqualTo("version 100");
+        assertThat(repository.get(2L)).isNull();
+
+        // Queries are answered by the backing repository, once it has every pending change
+        assertThat(repository.query(null)).extracting(ExampleResponse::getName).containsExactly("version 100");
+        assertThat(backing.computes).hasValue(2);
+        assertThat(repository.pendingWrites()).isZero();
+
+        repository.compute(1L, current -> null);
+        repository.close();
+        assertThat(backing.store.get(1L)).isNull();
+        assertThat(repository.flushedWrites()).isEqualTo(3);
+    }
+
+    private static ExampleResponse example(long id, String name) {
+        return new ExampleResponse(id, name, "description", 30, 10.0, true, LocalDate.of(2024, 1, 1),
+                new String[]{"tag"}, ExampleType.BASIC);
+    }
+
+    /**
+     * Stand-in for a slower, larger repository: an in-memory store behind an artificial latency on every call.
+     */
+    private static final class SlowExampleRepository implements ExampleRepository {
+
+        private final ExampleStore store = new ExampleStore();
+        private final long latencyNanos;
+        private final AtomicInteger gets = new AtomicInteger();
+        private final AtomicInteger computes = new AtomicInteger();
+
+        SlowExampleRepository(Duration latency) {
+            this.latencyNanos = latency.toNanos();
+        }
+
+        @Override
+        public ExampleResponse get(Long id) {
+            gets.incrementAndGet();
+            LockSupport.parkNanos(latencyNanos);
+            return store.get(id);
+        }
+
+        @Override
+        public ExampleResponse compute(Long id, UnaryOperator<ExampleResponse> remapping) {
+            computes.incrementAndGet();
+            LockSupport.parkNanos(latencyNanos);
+            return store.compute(id, remapping);
+        }
+
+        @Override
+        public Stream<ExampleResponse> query(ExampleFilter filter, Long afterId) {
+            LockSupport.parkNanos(latencyNanos);
+            return store.query(filter, afterId);
+        }
+
+        @Override
+        public List<SearchHit> search(String query, int limit) {
+            LockSupport.parkNanos(latencyNanos);
+            return store.search(query, limit);
+        }
+
+        @Override
+        public long lastId() {
+            return store.lastId();
+        }
+
+        @Override
+        public boolean recover(ExampleJournal journal) {
+            return false;
+        }
+    }
+}
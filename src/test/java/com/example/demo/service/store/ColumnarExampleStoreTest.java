@@ -0,0 +1,82 @@
+package com.example.demo.service.store;
+
+import com.example.demo.web.model.v1.request.ExampleRequest.ExampleType;
+import com.example.demo.web.model.v1.response.ExampleResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the {@link ExampleStoreTest} suite against the columnar layout, plus checks specific to it.
+ */
+class ColumnarExampleStoreTest extends ExampleStoreTest {
+
+    @Override
+    ExampleStore createStore() {
+        return new ExampleStore(ExampleStore.Layout.COLUMNAR);
+    }
+
+    @Test
+    void examplesRoundTripThroughTheColumns() {
+        ExampleStore store = createStore();
+        ExampleResponse full = new ExampleResponse(1L, "Name", "Description", 42, 9.99, false,
+                LocalDate.of(1969, 7, 20), new String[]{"tag", null, "tag"}, ExampleType.ADVANCED);
+        ExampleResponse empty = new ExampleResponse(2L, null, null, null, null, null, null, null, null);
+        store.put(full);
+        store.put(empty);
+
+        assertThat(store.get(1L)).usingRecursiveComparison().isEqualTo(full);
+        assertThat(store.get(2L)).usingRecursiveComparison().isEqualTo(empty);
+
+        // A freed slot is reused without leaking the previous example's fields
+        store.remove(1L);
+        store.put(new ExampleResponse(3L, "Other", null, null, null, true, null, null, null));
+        assertThat(store.get(1L)).isNull();
+        assertThat(store.get(3L).getIsActive()).isTrue();
+        assertThat(store.get(3L).getTags()).isNull();
+    }
+
+    @Test
+    void readersNeverSeeTornExamples() throws InterruptedException {
+        ExampleStore store = createStore();
+        store.put(example(1L, 0));
+        AtomicBoolean torn = new AtomicBoolean();
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        executor.execute(() -> {
+            for (int version = 1; version <= 100_000; version++) {
+                int next = version;
+                store.update(1L, example -> example(1L, next));
+            }
+            running.set(false);
+        });
+        executor.execute(() -> {
+            while (running.get()) {
+                try {
+                    ExampleResponse example = store.get(1L);
+                    if (example.getAge() != Integer.parseInt(example.getName())
+                            || example.getAge() != example.getPrice().intValue()
+                            || !example.getTags()[0].equals("tag" + example.getAge())) {
+                        torn.set(true);
+                    }
+                } catch (RuntimeException e) { // Such as a tag code beyond the dictionary this thread has seen
+                    torn.set(true);
+                }
+            }
+        });
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(torn).isFalse();
+    }
+
+    private static ExampleResponse example(long id, int version) {
+        return new ExampleResponse(id, String.valueOf(version), null, version, (double) version, version % 2 == 0,
+                null, new String[]{"tag" + version}, null); // A new tag each time, growing the dictionary
+    }
+}
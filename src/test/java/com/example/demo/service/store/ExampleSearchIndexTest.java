@@ -0,0 +1,78 @@
+package com.example.demo.service.store;
+
+import com.example.demo.web.model.v1.response.ExampleResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExampleSearchIndexTest {
+
+    private static final String[] WORDS = {"red", "read", "ready", "blue", "bicycle", "bike", "car", "cart", "boat"};
+
+    @Test
+    void earlyTerminatedSearchReturnsTheSameHitsAsAFullScan() {
+        SplittableRandom random = new SplittableRandom(42);
+        List<ExampleResponse> examples = LongStream.rangeClosed(1, 5_000)
+                .mapToObj(id -> new ExampleResponse(id, words(random, 2), words(random, 4), null, null, null, null,
+                        new String[]{words(random, 1)}, null))
+                .toList();
+        ExampleSearchIndex index = new ExampleSearchIndex();
+        examples.forEach(example -> index.update(null, example));
+        // Rewrite some examples so that postings move between weights
+        examples.stream().filter(example -> example.getId() % 7 == 0).forEach(example -> index.update(example,
+                new ExampleResponse(example.getId(), "red red", null, null, null, null, null, null, null)));
+        List<ExampleResponse> current = examples.stream()
+                .map(example -> example.getId() % 7 == 0
+                        ? new ExampleResponse(example.getId(), "red red", null, null, null, null, null, null, null)
+                        : example)
+                .toList();
+
+        for (String query : List.of("red", "rea", "b", "car bike", "ready blue boat", "re ca", "missing")) {
+            for (int limit : new int[]{1, 10, 100}) {
+                assertThat(index.search(query, limit))
+                        .as("%s (limit %d)", query, limit)
+                        .containsExactlyElementsOf(index.scan(current.stream(), query, limit));
+            }
+        }
+    }
+
+    @Test
+    void wordsOfRemovedExamplesLeaveTheDictionaryUnderConcurrentWriters() throws InterruptedException {
+        ExampleSearchIndex index = new ExampleSearchIndex();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int writer = 0; writer < 4; writer++) {
+            long first = writer * 10_000L;
+            executor.execute(() -> {
+                for (long id = first; id < first + 10_000; id++) {
+                    ExampleResponse example = new ExampleResponse(id, "shared word" + id % 3, null, null, null, null,
+                            null, null, null);
+                    index.update(null, example);
+                    if (id % 100 != 0) {
+                        index.update(example, null);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(index.termCount()).isEqualTo(4); // "shared", "word0", "word1" and "word2" of the kept examples
+        assertThat(index.search("shared", 1_000)).hasSize(400);
+        assertThat(index.search("word", 1_000)).hasSize(400);
+    }
+
+    private static String words(SplittableRandom random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.demo.service.store;
+
+import com.example.demo.service.ExampleFilter;
+import com.example.demo.web.model.v1.request.ExampleRequest.ExampleType;
+import com.example.demo.web.model.v1.response.ExampleResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExampleStoreTest {
+
+    private final ExampleStore store = createStore();
+
+    ExampleStore createStore() {
+        return new ExampleStore();
+    }
+
+    @Test
+    void putGetAndRemove() {
+        store.put(example(2L, ExampleType.BASIC));
+        store.put(example(1L, ExampleType.PRO));
+
+        assertThat(store.get(1L).getExampleType()).isEqualTo(ExampleType.PRO);
+        assertThat(store.stream().map(ExampleResponse::getId)).containsExactly(1L, 2L);
+
+        assertThat(store.remove(1L)).isNotNull();
+        assertThat(store.remove(1L)).isNull();
+        assertThat(store.get(1L)).isNull();
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void updateOnlyTouchesExistingExamples() {
+        store.put(example(1L, ExampleType.BASIC));
+
+        assertThat(store.update(1L, example -> example(1L, ExampleType.PRO)).getExampleType()).isEqualTo(ExampleType.PRO);
+        assertThat(store.update(2L, example -> example(2L, ExampleType.PRO))).isNull();
+    }
+
+    @Test
+    void queriesAreAnsweredFromMaintainedIndexes() {
+        store.put(example(1L, ExampleType.BASIC));
+        store.put(example(2L, ExampleType.PRO));
+        store.put(example(3L, ExampleType.PRO));
+        store.update(3L, example -> example(3L, ExampleType.ADVANCED));
+        store.remove(2L);
+
+        assertThat(ids(new ExampleFilter(ExampleType.PRO, null, null, null, null))).isEmpty();
+        assertThat(ids(new ExampleFilter(ExampleType.ADVANCED, true, null, null, null))).containsExactly(3L);
+        assertThat(ids(new ExampleFilter(null, null, List.of("tag1"), null, null))).containsExactly(1L);
+        assertThat(ids(new ExampleFilter(null, null, List.of("missing"), null, null))).isEmpty();
+        assertThat(ids(new ExampleFilter(null, null, null, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 1))))
+                .containsExactly(1L, 3L);
+        assertThat(ids(new ExampleFilter(null, false, null, null, null))).isEmpty();
+    }
+
+    @Test
+    void creationDateRangesArePagedInIdOrderAcrossDates() {
+        for (long id = 100; id >= 1; id--) {
+            ExampleResponse example = example(id, ExampleType.BASIC);
+            example.setCreationDate(LocalDate.of(2024, 1, 1).plusDays(id % 7));
+            store.put(example);
+        }
+        store.update(53L, example -> { // Moves into the range
+            ExampleResponse moved = example(53L, ExampleType.BASIC);
+            moved.setCreationDate(LocalDate.of(2024, 1, 2));
+            return moved;
+        });
+        ExampleFilter filter = new ExampleFilter(null, null, null, LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 4));
+        List<Long> expected = LongStream.rangeClosed(1, 100).filter(id -> id % 7 >= 1 && id % 7 <= 3 || id == 53)
+                .boxed().toList();
+
+        assertThat(ids(filter)).isEqualTo(expected);
+        assertThat(store.query(filter, 50L).limit(3).map(ExampleResponse::getId)).containsExactly(51L, 52L, 53L);
+        assertThat(store.query(filter, 100L)).isEmpty();
+    }
+
+    @Test
+    void searchMatchesPrefixesOfEveryWordAndRanksNameMatchesFirst() {
+        store.put(new ExampleResponse(1L, "Red bicycle", "A fast bicycle", null, null, null, null,
+                new String[]{"sport"}, null));
+        store.put(new ExampleResponse(2L, "Blue car", "Faster than a bicycle", null, null, null, null,
+                new String[]{"red"}, null));
+        store.put(new ExampleResponse(3L, "Green boat", null, null, null, null, null, null, null));
+
+        assertThat(store.search("bicy", 10)).extracting(SearchHit::id).containsExactly(1L, 2L);
+        assertThat(store.search("RED fast", 10)).extracting(SearchHit::id).containsExactly(1L, 2L);
+        assertThat(store.search("red boat", 10)).isEmpty();
+        assertThat(store.search("bicycle", 1)).extracting(SearchHit::id).containsExactly(1L);
+
+        store.update(1L, example -> new ExampleResponse(1L, "Red scooter", null, null, null, null, null, null, null));
+        store.remove(2L);
+        assertThat(store.search("bicycle", 10)).isEmpty();
+        assertThat(store.search("scoot", 10)).extracting(SearchHit::id).containsExactly(1L);
+    }
+
+    @Test
+    void concurrentWritersKeepStoreConsistent() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        LongStream.rangeClosed(1, 10_000).forEach(id -> executor.execute(() -> {
+            store.put(example(id, ExampleType.BASIC));
+            if (id % 2 == 0) {
+                store.remove(id);
+            }
+        }));
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        List<Long> ids = store.stream().map(ExampleResponse::getId).toList();
+        assertThat(store.size()).isEqualTo(5_000);
+        assertThat(ids).hasSize(5_000).isSorted().allMatch(id -> id % 2 == 1);
+    }
+
+    @Test
+    void attachedSourceIsServedWhileItLoadsAndWritesTakePrecedence() {
+        List<ExampleResponse> snapshot = LongStream.rangeClosed(1, 1_000)
+                .mapToObj(id -> example(id, ExampleType.BASIC))
+                .toList();
+        store.attach(new LazyExampleSource() {
+            @Override
+            public long size() {
+                return snapshot.size();
+            }
+
+            @Override
+            public long idAt(long index) {
+                return snapshot.get((int) index).getId();
+            }
+
+            @Override
+            public ExampleResponse exampleAt(long index) {
+                return example(idAt(index), ExampleType.BASIC);
+            }
+        });
+        store.remove(2L);
+        store.update(3L, example -> example(3L, ExampleType.PRO));
+        store.put(example(1_001L, ExampleType.PRO));
+
+        assertThat(store.get(2L)).isNull();
+        assertThat(store.get(500L).getName()).isEqualTo("Example 500");
+        assertThat(store.lastId()).isEqualTo(1_001L);
+        assertThat(ids(ExampleFilter.ofType(ExampleType.PRO))).containsExactly(3L, 1_001L);
+
+        store.hydration().join();
+        assertThat(store.size()).isEqualTo(1_000);
+        assertThat(store.stream().map(ExampleResponse::getId).toList()).hasSize(1_000).isSorted().doesNotContain(2L);
+        assertThat(ids(ExampleFilter.ofType(ExampleType.PRO))).containsExactly(3L, 1_001L);
+    }
+
+    private List<Long> ids(ExampleFilter filter) {
+        return store.query(filter).map(ExampleResponse::getId).toList();
+    }
+
+    private static ExampleResponse example(long id, ExampleType type) {
+        return new ExampleResponse(id, "Example " + id, "Description " + id, 30, 100.0, true,
+                LocalDate.of(2024, 1, 1), new String[]{"tag" + id}, type);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.demo.utils;
+
+import com.example.demo.infrastructure.security.TokenStore;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.example.demo.domain.Constants.TOKEN_VALIDITY;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtUtilTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+    private final TokenStore tokenStore = new TokenStore(100);
+    private final JwtUtil jwtUtil = new JwtUtil(tokenStore, 100, now::get);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    JwtUtilTest() {
+        jwtUtil.bindTo(registry);
+    }
+
+    @Test
+    void issuedTokensAreAcceptedAndOthersRejected() {
+        String token = jwtUtil.generateToken("alice");
+        String issuedElsewhere = new JwtUtil(new TokenStore(100), 100).generateToken("bob");
+
+        Claims claims = jwtUtil.validateToken(token);
+        assertThat(claims.getSubject()).isEqualTo("alice");
+        assertThat(jwtUtil.validateToken(issuedElsewhere)).isNull();
+        assertThat(jwtUtil.validateToken("not a token")).isNull();
+        assertThat(validations("verified")).isEqualTo(1);
+        assertThat(validations("unknown")).isEqualTo(2);
+    }
+
+    @Test
+    void forgedSignaturesAreNeverAcceptedOrCached() {
+        String[] parts = jwtUtil.generateToken("alice").split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+                .replace("alice", "admin");
+        String forged = parts[0] + "." + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "." + parts[2];
+        tokenStore.add(forged); // Even a registered token must carry a valid signature
+
+        assertThat(jwtUtil.validateToken(forged)).isNull();
+        assertThat(jwtUtil.validateToken(forged)).isNull();
+        assertThat(validations("rejected")).isEqualTo(2);
+        assertThat(validations("cached")).isZero();
+    }
+
+    @Test
+    void cachedClaimsExpireWithTheirToken() {
+        String token = jwtUtil.generateToken("alice");
+        jwtUtil.validateToken(token);
+        jwtUtil.validateToken(token);
+        assertThat(validations("verified")).isEqualTo(1);
+        assertThat(validations("cached")).isEqualTo(1);
+
+        now.addAndGet(TOKEN_VALIDITY.toNanos());
+        // The token itself is still valid by the wall clock, so it is verified again rather than served from the cache
+        assertThat(jwtUtil.validateToken(token)).isNotNull();
+        assertThat(validations("verified")).isEqualTo(2);
+        assertThat(validations("cached")).isEqualTo(1);
+    }
+
+    private double validations(String result) {
+        return registry.get("security.jwt.validations").tag("result", result).functionCounter().count();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.demo.utils;
+
+import com.example.demo.web.model.v1.request.ExampleRequest;
+import com.example.demo.web.model.v1.request.ExampleRequest.ExampleType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SyntheticExampleGeneratorTest {
+
+    private static final LocalDate NEWEST = LocalDate.of(2024, 12, 31);
+
+    @Test
+    void sameSeedYieldsSameExamplesInAnyOrderAndOnAnyThread() {
+        SyntheticExampleGenerator generator = new SyntheticExampleGenerator(42, 1_000, NEWEST);
+        List<ExampleRequest> sequential = generator.examples(20_000).toList();
+
+        assertThat(new SyntheticExampleGenerator(42, 1_000, NEWEST).examples(20_000).parallel().toList())
+                .isEqualTo(sequential);
+        assertThat(generator.example(12_345)).isEqualTo(sequential.get(12_345));
+        assertThat(new SyntheticExampleGenerator(43, 1_000, NEWEST).example(12_345))
+                .isNotEqualTo(sequential.get(12_345));
+
+        ConcurrentLinkedQueue<ExampleRequest> batched = new ConcurrentLinkedQueue<>();
+        generator.forEachBatch(20_000, 3_000, batched::addAll);
+        assertThat(batched).containsExactlyInAnyOrderElementsOf(sequential);
+    }
+
+    @Test
+    void valuesAreSkewed() {
+        List<ExampleRequest> examples = new SyntheticExampleGenerator(1, 1_000, NEWEST).examples(50_000).toList();
+
+        Map<String, Long> tagCounts = examples.stream()
+                .flatMap(example -> Arrays.stream(example.getTags()))
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        assertThat(tagCounts.get("tag1")).isGreaterThan(50 * tagCounts.getOrDefault("tag1000", 1L));
+
+        Map<ExampleType, Long> typeCounts = examples.stream()
+                .collect(Collectors.groupingBy(ExampleRequest::getExampleType, Collectors.counting()));
+        assertThat(typeCounts.get(ExampleType.BASIC)).isGreaterThan(typeCounts.get(ExampleType.PRO) * 4);
+
+        double[] prices = examples.stream().mapToDouble(ExampleRequest::getPrice).sorted().toArray();
+        double mean = Arrays.stream(prices).average().orElseThrow();
+        assertThat(mean).isGreaterThan(prices[prices.length / 2] * 1.3); // Long right tail
+
+        assertThat(examples).allSatisfy(example -> {
+            assertThat(example.getAge()).isBetween(18, 90);
+            assertThat(example.getCreationDate()).isBetween(NEWEST.minusDays(3_650), NEWEST);
+            assertThat(example.getTags()).doesNotHaveDuplicates().hasSizeBetween(1, 5);
+        });
+    }
+
+    @Test
+    void writesExamplesAsJsonArrayInOrder() throws IOException {
+        SyntheticExampleGenerator generator = new SyntheticExampleGenerator(42, 100, NEWEST);
+        ObjectMapper mapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        long count = SyntheticExampleGenerator.CHUNK_SIZE * 2L + 17;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        generator.writeJson(count, mapper, out);
+
+        ExampleRequest[] read = mapper.readValue(out.toByteArray(), ExampleRequest[].class);
+        assertThat(read).containsExactlyElementsOf(generator.examples(count).toList());
+    }
+}
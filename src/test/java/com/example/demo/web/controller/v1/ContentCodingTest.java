@@ -0,0 +1,28 @@
+package com.example.demo.web.controller.v1;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentCodingTest {
+
+    @Test
+    void picksTheAcceptedCodingWithTheHighestQuality() {
+        assertThat(ContentCoding.negotiate(null)).isEqualTo(ContentCoding.IDENTITY);
+        assertThat(ContentCoding.negotiate("br")).isEqualTo(ContentCoding.IDENTITY);
+        assertThat(ContentCoding.negotiate("deflate")).isEqualTo(ContentCoding.DEFLATE);
+        assertThat(ContentCoding.negotiate("gzip, deflate, br")).isEqualTo(ContentCoding.GZIP);
+        assertThat(ContentCoding.negotiate("gzip;q=0.5, deflate;q=0.8")).isEqualTo(ContentCoding.DEFLATE);
+        assertThat(ContentCoding.negotiate("*")).isEqualTo(ContentCoding.GZIP);
+    }
+
+    @Test
+    void neverPicksARefusedCoding() {
+        assertThat(ContentCoding.negotiate("gzip;q=0")).isEqualTo(ContentCoding.IDENTITY);
+        assertThat(ContentCoding.negotiate("*;q=0")).isEqualTo(ContentCoding.IDENTITY);
+        assertThat(ContentCoding.negotiate("gzip;q=0, deflate;q=0")).isEqualTo(ContentCoding.IDENTITY);
+        assertThat(ContentCoding.negotiate("gzip;q=0, *")).isEqualTo(ContentCoding.DEFLATE);
+        assertThat(ContentCoding.negotiate("deflate, *;q=0")).isEqualTo(ContentCoding.DEFLATE);
+        assertThat(ContentCoding.negotiate("gzip;q=invalid")).isEqualTo(ContentCoding.IDENTITY);
+    }
+}
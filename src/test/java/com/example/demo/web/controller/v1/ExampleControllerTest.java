@@ -0,0 +1,341 @@
+package com.example.demo.web.controller.v1;
+
+import com.example.demo.web.model.v1.request.ExampleRequest;
+import com.example.demo.web.model.v1.request.ExampleRequest.ExampleType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ExampleControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+
+    private String token;
+
+    @BeforeEach
+    void authenticate() throws Exception {
+        token = mockMvc.perform(get("/api/auth/token")).andReturn().getResponse().getContentAsString();
+    }
+
+    @Test
+    void cachedListsAreCompressedPerAcceptedCodingUnderOneWeakTag() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            create("compressed list " + i, ExampleType.BASIC); // Well above the compression threshold
+        }
+
+        MvcResult identity = perform(get("/api/example"));
+        MvcResult gzip = perform(get("/api/example").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"));
+        MvcResult deflate = perform(get("/api/example").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, deflate"));
+        MvcResult refused = perform(get("/api/example").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, *;q=0"));
+
+        byte[] body = identity.getResponse().getContentAsByteArray();
+        String etag = identity.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(identity.getResponse().getStatus()).isEqualTo(200);
+        assertThat(identity.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(etag).startsWith("W/\"");
+        assertThat(String.join(",", identity.getResponse().getHeaders(HttpHeaders.VARY)))
+                .contains(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        assertThat(objectMapper.readTree(body).get("examples").size()).isGreaterThanOrEqualTo(20);
+
+        assertThat(gzip.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(decode(new GZIPInputStream(content(gzip)))).isEqualTo(body);
+        assertThat(deflate.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("deflate");
+        assertThat(decode(new InflaterInputStream(content(deflate)))).isEqualTo(body);
+        assertThat(refused.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(refused.getResponse().getContentAsByteArray()).isEqualTo(body);
+        for (MvcResult result : new MvcResult[]{gzip, deflate, refused}) {
+            assertThat(result.getResponse().getHeader(HttpHeaders.ETAG)).isEqualTo(etag);
+        }
+    }
+
+    @Test
+    void listTagsChangeOnlyWithTheListedTypeAndStaleListsAreNeverServed() throws Exception {
+        create("tagged pro", ExampleType.PRO);
+        MvcResult pro = perform(get("/api/example").param("type", "PRO"));
+        MvcResult basic = perform(get("/api/example").param("type", "BASIC"));
+        String proTag = pro.getResponse().getHeader(HttpHeaders.ETAG);
+        String basicTag = basic.getResponse().getHeader(HttpHeaders.ETAG);
+
+        MvcResult notModified = perform(get("/api/example").param("type", "PRO")
+                .header(HttpHeaders.IF_NONE_MATCH, proTag));
+        assertThat(notModified.getResponse().getStatus()).isEqualTo(304);
+        assertThat(notModified.getResponse().getContentLength()).isZero();
+
+        long id = create("changed pro", ExampleType.PRO).get("id").asLong();
+        MvcResult changed = perform(get("/api/example").param("type", "PRO")
+                .header(HttpHeaders.IF_NONE_MATCH, proTag));
+        assertThat(changed.getResponse().getStatus()).isEqualTo(200);
+        assertThat(changed.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(proTag);
+        assertThat(objectMapper.readTree(changed.getResponse().getContentAsByteArray()).get("examples"))
+                .extracting(example -> example.get("id").asLong()).contains(id);
+
+        MvcResult unchanged = perform(get("/api/example").param("type", "BASIC")
+                .header(HttpHeaders.IF_NONE_MATCH, basicTag));
+        assertThat(unchanged.getResponse().getStatus()).isEqualTo(304);
+        assertThat(unchanged.getResponse().getHeader(HttpHeaders.ETAG)).isEqualTo(basicTag);
+    }
+
+    @Test
+    void binaryFormatsAreReadAndWrittenPerContentTypeAndAccept() throws Exception {
+        ObjectMapper cbor = cborConverter.getObjectMapper();
+        ObjectMapper smile = smileConverter.getObjectMapper();
+        MvcResult created = perform(post("/api/example")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_CBOR)
+                .content(cbor.writeValueAsBytes(request("cbor", ExampleType.PRO, "binary", LocalDate.of(2024, 1, 1)))));
+        assertThat(created.getResponse().getStatus()).isEqualTo(200);
+        assertThat(created.getResponse().getContentType()).startsWith(MediaType.APPLICATION_CBOR_VALUE);
+        long id = cbor.readTree(created.getResponse().getContentAsByteArray()).get("id").asLong();
+
+        MvcResult cborList = perform(get("/api/example").param("tag", "binary").accept(MediaType.APPLICATION_CBOR));
+        MvcResult smileList = perform(get("/api/example").param("tag", "binary")
+                .header(HttpHeaders.ACCEPT, WireFormat.APPLICATION_SMILE_VALUE + ", application/json;q=0.5"));
+
+        assertThat(cborList.getResponse().getContentType()).startsWith(MediaType.APPLICATION_CBOR_VALUE);
+        assertThat(smileList.getResponse().getContentType()).startsWith(WireFormat.APPLICATION_SMILE_VALUE);
+        byte[] smileBody = smileList.getResponse().getContentAsByteArray();
+        assertThat(new String(smileBody, 0, 3, StandardCharsets.US_ASCII)).isEqualTo(":)\n"); // Smile header
+        for (JsonNode list : new JsonNode[]{
+                cbor.readTree(cborList.getResponse().getContentAsByteArray()), smile.readTree(smileBody)}) {
+            assertThat(list.get("examples")).extracting(example -> example.get("id").asLong()).containsExactly(id);
+            assertThat(list.get("examples").get(0).get("name").asText()).isEqualTo("cbor");
+        }
+    }
+
+    @Test
+    void pagesFollowTheCursorUntilTheLastPage() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(create(request("paged " + i, ExampleType.PRO, "paged", LocalDate.of(2023, 3, 1 + i)))
+                    .get("id").asLong());
+        }
+
+        List<Long> listed = new ArrayList<>();
+        String after = "";
+        for (int page = 0; page < 3; page++) {
+            JsonNode body = objectMapper.readTree(perform(get("/api/example")
+                    .param("createdFrom", "2023-03-01").param("createdTo", "2023-03-05").param("tag", "paged")
+                    .param("limit", "2").param("after", after)).getResponse().getContentAsByteArray());
+            body.get("examples").forEach(example -> listed.add(example.get("id").asLong()));
+            if (page < 2) {
+                assertThat(body.get("nextCursor").asLong()).isEqualTo(listed.get(listed.size() - 1));
+                after = body.get("nextCursor").asText();
+            } else {
+                assertThat(body.has("nextCursor")).isFalse();
+            }
+        }
+        assertThat(listed).isEqualTo(ids);
+    }
+
+    @Test
+    void streamWritesOneMatchingExamplePerLineAfterTheCursor() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(create(request("streamed " + i, ExampleType.ADVANCED, "streamed", LocalDate.of(2024, 1, 1)))
+                    .get("id").asLong());
+        }
+
+        MvcResult all = perform(get("/api/example/stream").param("tag", "streamed"));
+        MvcResult rest = perform(get("/api/example/stream")
+                .param("tag", "streamed").param("after", ids.get(0).toString()));
+
+        assertThat(all.getResponse().getContentType()).startsWith(MediaType.APPLICATION_NDJSON_VALUE);
+        assertThat(streamedIds(all)).isEqualTo(ids);
+        assertThat(streamedIds(rest)).isEqualTo(ids.subList(1, 3));
+    }
+
+    @Test
+    void changesToAbsentExamplesAreNotFoundAndFailAnyEntityTag() throws Exception {
+        byte[] details = objectMapper.writeValueAsBytes(
+                request("absent", ExampleType.BASIC, "absent", LocalDate.of(2024, 1, 1)));
+        String absent = "/api/example/" + Long.MAX_VALUE;
+
+        assertThat(status(put(absent).contentType(MediaType.APPLICATION_JSON).content(details))).isEqualTo(404);
+        assertThat(status(patch(absent).contentType(MediaType.APPLICATION_JSON).content("{\"age\": 40}")))
+                .isEqualTo(404);
+        assertThat(status(delete(absent))).isEqualTo(204);
+
+        assertThat(status(put(absent).contentType(MediaType.APPLICATION_JSON).content(details)
+                .header(HttpHeaders.IF_MATCH, "*"))).isEqualTo(412);
+        assertThat(status(patch(absent).contentType(MediaType.APPLICATION_JSON).content("{\"age\": 40}")
+                .header(HttpHeaders.IF_MATCH, "*"))).isEqualTo(412);
+        assertThat(status(delete(absent).header(HttpHeaders.IF_MATCH, "*"))).isEqualTo(412);
+
+        String present = "/api/example/" + create("present", ExampleType.BASIC).get("id").asLong();
+        assertThat(status(put(present).contentType(MediaType.APPLICATION_JSON).content(details)
+                .header(HttpHeaders.IF_MATCH, "*"))).isEqualTo(200);
+        assertThat(status(delete(present).header(HttpHeaders.IF_MATCH, "*"))).isEqualTo(204);
+    }
+
+    @Test
+    void batchesAreAppliedAcrossChunksWithOneResultPerItem() throws Exception {
+        List<ExampleRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 2_500; i++) { // Spans three chunks of the controller
+            requests.add(i == 1_500
+                    ? null : request("batch " + i, ExampleType.BASIC, "batch", LocalDate.of(2024, 1, 1)));
+        }
+
+        List<JsonNode> created = lines(perform(post("/api/example/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(requests))));
+
+        assertThat(created).hasSize(2_500);
+        for (int i = 0; i < created.size(); i++) {
+            if (i == 1_500) {
+                assertThat(created.get(i).get("status").asInt()).isEqualTo(400);
+            } else {
+                assertThat(created.get(i).get("status").asInt()).isEqualTo(200);
+                assertThat(created.get(i).get("example").get("name").asText()).isEqualTo("batch " + i);
+            }
+        }
+        long first = created.get(0).get("id").asLong();
+        long second = created.get(1).get("id").asLong();
+
+        ExampleRequest update = request("updated", ExampleType.PRO, "batch", LocalDate.of(2024, 1, 1));
+        update.setId(first);
+        ExampleRequest missing = request("missing", ExampleType.PRO, "batch", LocalDate.of(2024, 1, 1));
+        missing.setId(Long.MAX_VALUE);
+        List<JsonNode> updated = lines(perform(put("/api/example/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(List.of(update, missing)))));
+        assertThat(updated).extracting(result -> result.get("status").asInt()).containsExactly(200, 404);
+        assertThat(updated.get(1).get("error").asText()).isEqualTo("Example not found.");
+
+        List<JsonNode> deleted = lines(perform(delete("/api/example/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[" + second + ", " + second + ", null]")));
+        assertThat(deleted).extracting(result -> result.get("status").asInt()).containsExactly(204, 404, 400);
+        JsonNode listed = objectMapper.readTree(perform(get("/api/example").param("tag", "batch").param("limit", "2"))
+                .getResponse().getContentAsByteArray()).get("examples");
+        assertThat(listed.get(0).get("id").asLong()).isEqualTo(first);
+        assertThat(listed.get(0).get("name").asText()).isEqualTo("updated");
+        assertThat(listed.get(1).get("id").asLong()).isNotEqualTo(second);
+    }
+
+    @Test
+    void invalidBatchItemEndsTheStreamAfterTheItemsBeforeIt() throws Exception {
+        String valid = objectMapper.writeValueAsString(
+                request("before invalid", ExampleType.BASIC, "invalid-batch", LocalDate.of(2024, 1, 1)));
+
+        List<JsonNode> results = lines(perform(post("/api/example/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[" + valid + ", " + valid + ", {\"age\": \"old\"}, " + valid + "]")));
+
+        assertThat(results).hasSize(3);
+        assertThat(results.get(2).get("status").asInt()).isEqualTo(400);
+        assertThat(results.get(2).has("id")).isFalse();
+        assertThat(results.get(2).get("error").asText()).startsWith("Invalid batch item");
+        assertThat(results.subList(0, 2)).extracting(result -> result.get("status").asInt()).containsExactly(200, 200);
+        JsonNode applied = objectMapper.readTree(perform(get("/api/example").param("tag", "invalid-batch"))
+                .getResponse().getContentAsByteArray()).get("examples");
+        assertThat(applied).extracting(example -> example.get("id").asLong())
+                .containsExactly(results.get(0).get("id").asLong(), results.get(1).get("id").asLong());
+    }
+
+    @Test
+    void batchBodiesMustBeArrays() throws Exception {
+        MvcResult result = perform(post("/api/example/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(
+                        request("single", ExampleType.BASIC, "batch", LocalDate.of(2024, 1, 1)))));
+
+        assertThat(result.getResponse().getStatus()).isEqualTo(400);
+    }
+
+    private int status(MockHttpServletRequestBuilder request) throws Exception {
+        return perform(request).getResponse().getStatus();
+    }
+
+    private List<Long> streamedIds(MvcResult result) throws Exception {
+        return lines(result).stream().map(example -> example.get("id").asLong()).toList();
+    }
+
+    /**
+     * Parses a newline-delimited JSON response, checking that every line is terminated.
+     */
+    private List<JsonNode> lines(MvcResult result) throws Exception {
+        String body = result.getResponse().getContentAsString();
+        assertThat(body).endsWith("\n");
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+
+    private JsonNode create(String name, ExampleType type) throws Exception {
+        return create(request(name, type, "test", LocalDate.of(2024, 1, 1)));
+    }
+
+    private static ExampleRequest request(String name, ExampleType type, String tag, LocalDate creationDate) {
+        return new ExampleRequest(null, name, "Created by a test", 30, 10.0, true, creationDate, new String[]{tag},
+                type);
+    }
+
+    private JsonNode create(ExampleRequest request) throws Exception {
+        MvcResult result = perform(post("/api/example")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(request)));
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        return objectMapper.readTree(result.getResponse().getContentAsByteArray());
+    }
+
+    /**
+     * Sends an authenticated request, and waits for the result of the asynchronous ones.
+     */
+    private MvcResult perform(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token)).andReturn();
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)).andReturn() : result;
+    }
+
+    private static InputStream content(MvcResult result) {
+        return new ByteArrayInputStream(result.getResponse().getContentAsByteArray());
+    }
+
+    private static byte[] decode(InputStream in) throws IOException {
+        try (in) {
+            return in.readAllBytes();
+        }
+    }
+}
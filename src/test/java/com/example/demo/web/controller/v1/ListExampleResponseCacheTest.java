@@ -0,0 +1,70 @@
+package com.example.demo.web.controller.v1;
+
+import com.example.demo.service.ExampleFilter;
+import com.example.demo.web.model.v1.request.ExampleRequest.ExampleType;
+import com.example.demo.web.model.v1.response.ExampleResponse;
+import com.example.demo.web.model.v1.response.ListExampleResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ListExampleResponseCacheTest {
+
+    private final ListExampleResponseCache cache = new ListExampleResponseCache(new ObjectMapper(),
+            new MappingJackson2CborHttpMessageConverter(), new MappingJackson2SmileHttpMessageConverter(),
+            new SimpleMeterRegistry(), 1 << 20, false, DataSize.ofKilobytes(2));
+
+    private final ListExampleResponseCache.ListQuery query = new ListExampleResponseCache.ListQuery(
+            ExampleFilter.ofType(ExampleType.PRO), null, null, WireFormat.JSON);
+
+    @Test
+    void entriesAreOnlyServedAtTheVersionTheyWereBuiltAt() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThat(body(1, "first", loads)).contains("first");
+        assertThat(body(1, "unused", loads)).contains("first");
+        assertThat(loads).hasValue(1);
+
+        assertThat(body(2, "second", loads)).contains("second");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void lateResponsesOfOlderVersionsDoNotReplaceNewerOnes() {
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<ListExampleResponse> slow = new CompletableFuture<>();
+        CompletableFuture<ListExampleResponseCache.Payload> old =
+                cache.get(query, 1, ContentCoding.IDENTITY, () -> slow);
+
+        assertThat(body(2, "new", loads)).contains("new");
+        slow.complete(list("old"));
+        assertThat(old.join().body()).isNotNull();
+
+        assertThat(body(2, "unused", loads)).contains("new");
+        assertThat(loads).hasValue(1);
+    }
+
+    private String body(long version, String name, AtomicInteger loads) {
+        ByteBuffer body = cache.get(query, version, ContentCoding.IDENTITY, () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(list(name));
+        }).join().body();
+        return StandardCharsets.UTF_8.decode(body).toString();
+    }
+
+    private static ListExampleResponse list(String name) {
+        return new ListExampleResponse(List.of(new ExampleResponse(1L, name, null, null, null, null, null, null,
+                ExampleType.PRO)), null);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.demo.web.controller.v1;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WireFormatTest {
+
+    @Test
+    void picksTheAcceptedFormatWithTheHighestQuality() {
+        assertThat(negotiate("")).isEqualTo(WireFormat.JSON);
+        assertThat(negotiate("*/*")).isEqualTo(WireFormat.JSON);
+        assertThat(negotiate("application/cbor")).isEqualTo(WireFormat.CBOR);
+        assertThat(negotiate("application/x-jackson-smile, application/cbor")).isEqualTo(WireFormat.CBOR);
+        assertThat(negotiate("application/json;q=0.5, application/x-jackson-smile")).isEqualTo(WireFormat.SMILE);
+        assertThat(negotiate("text/html")).isEqualTo(WireFormat.JSON);
+    }
+
+    @Test
+    void mostSpecificMediaTypeDecidesWhetherAFormatIsRefused() {
+        assertThat(negotiate("application/json;q=0, */*")).isEqualTo(WireFormat.CBOR);
+        assertThat(negotiate("application/*;q=0.2, application/x-jackson-smile;q=0.9")).isEqualTo(WireFormat.SMILE);
+    }
+
+    private static WireFormat negotiate(String accept) {
+        return WireFormat.negotiate(accept.isEmpty() ? List.of() : MediaType.parseMediaTypes(accept));
+    }
+}